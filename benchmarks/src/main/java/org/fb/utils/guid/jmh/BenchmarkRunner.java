@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks (all of them or those matching the given JMH command
+ * line) with the GC allocation profiler, once per thread count: 1, 4, 16 and
+ * 64 threads, unless a thread count is given on the command line (-t).
+ */
+public final class BenchmarkRunner {
+  private static final int[] THREADS = { 1, 4, 16, 64 };
+
+  private BenchmarkRunner() {
+    // Empty
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final var commandLine = new CommandLineOptions(args);
+    final int[] threads;
+    if (commandLine.getThreads().hasValue()) {
+      threads = new int[] { commandLine.getThreads().get() };
+    } else {
+      threads = THREADS;
+    }
+    for (final int thread : threads) {
+      final var options =
+          new OptionsBuilder().parent(commandLine).threads(thread).addProfiler(GCProfiler.class).build();
+      new Runner(options).run();
+    }
+  }
+}
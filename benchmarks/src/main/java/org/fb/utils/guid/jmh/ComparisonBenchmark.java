@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * compareTo, hashCode and equals (on equal but not identical instances) of
+ * all UUID types
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComparisonBenchmark {
+
+  @Benchmark
+  public int guidCompareTo(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.guids[i].compareTo(samples.guids[i + 1 & IdSamples.SIZE - 1]);
+  }
+
+  @Benchmark
+  public int tinyGuidCompareTo(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.tinyGuids[i].compareTo(samples.tinyGuids[i + 1 & IdSamples.SIZE - 1]);
+  }
+
+  @Benchmark
+  public int factoryGuidCompareTo(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.factoryGuids[i].compareTo(samples.factoryGuids[i + 1 & IdSamples.SIZE - 1]);
+  }
+
+  @Benchmark
+  public int guidHashCode(final IdSamples samples) {
+    return samples.guids[samples.next()].hashCode();
+  }
+
+  @Benchmark
+  public int tinyGuidHashCode(final IdSamples samples) {
+    return samples.tinyGuids[samples.next()].hashCode();
+  }
+
+  @Benchmark
+  public int factoryGuidHashCode(final IdSamples samples) {
+    return samples.factoryGuids[samples.next()].hashCode();
+  }
+
+  @Benchmark
+  public int longUuidHashCode(final IdSamples samples) {
+    return samples.longUuids[samples.next()].hashCode();
+  }
+
+  @Benchmark
+  public int integerUuidHashCode(final IdSamples samples) {
+    return samples.integerUuids[samples.next()].hashCode();
+  }
+
+  @Benchmark
+  public boolean guidEquals(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.guids[i].equals(samples.guidCopies[i]);
+  }
+
+  @Benchmark
+  public boolean tinyGuidEquals(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.tinyGuids[i].equals(samples.tinyGuidCopies[i]);
+  }
+
+  @Benchmark
+  public boolean factoryGuidEquals(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.factoryGuids[i].equals(samples.factoryGuidCopies[i]);
+  }
+
+  @Benchmark
+  public boolean longUuidEquals(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.longUuids[i].equals(samples.longUuidCopies[i]);
+  }
+
+  @Benchmark
+  public boolean integerUuidEquals(final IdSamples samples) {
+    final int i = samples.next();
+    return samples.integerUuids[i].equals(samples.integerUuidCopies[i]);
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.IntegerUuid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counter contention: IntegerUuid (whose generation is only its counter)
+ * from the lock-free counter against the same IntegerUuid from the previous
+ * counter, a monitor around a CAS, at the thread counts of BenchmarkRunner
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CounterBenchmark {
+  private static final int MAX = (1 << 24) - 1;
+  private static final AtomicInteger LEGACY_COUNTER = new AtomicInteger();
+
+  /**
+   * Previous implementation: a monitor around a CAS
+   */
+  private static synchronized int legacyCounter() {
+    if (LEGACY_COUNTER.compareAndSet(MAX, 0)) {
+      return MAX;
+    } else {
+      return LEGACY_COUNTER.getAndIncrement();
+    }
+  }
+
+  @Benchmark
+  public IntegerUuid lockFreeCounter() {
+    return new IntegerUuid();
+  }
+
+  @Benchmark
+  public IntegerUuid synchronizedCounter() {
+    return new IntegerUuid(legacyCounter());
+  }
+}
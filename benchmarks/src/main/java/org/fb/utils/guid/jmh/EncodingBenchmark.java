@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * String forms of all UUID types
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncodingBenchmark {
+
+  @Benchmark
+  public String guidToBase32(final IdSamples samples) {
+    return samples.guids[samples.next()].toBase32();
+  }
+
+  @Benchmark
+  public String guidToBase64(final IdSamples samples) {
+    return samples.guids[samples.next()].toBase64();
+  }
+
+  @Benchmark
+  public String guidToHex(final IdSamples samples) {
+    return samples.guids[samples.next()].toHex();
+  }
+
+  @Benchmark
+  public String guidToArk(final IdSamples samples) {
+    return samples.guids[samples.next()].toArk();
+  }
+
+  @Benchmark
+  public int guidWriteArk(final IdSamples samples) {
+    return samples.guids[samples.next()].writeArk(samples.ascii, 0);
+  }
+
+  @Benchmark
+  public int guidAppendArk(final IdSamples samples) {
+    samples.builder.setLength(0);
+    return samples.guids[samples.next()].appendArk(samples.builder).length();
+  }
+
+  @Benchmark
+  public String tinyGuidToBase32(final IdSamples samples) {
+    return samples.tinyGuids[samples.next()].toBase32();
+  }
+
+  @Benchmark
+  public String tinyGuidToBase64(final IdSamples samples) {
+    return samples.tinyGuids[samples.next()].toBase64();
+  }
+
+  @Benchmark
+  public String tinyGuidToHex(final IdSamples samples) {
+    return samples.tinyGuids[samples.next()].toHex();
+  }
+
+  @Benchmark
+  public String tinyGuidToArk(final IdSamples samples) {
+    return samples.tinyGuids[samples.next()].toArk();
+  }
+
+  @Benchmark
+  public int tinyGuidWriteArk(final IdSamples samples) {
+    return samples.tinyGuids[samples.next()].writeArk(samples.ascii, 0);
+  }
+
+  @Benchmark
+  public int tinyGuidAppendArk(final IdSamples samples) {
+    samples.builder.setLength(0);
+    return samples.tinyGuids[samples.next()].appendArk(samples.builder).length();
+  }
+
+  @Benchmark
+  public String factoryGuidToBase32(final IdSamples samples) {
+    return samples.factoryGuids[samples.next()].toBase32();
+  }
+
+  @Benchmark
+  public String factoryGuidToBase64(final IdSamples samples) {
+    return samples.factoryGuids[samples.next()].toBase64();
+  }
+
+  @Benchmark
+  public String factoryGuidToHex(final IdSamples samples) {
+    return samples.factoryGuids[samples.next()].toHex();
+  }
+
+  @Benchmark
+  public String factoryGuidToArk(final IdSamples samples) {
+    return samples.factoryGuids[samples.next()].toArk();
+  }
+
+  @Benchmark
+  public int factoryGuidWriteArk(final IdSamples samples) {
+    return samples.factoryGuids[samples.next()].writeArk(samples.ascii, 0);
+  }
+
+  @Benchmark
+  public int factoryGuidAppendArk(final IdSamples samples) {
+    samples.builder.setLength(0);
+    return samples.factoryGuids[samples.next()].appendArk(samples.builder).length();
+  }
+
+  @Benchmark
+  public String longUuidToString(final IdSamples samples) {
+    return samples.longUuids[samples.next()].toString();
+  }
+
+  @Benchmark
+  public String integerUuidToString(final IdSamples samples) {
+    return samples.integerUuids[samples.next()].toString();
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent generation from several factories (one tenant each), threads
+ * being spread over them
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FactoriesBenchmark {
+  @Param({ "1", "4" })
+  public int factories;
+  private GuidFactory[] all;
+
+  @Setup
+  public void setup() {
+    all = new GuidFactory[factories];
+    for (var i = 0; i < factories; i++) {
+      all[i] = new GuidFactory().useConfiguration(GUID_CONFIGURATION.DEFAULT).setTenantId(i + 1);
+    }
+  }
+
+  /**
+   * Factory used by one thread
+   */
+  @State(Scope.Thread)
+  public static class ThreadFactory {
+    private GuidFactory factory;
+
+    @Setup
+    public void setup(final FactoriesBenchmark benchmark, final ThreadParams params) {
+      factory = benchmark.all[params.getThreadIndex() % benchmark.factories];
+    }
+  }
+
+  @Benchmark
+  public Guid newGuid(final ThreadFactory thread) {
+    return thread.factory.newGuid();
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidBatch;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidHashMap;
+import org.fb.utils.guid.GuidHashSet;
+import org.fb.utils.guid.IntegerUuid;
+import org.fb.utils.guid.LongUuid;
+import org.fb.utils.guid.LongUuidHashSet;
+import org.fb.utils.guid.TinyGUID;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+import org.openjdk.jol.vm.VM;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prints the heap footprint (instance and all reachable objects, as measured
+ * by JOL) of one instance of each UUID type, with its field layout, then of
+ * sets and maps of ids (optionally the given number, 10^5 by default): HashSet
+ * and HashMap against GuidHashSet, GuidHashMap and LongUuidHashSet.
+ */
+public final class FootprintReport {
+
+  private FootprintReport() {
+    // Empty
+  }
+
+  public static void main(final String[] args) {
+    System.out.println(VM.current().details());
+    print(new GUID());
+    print(new TinyGUID());
+    print(new GuidFactory().newGuid());
+    print(new LongUuid());
+    print(new IntegerUuid());
+    final int size = args.length > 0? Integer.parseInt(args[0]) : 100000;
+    final GuidBatch<GUID> batch = GUID.generate(size);
+    final List<GUID> guids = batch.asList();
+    final Set<GUID> hashSet = new HashSet<>(guids);
+    final GuidHashSet<GUID> guidHashSet = GuidHashSet.ofGUID(size);
+    final Map<GUID, Integer> hashMap = new HashMap<>();
+    final GuidHashMap<GUID, Integer> guidHashMap = GuidHashMap.ofGUID(size);
+    final Set<LongUuid> longHashSet = new HashSet<>();
+    final LongUuidHashSet longUuidHashSet = new LongUuidHashSet(size);
+    final Integer value = 1;
+    for (int i = 0; i < size; i++) {
+      guidHashSet.add(batch.getArena(), i * batch.getKeySize());
+      hashMap.put(guids.get(i), value);
+      guidHashMap.put(guids.get(i), value);
+      final LongUuid longUuid = new LongUuid();
+      longHashSet.add(longUuid);
+      longUuidHashSet.add(longUuid);
+    }
+    System.out.println("Tables of " + size + " ids (ids held by java.util ones included)");
+    printTable("HashSet<GUID>", hashSet);
+    printTable("GuidHashSet<GUID>", guidHashSet);
+    printTable("HashMap<GUID, Integer>", hashMap);
+    printTable("GuidHashMap<GUID, Integer>", guidHashMap);
+    printTable("HashSet<LongUuid>", longHashSet);
+    printTable("LongUuidHashSet", longUuidHashSet);
+  }
+
+  private static void printTable(final String name, final Object table) {
+    System.out.println(name + ": " + GraphLayout.parseInstance(table).totalSize() + " bytes in total");
+  }
+
+  private static void print(final Object id) {
+    System.out.println(ClassLayout.parseInstance(id).toPrintable());
+    System.out.println(id.getClass().getSimpleName() + ": " + GraphLayout.parseInstance(id).totalSize() +
+                       " bytes in total");
+    System.out.println();
+  }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidBatch;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.guid.IntegerUuid;
+import org.fb.utils.guid.LongUuid;
+import org.fb.utils.guid.TinyGUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation of all UUID types
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerationBenchmark {
+  private static final int BATCH = 1000;
+  @Param({ "DEFAULT", "SMALLEST", "TINY", "STANDARD", "BIGGEST" })
+  public GUID_CONFIGURATION configuration;
+  private GuidFactory factory;
+  private GuidFactory stripedFactory;
+
+  @Setup
+  public void setup() {
+    factory = new GuidFactory().useConfiguration(configuration);
+    stripedFactory = new GuidFactory().useConfiguration(configuration).setStriped(true);
+  }
+
+  /**
+   * Direct buffer of one thread, cleared when nearly full
+   */
+  @State(Scope.Thread)
+  public static class Buffer {
+    private static final int MAX_KEY = 64;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_KEY * 1024);
+
+    ByteBuffer next() {
+      if (buffer.remaining() < MAX_KEY) {
+        buffer.clear();
+      }
+      return buffer;
+    }
+  }
+
+  @Benchmark
+  public GUID newGUID() {
+    return new GUID();
+  }
+
+  @Benchmark
+  public TinyGUID newTinyGUID() {
+    return new TinyGUID();
+  }
+
+  @Benchmark
+  public LongUuid newLongUuid() {
+    return new LongUuid();
+  }
+
+  @Benchmark
+  public IntegerUuid newIntegerUuid() {
+    return new IntegerUuid();
+  }
+
+  @Benchmark
+  public Guid newGuid() {
+    return factory.newGuid();
+  }
+
+  @Benchmark
+  public Guid newStripedGuid() {
+    return stripedFactory.newGuid();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public GuidBatch<GUID> generateGUIDs() {
+    return GUID.generate(BATCH);
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public GuidBatch<Guid> newGuids() {
+    return factory.newGuids(BATCH);
+  }
+
+  @Benchmark
+  public ByteBuffer writeGUIDTo(final Buffer buffer) {
+    return new GUID().writeTo(buffer.next());
+  }
+
+  @Benchmark
+  public ByteBuffer generateGUIDInto(final Buffer buffer) {
+    return GUID.generateInto(buffer.next());
+  }
+
+  @Benchmark
+  public ByteBuffer generateGuidInto(final Buffer buffer) {
+    return factory.generateInto(buffer.next());
+  }
+}
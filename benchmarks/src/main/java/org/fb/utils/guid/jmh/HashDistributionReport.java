@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.IntegerUuid;
+import org.fb.utils.guid.LongUuid;
+import org.fb.utils.guid.TinyGUID;
+
+import java.util.Arrays;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Prints how the hashes of ids generated in sequence (same node, successive
+ * timestamps and counters) spread over as many buckets as ids, indexed by the
+ * low bits of the hash as an open addressing table would, for
+ * {@code hashCode()} and for the former {@code Arrays.hashCode(getBytes())}.<br>
+ * <br>
+ * For a uniform hash, about 36.8% (1/e) of the buckets are empty, the largest
+ * bucket holds less than 10 ids and the chi-square is close to the number of
+ * buckets.
+ */
+public final class HashDistributionReport {
+  private static final int DEFAULT_SIZE = 1 << 20;
+
+  private HashDistributionReport() {
+    // Empty
+  }
+
+  /**
+   * @param args optional number of ids (rounded down to a power of 2, default 2^20)
+   */
+  public static void main(final String[] args) {
+    final var size = args.length > 0? Integer.highestOneBit(Integer.parseInt(args[0])) : DEFAULT_SIZE;
+    System.out.printf("%-12s %-8s %10s %10s %14s%n", "Type", "Hash", "Empty %", "Max", "Chi2/buckets");
+    report("GUID", size, GUID::new, GUID::getBytes);
+    report("TinyGUID", size, TinyGUID::new, TinyGUID::getBytes);
+    final var factory = new GuidFactory();
+    report("Guid", size, factory::newGuid, GuidFactory.Guid::getBytes);
+    report("LongUuid", size, LongUuid::new, LongUuid::getBytes);
+    report("IntegerUuid", size, IntegerUuid::new, IntegerUuid::getBytes);
+  }
+
+  private static <T> void report(final String type, final int size, final Supplier<T> generator,
+                                 final Function<T, byte[]> bytes) {
+    final var ids = new Object[size];
+    for (var i = 0; i < size; i++) {
+      ids[i] = generator.get();
+    }
+    @SuppressWarnings("unchecked")
+    final Function<Object, byte[]> toBytes = (Function<Object, byte[]>) bytes;
+    print(type, "mixed", ids, Object::hashCode);
+    print(type, "legacy", ids, id -> Arrays.hashCode(toBytes.apply(id)));
+  }
+
+  private static void print(final String type, final String hash, final Object[] ids,
+                            final ToIntFunction<Object> hasher) {
+    final var size = ids.length;
+    final var buckets = new int[size];
+    for (final Object id : ids) {
+      buckets[hasher.applyAsInt(id) & size - 1]++;
+    }
+    var empty = 0;
+    var max = 0;
+    var chi2 = 0.0;
+    for (final int bucket : buckets) {
+      empty += bucket == 0? 1 : 0;
+      max = Math.max(max, bucket);
+      // One id expected per bucket
+      chi2 += (bucket - 1.0) * (bucket - 1.0);
+    }
+    System.out.printf("%-12s %-8s %10.2f %10d %14.3f%n", type, hash, 100.0 * empty / size, max, chi2 / size);
+  }
+}
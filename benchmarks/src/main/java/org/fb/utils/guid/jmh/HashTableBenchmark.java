@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidBatch;
+import org.fb.utils.guid.GuidHashMap;
+import org.fb.utils.guid.GuidHashSet;
+import org.fb.utils.guid.LongUuid;
+import org.fb.utils.guid.LongUuidHashMap;
+import org.fb.utils.guid.LongUuidHashSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filling and looking up ids in HashSet and HashMap against GuidHashSet,
+ * GuidHashMap, LongUuidHashSet and LongUuidHashMap, from id objects and, for
+ * the latter, from the raw bytes of a batch arena (no id created)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashTableBenchmark {
+
+  /**
+   * Ids to add, and tables already filled with them to look up
+   */
+  @State(Scope.Thread)
+  public static class TableSamples {
+    private static final int LONG_SIZE = 8;
+    @Param({ "10000", "1000000" })
+    int size;
+    byte[] guidArena;
+    int guidSize;
+    List<GUID> guids;
+    byte[] longArena;
+    LongUuid[] longUuids;
+    Map<GUID, Integer> hashMap;
+    GuidHashMap<GUID, Integer> guidHashMap;
+    Set<LongUuid> longHashSet;
+    LongUuidHashSet longUuidHashSet;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final GuidBatch<GUID> batch = GUID.generate(size, 1, 1234);
+      guidArena = batch.getArena();
+      guidSize = batch.getKeySize();
+      guids = batch.asList();
+      longArena = new byte[size * LONG_SIZE];
+      longUuids = new LongUuid[size];
+      for (int i = 0; i < size; i++) {
+        longUuids[i] = new LongUuid();
+        System.arraycopy(longUuids[i].getBytes(), 0, longArena, i * LONG_SIZE, LONG_SIZE);
+      }
+      hashMap = new HashMap<>();
+      guidHashMap = GuidHashMap.ofGUID(size);
+      longHashSet = new HashSet<>();
+      longUuidHashSet = new LongUuidHashSet(size);
+      for (int i = 0; i < size; i++) {
+        hashMap.put(guids.get(i), i);
+        guidHashMap.put(guids.get(i), i);
+        longHashSet.add(longUuids[i]);
+        longUuidHashSet.add(longUuids[i]);
+      }
+    }
+  }
+
+  @Benchmark
+  public Set<GUID> hashSetAdd(final TableSamples samples) {
+    final Set<GUID> set = new HashSet<>();
+    for (final GUID id : samples.guids) {
+      set.add(id);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public GuidHashSet<GUID> guidHashSetAdd(final TableSamples samples) {
+    final GuidHashSet<GUID> set = GuidHashSet.ofGUID(0);
+    for (final GUID id : samples.guids) {
+      set.add(id);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public GuidHashSet<GUID> guidHashSetAddBytes(final TableSamples samples) {
+    final GuidHashSet<GUID> set = GuidHashSet.ofGUID(0);
+    for (int i = 0; i < samples.size; i++) {
+      set.add(samples.guidArena, i * samples.guidSize);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public long hashMapGet(final TableSamples samples) {
+    long sum = 0;
+    for (final GUID id : samples.guids) {
+      sum += samples.hashMap.get(id);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long guidHashMapGet(final TableSamples samples) {
+    long sum = 0;
+    for (final GUID id : samples.guids) {
+      sum += samples.guidHashMap.get(id);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public long guidHashMapGetBytes(final TableSamples samples) {
+    long sum = 0;
+    for (int i = 0; i < samples.size; i++) {
+      sum += samples.guidHashMap.get(samples.guidArena, i * samples.guidSize);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Set<LongUuid> longHashSetAdd(final TableSamples samples) {
+    final Set<LongUuid> set = new HashSet<>();
+    for (final LongUuid id : samples.longUuids) {
+      set.add(id);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public LongUuidHashSet longUuidHashSetAddBytes(final TableSamples samples) {
+    final LongUuidHashSet set = new LongUuidHashSet(0);
+    for (int i = 0; i < samples.size; i++) {
+      set.add(samples.longArena, i * TableSamples.LONG_SIZE);
+    }
+    return set;
+  }
+
+  @Benchmark
+  public int longHashSetContains(final TableSamples samples) {
+    int found = 0;
+    for (final LongUuid id : samples.longUuids) {
+      found += samples.longHashSet.contains(id)? 1 : 0;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int longUuidHashSetContains(final TableSamples samples) {
+    int found = 0;
+    for (final LongUuid id : samples.longUuids) {
+      found += samples.longUuidHashSet.contains(id)? 1 : 0;
+    }
+    return found;
+  }
+
+  @Benchmark
+  public LongUuidHashMap<LongUuid> longUuidHashMapPut(final TableSamples samples) {
+    final LongUuidHashMap<LongUuid> map = new LongUuidHashMap<>(0);
+    for (final LongUuid id : samples.longUuids) {
+      map.put(id, id);
+    }
+    return map;
+  }
+
+  @Benchmark
+  public Map<LongUuid, LongUuid> longHashMapPut(final TableSamples samples) {
+    final Map<LongUuid, LongUuid> map = new HashMap<>();
+    for (final LongUuid id : samples.longUuids) {
+      map.put(id, id);
+    }
+    return map;
+  }
+}
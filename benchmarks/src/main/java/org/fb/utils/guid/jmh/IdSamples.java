@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.guid.IntegerUuid;
+import org.fb.utils.guid.LongUuid;
+import org.fb.utils.guid.TinyGUID;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per thread samples of all UUID types, plus equal copies (not the same
+ * instances) for equals benchmarks
+ */
+@State(Scope.Thread)
+public class IdSamples {
+  static final int SIZE = 1024;
+  private static final int MASK = SIZE - 1;
+  final GuidFactory factory = new GuidFactory();
+  final GUID[] guids = new GUID[SIZE];
+  final GUID[] guidCopies = new GUID[SIZE];
+  final TinyGUID[] tinyGuids = new TinyGUID[SIZE];
+  final TinyGUID[] tinyGuidCopies = new TinyGUID[SIZE];
+  final Guid[] factoryGuids = new Guid[SIZE];
+  final Guid[] factoryGuidCopies = new Guid[SIZE];
+  final LongUuid[] longUuids = new LongUuid[SIZE];
+  final LongUuid[] longUuidCopies = new LongUuid[SIZE];
+  final IntegerUuid[] integerUuids = new IntegerUuid[SIZE];
+  final IntegerUuid[] integerUuidCopies = new IntegerUuid[SIZE];
+  /**
+   * Reused destinations of the allocation free writers
+   */
+  final byte[] ascii = new byte[128];
+  final StringBuilder builder = new StringBuilder(128);
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    for (int i = 0; i < SIZE; i++) {
+      guids[i] = new GUID(i % 7, 1234);
+      guidCopies[i] = new GUID(guids[i].getBytes());
+      tinyGuids[i] = new TinyGUID((short) (i % 7), 1234);
+      tinyGuidCopies[i] = new TinyGUID(tinyGuids[i].getBytes());
+      factoryGuids[i] = factory.newGuid(i % 7, 1234);
+      factoryGuidCopies[i] = factory.getGuid(factoryGuids[i].getBytes());
+      longUuids[i] = new LongUuid();
+      longUuidCopies[i] = new LongUuid(longUuids[i].getBytes());
+      integerUuids[i] = new IntegerUuid();
+      integerUuidCopies[i] = new IntegerUuid(integerUuids[i].getBytes());
+    }
+  }
+
+  /**
+   * @return the next index in the samples
+   */
+  int next() {
+    index = index + 1 & MASK;
+    return index;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.guid.GUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rejection of an invalid GUID, by exception (with or without stack trace)
+ * or by tryParse
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InvalidParsingBenchmark {
+  @Param({ "true", "false" })
+  public boolean stackTrace;
+  private String wrong;
+  private boolean previous;
+
+  @Setup
+  public void setup() {
+    wrong = new GUID().toBase32().substring(1) + '!';
+    previous = InvalidArgumentRuntimeException.isStackTrace();
+    InvalidArgumentRuntimeException.setStackTrace(stackTrace);
+  }
+
+  @TearDown
+  public void tearDown() {
+    InvalidArgumentRuntimeException.setStackTrace(previous);
+  }
+
+  @Benchmark
+  public Object parseException() {
+    try {
+      return new GUID(wrong);
+    } catch (final InvalidArgumentRuntimeException e) {
+      return e;
+    }
+  }
+
+  @Benchmark
+  public GUID tryParse() {
+    return GUID.tryParse(wrong);
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.guid.TinyGUID;
+import org.fb.utils.json.JsonHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson round-trips (serialization then deserialization) of Jackson
+ * compatible UUID types
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonBenchmark {
+
+  @Benchmark
+  public GUID guidRoundTrip(final IdSamples samples) throws JsonProcessingException {
+    return JsonHandler.getFromString(JsonHandler.writeAsString(samples.guids[samples.next()]), GUID.class);
+  }
+
+  @Benchmark
+  public TinyGUID tinyGuidRoundTrip(final IdSamples samples) throws JsonProcessingException {
+    return JsonHandler.getFromString(JsonHandler.writeAsString(samples.tinyGuids[samples.next()]),
+                                     TinyGUID.class);
+  }
+
+  @Benchmark
+  public Guid factoryGuidRoundTrip(final IdSamples samples) throws JsonProcessingException {
+    return GuidFactory.getFromJson(samples.factoryGuids[samples.next()].getJson());
+  }
+}
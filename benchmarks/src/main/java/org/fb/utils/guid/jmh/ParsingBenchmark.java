@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.guid.IntegerUuid;
+import org.fb.utils.guid.LongUuid;
+import org.fb.utils.guid.TinyGUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of all UUID types from every String form, either from a whole
+ * String or from a range of a larger line (as in HTTP paths or log lines)
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParsingBenchmark {
+  private static final int MASK = IdSamples.SIZE - 1;
+  private static final String LINE_START = "GET /ids/";
+  private static final String LINE_END = " HTTP/1.1";
+  @Param({ "BASE32", "BASE64", "HEX", "ARK" })
+  public String form;
+  private final GuidFactory factory = new GuidFactory();
+  private final String[] guids = new String[IdSamples.SIZE];
+  private final String[] tinyGuids = new String[IdSamples.SIZE];
+  private final String[] factoryGuids = new String[IdSamples.SIZE];
+  private final String[] longUuids = new String[IdSamples.SIZE];
+  private final String[] integerUuids = new String[IdSamples.SIZE];
+  private final String[] guidLines = new String[IdSamples.SIZE];
+  private final String[] tinyGuidLines = new String[IdSamples.SIZE];
+  private final String[] factoryGuidLines = new String[IdSamples.SIZE];
+  private final byte[][] guidAscii = new byte[IdSamples.SIZE][];
+  private int index;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    for (int i = 0; i < IdSamples.SIZE; i++) {
+      final GUID guid = new GUID(i % 7, 1234);
+      final TinyGUID tinyGuid = new TinyGUID((short) (i % 7), 1234);
+      final Guid factoryGuid = factory.newGuid(i % 7, 1234);
+      switch (form) {
+        case "BASE32":
+          guids[i] = guid.toBase32();
+          tinyGuids[i] = tinyGuid.toBase32();
+          factoryGuids[i] = factoryGuid.toBase32();
+          break;
+        case "BASE64":
+          guids[i] = guid.toBase64();
+          tinyGuids[i] = tinyGuid.toBase64();
+          factoryGuids[i] = factoryGuid.toBase64();
+          break;
+        case "HEX":
+          guids[i] = guid.toHex();
+          tinyGuids[i] = tinyGuid.toHex();
+          factoryGuids[i] = factoryGuid.toHex();
+          break;
+        default:
+          guids[i] = guid.toArk();
+          tinyGuids[i] = tinyGuid.toArk();
+          factoryGuids[i] = factoryGuid.toArk();
+          break;
+      }
+      guidLines[i] = LINE_START + guids[i] + LINE_END;
+      tinyGuidLines[i] = LINE_START + tinyGuids[i] + LINE_END;
+      factoryGuidLines[i] = LINE_START + factoryGuids[i] + LINE_END;
+      guidAscii[i] = guidLines[i].getBytes(StandardCharsets.US_ASCII);
+      // Only one String form for those
+      longUuids[i] = new LongUuid().toString();
+      integerUuids[i] = new IntegerUuid().toString();
+    }
+  }
+
+  private int next() {
+    index = index + 1 & MASK;
+    return index;
+  }
+
+  @Benchmark
+  public GUID parseGUID() {
+    return new GUID(guids[next()]);
+  }
+
+  @Benchmark
+  public TinyGUID parseTinyGUID() {
+    return new TinyGUID(tinyGuids[next()]);
+  }
+
+  @Benchmark
+  public Guid parseGuid() {
+    return factory.getGuid(factoryGuids[next()]);
+  }
+
+  @Benchmark
+  public GUID parseRangeGUID() {
+    final String line = guidLines[next()];
+    return GUID.parse(line, LINE_START.length(), line.length() - LINE_END.length());
+  }
+
+  @Benchmark
+  public TinyGUID parseRangeTinyGUID() {
+    final String line = tinyGuidLines[next()];
+    return TinyGUID.parse(line, LINE_START.length(), line.length() - LINE_END.length());
+  }
+
+  @Benchmark
+  public Guid parseRangeGuid() {
+    final String line = factoryGuidLines[next()];
+    return GuidFactory.parse(line, LINE_START.length(), line.length() - LINE_END.length());
+  }
+
+  @Benchmark
+  public GUID parseSubstringGUID() {
+    final String line = guidLines[next()];
+    return new GUID(line.substring(LINE_START.length(), line.length() - LINE_END.length()));
+  }
+
+  @Benchmark
+  public GUID parseAsciiGUID() {
+    final byte[] line = guidAscii[next()];
+    return GUID.parseAscii(line, LINE_START.length(), line.length - LINE_START.length() - LINE_END.length());
+  }
+
+  @Benchmark
+  public GUID parseDecodedAsciiGUID() {
+    final byte[] line = guidAscii[next()];
+    return new GUID(new String(line, LINE_START.length(), line.length - LINE_START.length() - LINE_END.length(),
+                               StandardCharsets.US_ASCII));
+  }
+
+  @Benchmark
+  public LongUuid parseLongUuid() {
+    return new LongUuid(longUuids[next()]);
+  }
+
+  @Benchmark
+  public IntegerUuid parseIntegerUuid() {
+    return new IntegerUuid(integerUuids[next()]);
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.guid.GuidSort;
+import org.fb.utils.guid.TinyGUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sort of shuffled ids of a few tenants, most of them sharing their
+ * timestamp: Arrays.sort (so compareTo) against GuidSort radix sort, sequential
+ * and parallel
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortBenchmark {
+
+  /**
+   * Shuffled ids, copied before each sort
+   */
+  @State(Scope.Thread)
+  public static class SortSamples {
+    private static final int TENANTS = 7;
+    @Param({ "10000", "1000000" })
+    int size;
+    GUID[] guids;
+    TinyGUID[] tinyGuids;
+    Guid[] factoryGuids;
+    GUID[] guidsToSort;
+    TinyGUID[] tinyGuidsToSort;
+    Guid[] factoryGuidsToSort;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      final var factory = new GuidFactory();
+      guids = new GUID[size];
+      tinyGuids = new TinyGUID[size];
+      factoryGuids = new Guid[size];
+      for (int i = 0; i < size; i++) {
+        guids[i] = new GUID(i % TENANTS, 1234);
+        tinyGuids[i] = new TinyGUID((short) (i % TENANTS), 1234);
+        factoryGuids[i] = factory.newGuid(i % TENANTS, 1234);
+      }
+      shuffle(guids, new Random(size));
+      shuffle(tinyGuids, new Random(size));
+      shuffle(factoryGuids, new Random(size));
+    }
+
+    @Setup(Level.Invocation)
+    public void copy() {
+      guidsToSort = guids.clone();
+      tinyGuidsToSort = tinyGuids.clone();
+      factoryGuidsToSort = factoryGuids.clone();
+    }
+
+    private static void shuffle(final Object[] ids, final Random random) {
+      for (int i = ids.length - 1; i > 0; i--) {
+        final int j = random.nextInt(i + 1);
+        final Object id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+      }
+    }
+  }
+
+  @Benchmark
+  public GUID[] guidSort(final SortSamples samples) {
+    Arrays.sort(samples.guidsToSort);
+    return samples.guidsToSort;
+  }
+
+  @Benchmark
+  public TinyGUID[] tinyGuidSort(final SortSamples samples) {
+    Arrays.sort(samples.tinyGuidsToSort);
+    return samples.tinyGuidsToSort;
+  }
+
+  @Benchmark
+  public Guid[] factoryGuidSort(final SortSamples samples) {
+    Arrays.sort(samples.factoryGuidsToSort);
+    return samples.factoryGuidsToSort;
+  }
+
+  @Benchmark
+  public GUID[] guidRadixSort(final SortSamples samples) {
+    GuidSort.sort(samples.guidsToSort);
+    return samples.guidsToSort;
+  }
+
+  @Benchmark
+  public GUID[] guidParallelRadixSort(final SortSamples samples) {
+    GuidSort.parallelSort(samples.guidsToSort);
+    return samples.guidsToSort;
+  }
+
+  @Benchmark
+  public TinyGUID[] tinyGuidRadixSort(final SortSamples samples) {
+    GuidSort.sort(samples.tinyGuidsToSort);
+    return samples.tinyGuidsToSort;
+  }
+
+  @Benchmark
+  public TinyGUID[] tinyGuidParallelRadixSort(final SortSamples samples) {
+    GuidSort.parallelSort(samples.tinyGuidsToSort);
+    return samples.tinyGuidsToSort;
+  }
+
+  @Benchmark
+  public Guid[] factoryGuidRadixSort(final SortSamples samples) {
+    GuidSort.sort(samples.factoryGuidsToSort);
+    return samples.factoryGuidsToSort;
+  }
+
+  @Benchmark
+  public Guid[] factoryGuidParallelRadixSort(final SortSamples samples) {
+    GuidSort.parallelSort(samples.factoryGuidsToSort);
+    return samples.factoryGuidsToSort;
+  }
+}
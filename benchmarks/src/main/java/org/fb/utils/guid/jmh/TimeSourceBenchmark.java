@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid.jmh;
+
+import org.fb.utils.guid.GUID;
+import org.fb.utils.guid.GuidFactory;
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.guid.ManualTimeSource;
+import org.fb.utils.guid.TimeSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generation with every TimeSource
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimeSourceBenchmark {
+  @Param({ "SYSTEM", "TICKER", "MANUAL" })
+  public String timeSource;
+  private GuidFactory factory;
+
+  @Setup
+  public void setup() {
+    final TimeSource source;
+    switch (timeSource) {
+      case "TICKER":
+        source = TimeSource.ticker();
+        break;
+      case "MANUAL":
+        source = new ManualTimeSource();
+        break;
+      default:
+        source = TimeSource.SYSTEM;
+    }
+    GUID.setTimeSource(source);
+    factory = new GuidFactory().useConfiguration(GUID_CONFIGURATION.DEFAULT).setTimeSource(source);
+  }
+
+  @TearDown
+  public void tearDown() {
+    GUID.setTimeSource(TimeSource.SYSTEM);
+  }
+
+  @Benchmark
+  public GUID newGUID() {
+    return new GUID();
+  }
+
+  @Benchmark
+  public Guid newGuid() {
+    return factory.newGuid();
+  }
+}
@@ -15,16 +15,27 @@
  */
 package org.fb.utils.exceptions;
 
+import org.fb.utils.various.SystemPropertyUtil;
 
 /**
- * Argument invalid exception
+ * Argument invalid exception<br>
+ * <br>
+ * Since it is mainly thrown on validation of external inputs, capturing the
+ * stack trace may be disabled (through the system property
+ * org.fb.utils.invalidArgument.stackTrace=false or setStackTrace), so that a
+ * flood of invalid inputs does not cost a stack walk each.
  */
 public class InvalidArgumentRuntimeException extends RuntimeException {
+  /**
+   * System property to disable stack trace capture (default being true)
+   */
+  public static final String STACK_TRACE_PROPERTY = "org.fb.utils.invalidArgument.stackTrace";
 
   /**
    * serialVersionUID of long:
    */
   private static final long serialVersionUID = -3817642817509722692L;
+  private static volatile boolean stackTrace = SystemPropertyUtil.getBoolean(STACK_TRACE_PROPERTY, true);
 
   public InvalidArgumentRuntimeException(final String message) {
     super(message);
@@ -34,4 +45,21 @@ public class InvalidArgumentRuntimeException extends RuntimeException {
     super(message, cause);
   }
 
+  /**
+   * @param stackTrace if False, stack traces of new instances are not
+   *     captured (default being True)
+   */
+  public static void setStackTrace(final boolean stackTrace) {
+    InvalidArgumentRuntimeException.stackTrace = stackTrace;
+  }
+
+  public static boolean isStackTrace() {
+    return stackTrace;
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return stackTrace? super.fillInStackTrace() : this;
+  }
+
 }
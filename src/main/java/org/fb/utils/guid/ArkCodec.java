@@ -0,0 +1,372 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.various.BaseCodec;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+import static org.fb.utils.guid.GuidFactory.*;
+
+/**
+ * ARK form of ids: "ark:/" + Tenant as decimal + '/' + Ark name.<br>
+ * <br>
+ * The Ark name is the Base32 of all bytes but the Tenant, either with the raw
+ * header first (GUID, TinyGUID) or after the already encoded header (Guid).
+ * <br>
+ * Formatting goes directly into a byte array, a ByteBuffer, a StringBuilder
+ * or any Appendable (through a per thread scratch array), without any
+ * intermediate String nor array. Parsing reads the decimal Tenant up to the
+ * separator in one pass, then decodes the Ark name in place.
+ */
+final class ArkCodec {
+  private static final BaseCodec CODEC = BaseCodec.BASE32;
+  private static final byte[] PREFIX = ARK.getBytes(StandardCharsets.US_ASCII);
+  private static final byte SEPARATOR = '/';
+  private static final int RADIX = 10;
+  /**
+   * Max length of an ARK (prefix, sign and 19 digits, separator, encoded
+   * header and Base32 of the biggest Guid)
+   */
+  private static final int MAX_ARK_SIZE = 96;
+  /**
+   * Max size of a raw id
+   */
+  private static final int MAX_RAW_SIZE = 40;
+  /**
+   * Per thread scratch: ASCII form from 0, raw Ark name from MAX_ARK_SIZE
+   */
+  private static final ThreadLocal<byte[]> SCRATCH =
+      ThreadLocal.withInitial(() -> new byte[MAX_ARK_SIZE + MAX_RAW_SIZE]);
+  private final int tenantPos;
+  private final int tenantSize;
+  private final long minTenant;
+  private final long maxTenant;
+  private final int bodyPos;
+  private final int bodySize;
+  /**
+   * Header already encoded, or null if the raw header (before the Tenant) is
+   * encoded with the body
+   */
+  private final String encodedHeader;
+  private final int nameLength;
+
+  /**
+   * @param keySize size of the raw id
+   * @param tenantPos position of the Tenant (header being before)
+   * @param tenantSize size of the Tenant
+   * @param minTenant min value of the Tenant while parsing
+   * @param maxTenant max value of the Tenant while parsing
+   * @param encodedHeader the encoded header, or null if the raw header is
+   *     part of the Base32 Ark name
+   */
+  ArkCodec(final int keySize, final int tenantPos, final int tenantSize, final long minTenant, final long maxTenant,
+           final String encodedHeader) {
+    this.tenantPos = tenantPos;
+    this.tenantSize = tenantSize;
+    this.minTenant = minTenant;
+    this.maxTenant = maxTenant;
+    bodyPos = tenantPos + tenantSize;
+    bodySize = keySize - bodyPos;
+    this.encodedHeader = encodedHeader;
+    nameLength = encodedHeader != null? encodedHeader.length() + CODEC.encodedLength(bodySize) :
+        CODEC.encodedLength(tenantPos + bodySize);
+  }
+
+  /**
+   * @return the length of the Ark name
+   */
+  int getNameLength() {
+    return nameLength;
+  }
+
+  /**
+   * @return the length of the ARK form for this Tenant
+   */
+  int getLength(final long tenant) {
+    return PREFIX.length + decimalLength(tenant) + 1 + nameLength;
+  }
+
+  /**
+   * @return the ARK form as a String
+   */
+  String toString(final long tenant, final byte[] id) {
+    final byte[] ascii = new byte[getLength(tenant)];
+    write(tenant, id, ascii, 0);
+    return new String(ascii, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * @return the Ark name as a String
+   */
+  String nameToString(final byte[] id) {
+    final byte[] ascii = new byte[nameLength];
+    writeName(id, ascii, 0);
+    return new String(ascii, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Write the ARK form as ASCII bytes
+   *
+   * @return the offset in dst just after the ARK form
+   *
+   * @throws IndexOutOfBoundsException if dst is too small
+   */
+  int write(final long tenant, final byte[] id, final byte[] dst, final int offset) {
+    Objects.checkFromIndexSize(offset, getLength(tenant), dst.length);
+    System.arraycopy(PREFIX, 0, dst, offset, PREFIX.length);
+    var pos = writeDecimal(tenant, dst, offset + PREFIX.length);
+    dst[pos++] = SEPARATOR;
+    return writeName(id, dst, pos);
+  }
+
+  /**
+   * Write the ARK form as ASCII bytes at the position of the buffer (moved
+   * forward)
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  ByteBuffer write(final long tenant, final byte[] id, final ByteBuffer buffer) {
+    final int length = getLength(tenant);
+    if (buffer.remaining() < length) {
+      throw new BufferOverflowException();
+    }
+    if (buffer.hasArray()) {
+      final int position = buffer.position();
+      write(tenant, id, buffer.array(), buffer.arrayOffset() + position);
+      buffer.position(position + length);
+    } else {
+      final byte[] scratch = SCRATCH.get();
+      write(tenant, id, scratch, 0);
+      buffer.put(scratch, 0, length);
+    }
+    return buffer;
+  }
+
+  /**
+   * Append the ARK form
+   *
+   * @return the builder
+   */
+  StringBuilder append(final long tenant, final byte[] id, final StringBuilder builder) {
+    final byte[] scratch = SCRATCH.get();
+    final int length = write(tenant, id, scratch, 0);
+    builder.ensureCapacity(builder.length() + length);
+    for (var i = 0; i < length; i++) {
+      builder.append((char) scratch[i]);
+    }
+    return builder;
+  }
+
+  /**
+   * Append the ARK form
+   *
+   * @return the appendable
+   *
+   * @throws IOException from the appendable
+   */
+  Appendable append(final long tenant, final byte[] id, final Appendable appendable) throws IOException {
+    final byte[] scratch = SCRATCH.get();
+    final int length = write(tenant, id, scratch, 0);
+    for (var i = 0; i < length; i++) {
+      appendable.append((char) scratch[i]);
+    }
+    return appendable;
+  }
+
+  /**
+   * Write the Ark name as ASCII bytes
+   *
+   * @return the offset in dst just after the Ark name
+   */
+  private int writeName(final byte[] id, final byte[] dst, final int offset) {
+    if (encodedHeader != null) {
+      var pos = offset;
+      for (var i = 0; i < encodedHeader.length(); i++) {
+        dst[pos++] = (byte) encodedHeader.charAt(i);
+      }
+      return CODEC.encode(id, bodyPos, bodySize, dst, pos);
+    }
+    // Raw header then body, through the scratch (distinct from the ASCII part)
+    final byte[] raw = SCRATCH.get();
+    System.arraycopy(id, 0, raw, MAX_ARK_SIZE, tenantPos);
+    System.arraycopy(id, bodyPos, raw, MAX_ARK_SIZE + tenantPos, bodySize);
+    return CODEC.encode(raw, MAX_ARK_SIZE, tenantPos + bodySize, dst, offset);
+  }
+
+  /**
+   * Decode the range (trimmed, starting with the ARK prefix) into id
+   *
+   * @return True if decoded
+   */
+  boolean decode(final CharSequence src, final int start, final int end, final byte[] id) {
+    final int separator = parseTenant(src, start, end, minTenant, maxTenant, id, tenantPos, tenantSize);
+    return separator >= 0 && decodeName(src, separator + 1, end, id);
+  }
+
+  /**
+   * Decode the Ark name into id (Tenant and, if encoded before, header being
+   * not changed)
+   *
+   * @return True if decoded
+   */
+  boolean decodeName(final CharSequence src, final int start, final int end, final byte[] id) {
+    if (encodedHeader != null) {
+      return end - start >= encodedHeader.length() &&
+             IdParser.decode(CODEC, src, start + encodedHeader.length(), end, id, bodyPos, bodySize);
+    }
+    final byte[] raw = SCRATCH.get();
+    if (!IdParser.decode(CODEC, src, start, end, raw, MAX_ARK_SIZE, tenantPos + bodySize)) {
+      return false;
+    }
+    System.arraycopy(raw, MAX_ARK_SIZE, id, 0, tenantPos);
+    System.arraycopy(raw, MAX_ARK_SIZE + tenantPos, id, bodyPos, bodySize);
+    return true;
+  }
+
+  /**
+   * Parse the Tenant of the range (trimmed, starting with the ARK prefix)
+   * into dst on its size, checking only the length of the Ark name
+   *
+   * @return the index of the Ark name, or -1 if invalid
+   */
+  int parseName(final CharSequence src, final int start, final int end, final byte[] dst, final int offset) {
+    final int separator = parseTenant(src, start, end, minTenant, maxTenant, dst, offset, tenantSize);
+    return separator >= 0 && end - separator - 1 == nameLength? separator + 1 : -1;
+  }
+
+  /**
+   * Decode only the bytes [pos, pos + size) of the id (neither in the Tenant
+   * nor in an encoded header) from the Ark name at name, reading only the
+   * chars covering them
+   *
+   * @return True if decoded
+   */
+  boolean decodeNameField(final CharSequence src, final int name, final int pos, final int size, final byte[] dst,
+                          final int offset) {
+    if (encodedHeader != null) {
+      return CODEC.decode(src, name + encodedHeader.length(), name + nameLength, pos - bodyPos, size, dst,
+                          offset) >= 0;
+    }
+    return CODEC.decode(src, name, name + nameLength, pos < tenantPos? pos : pos - tenantSize, size, dst,
+                        offset) >= 0;
+  }
+
+  /**
+   * Parse in one pass the decimal Tenant following the ARK prefix up to the
+   * separator (as Long.parseLong, without exception), and write it big endian
+   * on size bytes
+   *
+   * @param src the source, starting with the ARK prefix at start
+   *
+   * @return the index of the separator, or -1 if invalid or not between min
+   *     and max
+   */
+  static int parseTenant(final CharSequence src, final int start, final int end, final long min, final long max,
+                         final byte[] dst, final int offset, final int size) {
+    var i = start + PREFIX.length;
+    if (i >= end) {
+      return -1;
+    }
+    var limit = -max;
+    final char first = src.charAt(i);
+    final boolean negative = first == '-';
+    if (negative) {
+      limit = min;
+      i++;
+    } else if (first == '+') {
+      i++;
+    }
+    final int digits = i;
+    // Accumulate negatively to reach Long.MIN_VALUE
+    final long multmin = limit / RADIX;
+    long result = 0;
+    while (i < end) {
+      final char c = src.charAt(i);
+      if (c == SEPARATOR) {
+        break;
+      }
+      final int digit = c - '0';
+      if (digit < 0 || digit >= RADIX || result < multmin) {
+        return -1;
+      }
+      result *= RADIX;
+      if (result < limit + digit) {
+        return -1;
+      }
+      result -= digit;
+      i++;
+    }
+    if (i == digits || i == end) {
+      return -1;
+    }
+    var value = negative? result : -result;
+    for (var pos = offset + size - 1; pos >= offset; pos--) {
+      dst[pos] = (byte) (value & BYTE_MASK);
+      value >>>= BYTE_SIZE;
+    }
+    return i;
+  }
+
+  /**
+   * @return a per thread array of at least 8 bytes, to be used before any
+   *     other call to this codec
+   */
+  static byte[] scratch() {
+    return SCRATCH.get();
+  }
+
+  /**
+   * @return the number of chars of the decimal form of value
+   */
+  static int decimalLength(final long value) {
+    var length = value < 0? 2 : 1;
+    // Negative to handle Long.MIN_VALUE
+    var negative = value > 0? -value : value;
+    while (negative <= -RADIX) {
+      negative /= RADIX;
+      length++;
+    }
+    return length;
+  }
+
+  /**
+   * Write the decimal form of value (as Long.toString) as ASCII bytes
+   *
+   * @return the offset in dst just after the decimal form
+   */
+  static int writeDecimal(final long value, final byte[] dst, final int offset) {
+    final int end = offset + decimalLength(value);
+    var pos = end;
+    // Negative to handle Long.MIN_VALUE
+    var negative = value > 0? -value : value;
+    do {
+      dst[--pos] = (byte) ('0' - negative % RADIX);
+      negative /= RADIX;
+    } while (negative != 0);
+    if (value < 0) {
+      dst[offset] = '-';
+    }
+    return end;
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.BaseCodec;
+
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * Batch of ids generated at once, all stored in one contiguous byte array
+ * (the arena), one id after the other.<br>
+ * <br>
+ * Ids are only materialized as objects on demand, through get(index) or the
+ * lightweight view given by asList().
+ *
+ * @param <T> the type of ids in this batch
+ */
+public final class GuidBatch<T> {
+  /**
+   * Number of ids copied at once in the scratch arena of encodeAll
+   */
+  private static final int CHUNK = 256;
+  private final byte[] arena;
+  private final int keySize;
+  private final int size;
+  private final Reader<T> reader;
+
+  GuidBatch(final byte[] arena, final int keySize, final int size, final Reader<T> reader) {
+    this.arena = arena;
+    this.keySize = keySize;
+    this.size = size;
+    this.reader = reader;
+  }
+
+  /**
+   * Fill the arena: the prefix (not depending on time and counter) is
+   * supposed to be already written for the first id and is copied for all
+   * others. Then counter values are reserved in one atomic step and the clock
+   * is read once per chunk of counter range, each chunk after the first one
+   * being at least one millisecond after the previous one (borrowed if the
+   * clock did not move yet), so that a batch larger than the counter range
+   * holds no duplicate.
+   *
+   * @param arena the arena to fill
+   * @param keySize size of one id
+   * @param prefixSize size of the prefix already written at offset 0
+   * @param size the number of ids
+   * @param counter the counter to use if clock is null
+   * @param clock the monotonic clock to use, or null
+   * @param timeSource the time source
+   * @param writer the writer of time and counter into one id
+   */
+  static void fill(final byte[] arena, final int keySize, final int prefixSize, final int size,
+                   final UuidCounter counter, final HybridLogicalClock clock, final TimeSource timeSource,
+                   final Writer writer) {
+    for (int i = 1, offset = keySize; i < size; i++, offset += keySize) {
+      System.arraycopy(arena, 0, arena, offset, prefixSize);
+    }
+    if (clock != null) {
+      final long first = clock.reserve(size, timeSource.currentTimeMillis());
+      for (int i = 0, offset = 0; i < size; i++, offset += keySize) {
+        final long state = first + i;
+        writer.write(arena, offset, clock.getTime(state), clock.getCounter(state));
+      }
+      return;
+    }
+    var done = 0;
+    var time = Long.MIN_VALUE;
+    while (done < size) {
+      final int chunk = (int) Math.min(size - done, counter.getRange());
+      // A later chunk uses all counter values again, so the next millisecond
+      time = Math.max(timeSource.currentTimeMillis(), time + 1);
+      final long first = counter.reserve(chunk);
+      for (int i = 0, offset = done * keySize; i < chunk; i++, offset += keySize) {
+        writer.write(arena, offset, time, counter.valueOf(first + i));
+      }
+      done += chunk;
+    }
+  }
+
+  static byte[] allocate(final int size, final int keySize) {
+    if (size <= 0) {
+      throw new InvalidArgumentRuntimeException("Batch size must be positive: " + size);
+    }
+    if ((long) size * keySize > Integer.MAX_VALUE - 8) {
+      throw new InvalidArgumentRuntimeException("Batch size too big: " + size);
+    }
+    return new byte[size * keySize];
+  }
+
+  /**
+   * Encode all ids (as raw bytes) separated by delimiter. Ids are copied by
+   * chunks into one scratch arena, then encoded with one bulk call each; a
+   * batch view given by asList() is directly encoded from its arena.
+   *
+   * @param ids the ids to encode
+   * @param keySize size of one id
+   * @param writer the writer of one id into the arena
+   * @param codec the codec to use
+   * @param delimiter the delimiter (not part of the codec alphabet)
+   *
+   * @return the ASCII bytes of all encoded ids
+   */
+  static <T> byte[] encodeAll(final Collection<T> ids, final int keySize, final IdWriter<T> writer,
+                              final BaseCodec codec, final byte delimiter) {
+    if (ids == null || codec == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    final int count = ids.size();
+    final byte[] dst = new byte[codec.encodedLength(keySize, count)];
+    if (ids instanceof GuidBatch.View && ((GuidBatch<?>.View) ids).getBatch().keySize == keySize) {
+      codec.encodeAll(((GuidBatch<?>.View) ids).getBatch().arena, 0, keySize, count, dst, 0, delimiter);
+      return dst;
+    }
+    final byte[] scratch = new byte[Math.min(count, CHUNK) * keySize];
+    var pos = 0;
+    var nb = 0;
+    for (final T id : ids) {
+      writer.writeTo(id, scratch, nb * keySize);
+      nb++;
+      if (nb * keySize == scratch.length) {
+        pos = flush(scratch, keySize, nb, codec, dst, pos, delimiter);
+        nb = 0;
+      }
+    }
+    if (nb > 0) {
+      flush(scratch, keySize, nb, codec, dst, pos, delimiter);
+    }
+    return dst;
+  }
+
+  private static int flush(final byte[] scratch, final int keySize, final int nb, final BaseCodec codec,
+                           final byte[] dst, final int pos, final byte delimiter) {
+    var start = pos;
+    if (start > 0) {
+      dst[start++] = delimiter;
+    }
+    return codec.encodeAll(scratch, 0, keySize, nb, dst, start, delimiter);
+  }
+
+  /**
+   * Decode ids encoded by encodeAll directly into one arena
+   *
+   * @param ascii encoded ids as ASCII bytes
+   * @param offset offset in ascii
+   * @param length length of the encoded ids
+   * @param codec the codec to use
+   * @param delimiter the delimiter (not part of the codec alphabet)
+   * @param keySize size of one id
+   * @param version the version expected as first byte of each id
+   * @param reader the reader of one id from the arena
+   *
+   * @return the batch of decoded ids
+   *
+   * @throws InvalidArgumentRuntimeException if the encoded ids are incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  static <T> GuidBatch<T> decodeAll(final byte[] ascii, final int offset, final int length, final BaseCodec codec,
+                                    final byte delimiter, final int keySize, final int version,
+                                    final Reader<T> reader) {
+    if (ascii == null || codec == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    Objects.checkFromIndexSize(offset, length, ascii.length);
+    final int stride = codec.encodedLength(keySize) + 1;
+    final byte[] arena = new byte[(length + 1) / stride * keySize];
+    final int count = codec.decodeAll(ascii, offset, length, delimiter, keySize, arena, 0);
+    if (count < 0) {
+      throw new InvalidArgumentRuntimeException("Attempted to parse malformed ids: (" + length + ')');
+    }
+    for (int i = 0, pos = 0; i < count; i++, pos += keySize) {
+      if ((arena[pos] & 0xFF) != version) {
+        throw new InvalidArgumentRuntimeException("Version is incorrect: " + (arena[pos] & 0xFF));
+      }
+    }
+    return new GuidBatch<>(arena, keySize, count, reader);
+  }
+
+  /**
+   * @return the number of ids in this batch
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the size of one id
+   */
+  public int getKeySize() {
+    return keySize;
+  }
+
+  /**
+   * @return the arena itself (not a copy), id of index i being at offset i *
+   *     getKeySize()
+   */
+  public byte[] getArena() {
+    return arena;
+  }
+
+  /**
+   * @return a read only ByteBuffer over the arena
+   */
+  public ByteBuffer asByteBuffer() {
+    return ByteBuffer.wrap(arena, 0, size * keySize).asReadOnlyBuffer();
+  }
+
+  /**
+   * @param index index of the id
+   *
+   * @return a copy of the raw bytes of the id
+   */
+  public byte[] getBytes(final int index) {
+    final int offset = checkIndex(index);
+    return Arrays.copyOfRange(arena, offset, offset + keySize);
+  }
+
+  /**
+   * @param index index of the id
+   *
+   * @return the id as object
+   */
+  public T get(final int index) {
+    return reader.read(arena, checkIndex(index));
+  }
+
+  /**
+   * @return a lightweight read only List view, ids being materialized on
+   *     access
+   */
+  public List<T> asList() {
+    return new View();
+  }
+
+  private int checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of " + size);
+    }
+    return index * keySize;
+  }
+
+  /**
+   * Read one id from the arena
+   */
+  @FunctionalInterface
+  interface Reader<T> {
+    T read(byte[] arena, int offset);
+  }
+
+  /**
+   * Write time and counter of one id into the arena
+   */
+  @FunctionalInterface
+  interface Writer {
+    void write(byte[] arena, int offset, long time, int counter);
+  }
+
+  /**
+   * Write the raw bytes of one id into the arena
+   */
+  @FunctionalInterface
+  interface IdWriter<T> {
+    int writeTo(T id, byte[] arena, int offset);
+  }
+
+  private final class View extends AbstractList<T> implements RandomAccess {
+    private GuidBatch<T> getBatch() {
+      return GuidBatch.this;
+    }
+
+    @Override
+    public T get(final int index) {
+      return GuidBatch.this.get(index);
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+  }
+}
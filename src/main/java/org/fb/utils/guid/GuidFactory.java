@@ -22,11 +22,21 @@ import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.AsciiSequence;
+import org.fb.utils.various.BaseCodec;
 import org.fb.utils.json.JsonHandler;
 import org.fb.utils.various.BaseXx;
 
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Guid Factory
@@ -44,65 +54,94 @@ public final class GuidFactory {
   static final int MIN_INT = -2147483648;
   static final int MAX_INT = 2147483647;
   static final int MASK_INT = 0xFFFFFFFF;
+  /**
+   * Big endian views of byte arrays, to move ids between their raw bytes and
+   * their primitive fields
+   */
+  static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+  static final VarHandle INT_VIEW = MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+  /**
+   * Odd multiplier (golden ratio) combining words before their hash mix
+   */
+  private static final long GOLDEN = 0x9E3779B97F4A7C15L;
   private static final short DEFAULT_TENANT = 2;
   private static final short DEFAULT_PLATFORM = 6;
   private static final short DEFAULT_PID = 3;
   private static final short DEFAULT_TIME = 6;
   private static final short DEFAULT_COUNTER = 3;
-  private static final short MAX_TENANT = 8;
-  private static final short MAX_PLATFORM = 8;
-  private static final short MAX_PID = 4;
-  private static final short MAX_TIME = 8;
-  private static final short MAX_COUNTER = 4;
-  private static final short MIN_TENANT = 1;
-  private static final short MIN_PLATFORM = 1;
-  private static final short MIN_PID = 0;
-  private static final short MIN_TIME = 4;
-  private static final short MIN_COUNTER = 2;
-
-  private static final short HEADER_POS = 0;
-  private static final short SUBSIZE1_POS = 1;
-  private static final short SUBSIZE2_POS = 2;
-  private static final short HEADER_SIZE = 3;
-  private static final short HEADER_64_SIZE = 4;
-  private static final AtomicInteger COUNTER = new AtomicInteger(MIN_COUNTER);
-  private static final short TENANT_POS = HEADER_POS + HEADER_SIZE;
+  static final short MAX_TENANT = 8;
+  static final short MAX_PLATFORM = 8;
+  static final short MAX_PID = 4;
+  static final short MAX_TIME = 8;
+  static final short MAX_COUNTER = 4;
+  static final short MIN_TENANT = 1;
+  static final short MIN_PLATFORM = 1;
+  static final short MIN_PID = 0;
+  static final short MIN_TIME = 4;
+  static final short MIN_COUNTER = 2;
+
+  static final short HEADER_POS = 0;
+  static final short SUBSIZE1_POS = 1;
+  static final short SUBSIZE2_POS = 2;
+  static final short HEADER_SIZE = 3;
+  static final short HEADER_64_SIZE = 4;
+  static final short TENANT_POS = HEADER_POS + HEADER_SIZE;
   private static final short MAX_SIZE =
       HEADER_SIZE + MAX_TENANT + MAX_PLATFORM + MAX_PID + MAX_TIME + MAX_COUNTER;
-  private static final byte VERSION = 3;
+  /**
+   * Maximum number of unsigned words of the compareTo order key
+   */
+  static final int MAX_SORT_WORDS = (MAX_SIZE + Long.BYTES - 1) / Long.BYTES;
+  static final byte VERSION = 3;
+  /**
+   * Per thread buffer used by generateInto for ByteBuffer without array
+   */
+  private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[MAX_SIZE]);
   private short tenantSize = GUID_CONFIGURATION.DEFAULT.tenantSize;
   private short platformSize = GUID_CONFIGURATION.DEFAULT.platformSize;
   private short pidSize = GUID_CONFIGURATION.DEFAULT.pidSize;
   private short timeSize = GUID_CONFIGURATION.DEFAULT.timeSize;
   private short counterSize = GUID_CONFIGURATION.DEFAULT.counterSize;
-  private int maxCounter;
-  private short keySize;
-  private short key16Size;
-  private short key32Size;
-  private short key64Size;
-  private short platformPos;
-  private short pidPos;
-  private short timePos;
-  private short counterPos;
+  /**
+   * Shared immutable layout for the current sizes
+   */
+  private GuidLayout layout;
   private long tenantId;
   private long platformId = JvmProcessMacIds.getMacLong();
   private int pid = JvmProcessMacIds.getJvmPID();
+  private boolean striped;
+  private boolean monotonic;
+  private boolean timeFirst;
+  private TimeSource timeSource = TimeSource.SYSTEM;
+  /**
+   * Clock in monotonic mode, shared by all the factories of the same layout
+   * and TimeSource (for any tenant and platform), retrieved on first use
+   */
+  private HybridLogicalClock clock;
+  /**
+   * Immutable prefix template (header, tenant, platform and pid) for the
+   * current settings, computed once per setting change, so that generation
+   * only copies it and writes timestamp and counter
+   */
+  private byte[] prefix;
 
   public GuidFactory() {
     finalizeConfiguration();
   }
 
   private void finalizeConfiguration() {
-    keySize = (short) (tenantSize + platformSize + pidSize + timeSize + counterSize + HEADER_SIZE);
-    final short subsize = (short) (keySize - HEADER_SIZE);
-    key16Size = (short) (subsize * 2 + HEADER_64_SIZE);
-    key32Size = (short) (subsize * 8 / 5 + (subsize * 8 % 5 > 0? 1 : 0) + HEADER_64_SIZE);
-    key64Size = (short) (subsize * 8 / 6 + (subsize * 8 % 6 > 0? 1 : 0) + HEADER_64_SIZE);
-    platformPos = (short) (TENANT_POS + tenantSize);
-    pidPos = (short) (platformPos + platformSize);
-    timePos = (short) (pidPos + pidSize);
-    counterPos = (short) (timePos + timeSize);
-    maxCounter = (int) ((1L << counterSize * 8 - 1) - 1);
+    layout = GuidLayout.of(tenantSize, platformSize, pidSize, timeSize, counterSize, timeFirst);
+    clock = null;
+    updateSettings();
+  }
+
+  /**
+   * Recompute the prefix template after a setting change
+   */
+  private void updateSettings() {
+    final byte[] bytes = new byte[layout.prefixSize];
+    writePrefix(bytes, 0, tenantId, platformId);
+    prefix = bytes;
   }
 
   public Guid newGuid() {
@@ -117,12 +156,374 @@ public final class GuidFactory {
     return new Guid(this, tenantId, platformId);
   }
 
+  /**
+   * Generate n Guid at once, all stored in one contiguous byte array, using
+   * the default Tenant id and Platform Id
+   *
+   * @param n the number of Guid to generate
+   *
+   * @return the batch of Guid
+   *
+   * @throws InvalidArgumentRuntimeException if n is not positive
+   */
+  public GuidBatch<Guid> newGuids(final int n) {
+    return newGuids(n, tenantId, platformId);
+  }
+
+  /**
+   * Generate n Guid at once, all stored in one contiguous byte array.
+   * Counter values are reserved in one atomic step.
+   *
+   * @param n the number of Guid to generate
+   * @param tenantId tenant id between -2^(c*8-1) and 2^(c*8-1)-1
+   * @param platformId platform Id between -2^(p*8-1) and 2^(p*8-1)-1
+   *
+   * @return the batch of Guid
+   *
+   * @throws InvalidArgumentRuntimeException if n is not positive
+   */
+  public GuidBatch<Guid> newGuids(final int n, final long tenantId, final long platformId) {
+    final var batchLayout = layout;
+    final byte[] arena = GuidBatch.allocate(n, batchLayout.keySize);
+    copyPrefix(arena, 0, tenantId, platformId);
+    if (monotonic) {
+      GuidBatch.fill(arena, batchLayout.keySize, batchLayout.prefixSize, n, null, getClock(), timeSource,
+                     this::writeTimeCounter);
+    } else {
+      GuidBatch.fill(arena, batchLayout.keySize, batchLayout.prefixSize, n, batchLayout.counter, null, timeSource,
+                     this::writeTimeCounter);
+    }
+    return new GuidBatch<>(arena, batchLayout.keySize, n, (bytes, offset) -> new Guid(batchLayout, bytes, offset));
+  }
+
+  /**
+   * Generate a new Guid directly into the buffer (at its position, moved
+   * forward), using the default Tenant id and Platform Id, without creating
+   * any object
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public ByteBuffer generateInto(final ByteBuffer buffer) {
+    return generateInto(buffer, tenantId, platformId);
+  }
+
+  /**
+   * Generate a new Guid directly into the buffer (at its position, moved
+   * forward), without creating any object
+   *
+   * @param buffer the destination buffer
+   * @param tenantId tenant id between -2^(c*8-1) and 2^(c*8-1)-1
+   * @param platformId platform Id between -2^(p*8-1) and 2^(p*8-1)-1
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public ByteBuffer generateInto(final ByteBuffer buffer, final long tenantId, final long platformId) {
+    if (buffer.remaining() < layout.keySize) {
+      throw new BufferOverflowException();
+    }
+    if (buffer.hasArray()) {
+      final int position = buffer.position();
+      generate(buffer.array(), buffer.arrayOffset() + position, tenantId, platformId);
+      buffer.position(position + layout.keySize);
+    } else {
+      final byte[] scratch = SCRATCH.get();
+      generate(scratch, 0, tenantId, platformId);
+      buffer.put(scratch, 0, layout.keySize);
+    }
+    return buffer;
+  }
+
+  /**
+   * @param idSource the String representation of a Guid, in any form
+   *
+   * @return the Guid, whatever its layout (this factory being not modified)
+   *
+   * @throws InvalidArgumentRuntimeException if the String is incorrect
+   */
   public Guid getGuid(final String idSource) {
-    return new Guid(this, idSource);
+    return new Guid(idSource);
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the Guid, whatever its layout, parsed without any intermediate
+   *     String nor array
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static Guid parse(final CharSequence id, final int start, final int end) {
+    IdParser.checkRange(id, start, end);
+    return new Guid(id, start, end);
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the Guid, whatever its layout, or null if id is null, the range is
+   *     out of id or not a valid Guid (no exception being created)
+   */
+  public static Guid tryParse(final CharSequence id, final int start, final int end) {
+    if (!IdParser.isRange(id, start, end)) {
+      return null;
+    }
+    final Guid guid = new Guid();
+    return guid.decode(id, start, end) == IdParser.VALID? guid : null;
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   *
+   * @return the Guid, whatever its layout, or null if id is null or not a
+   *     valid Guid (no exception being created)
+   */
+  public static Guid tryParse(final CharSequence id) {
+    return id == null? null : tryParse(id, 0, id.length());
   }
 
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the millisecond UTC timestamp of the Guid, whatever its layout,
+   *     decoding only the header and the chars covering it, without building
+   *     the Guid
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static long timestampOf(final CharSequence id, final int start, final int end) {
+    return fieldOf(id, start, end, false);
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   *
+   * @return the millisecond UTC timestamp of the Guid, as timestampOf(id, 0,
+   *     id.length())
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static long timestampOf(final CharSequence id) {
+    return timestampOf(id, 0, id == null? 0 : id.length());
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the Tenant id of the Guid, whatever its layout, decoding only the
+   *     header and the chars covering it, without building the Guid
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static long tenantOf(final CharSequence id, final int start, final int end) {
+    return fieldOf(id, start, end, true);
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in any of its forms
+   *
+   * @return the Tenant id of the Guid, as tenantOf(id, 0, id.length())
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static long tenantOf(final CharSequence id) {
+    return tenantOf(id, 0, id == null? 0 : id.length());
+  }
+
+  /**
+   * @return the Tenant or the Timestamp, from the layout given by the encoded
+   *     header, as Guid.getTenantId() and Guid.getTimestamp()
+   */
+  private static long fieldOf(final CharSequence id, final int begin, final int finish, final boolean tenant) {
+    IdParser.checkRange(id, begin, finish);
+    final int start = IdParser.trimStart(id, begin, finish);
+    final int end = IdParser.trimEnd(id, start, finish);
+    final byte[] field = IdParser.fieldScratch();
+    if (IdParser.isArk(id, start, end)) {
+      // Tenant parsed in one pass up to the separator, before the layout
+      final int separator =
+          ArkCodec.parseTenant(id, start, end, Long.MIN_VALUE, Long.MAX_VALUE, field, 0, Long.BYTES);
+      final var layout = separator < 0? null : GuidLayout.tryFromEncodedHeader(id, separator + 1, end);
+      if (layout == null || end - separator - 1 != layout.ark.getNameLength() ||
+          !tenant && !layout.ark.decodeNameField(id, separator + 1, layout.timePos, layout.timeSize, field, 0)) {
+        throw IdParser.malformed(IdParser.MALFORMED_ARK, "Guid", id, begin, finish);
+      }
+      return tenant? IdParser.toLong(field, Long.BYTES - layout.tenantSize, layout.tenantSize) :
+          IdParser.toLong(field, 0, layout.timeSize);
+    }
+    final var layout = GuidLayout.tryFromEncodedHeader(id, start, end);
+    if (layout == null) {
+      throw IdParser.malformed(IdParser.MALFORMED, "Guid", id, begin, finish);
+    }
+    final int pos = tenant? TENANT_POS : layout.timePos;
+    final int size = tenant? layout.tenantSize : layout.timeSize;
+    if (!IdParser.decodeField(id, start, end, HEADER_64_SIZE, HEADER_SIZE, layout.keySize, pos, size, field, 0)) {
+      throw IdParser.malformed(IdParser.MALFORMED, "Guid", id, begin, finish);
+    }
+    return IdParser.toLong(field, 0, size);
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in its sortable form (see
+   *     Guid.toSortable())
+   *
+   * @return the Guid, whatever its layout
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static Guid parseSortable(final CharSequence id) {
+    if (id == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    final Guid guid = new Guid();
+    if (guid.decodeSortable(id, 0, id.length()) != IdParser.VALID) {
+      throw IdParser.malformed(IdParser.MALFORMED, "Guid", id, 0, id.length());
+    }
+    return guid;
+  }
+
+  /**
+   * @param id the CharSequence containing a Guid in its sortable form (see
+   *     Guid.toSortable())
+   *
+   * @return the Guid, whatever its layout, or null if id is null or not a
+   *     valid sortable form (no exception being created)
+   */
+  public static Guid tryParseSortable(final CharSequence id) {
+    if (id == null) {
+      return null;
+    }
+    final Guid guid = new Guid();
+    return guid.decodeSortable(id, 0, id.length()) == IdParser.VALID? guid : null;
+  }
+
+
+  /**
+   * @param ascii the ASCII bytes of the Guid in any of its String forms
+   * @param offset offset in ascii
+   * @param length number of bytes
+   *
+   * @return the Guid, whatever its layout, parsed from the raw bytes
+   *     without any charset decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  public static Guid parseAscii(final byte[] ascii, final int offset, final int length) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii, offset, length), 0, length);
+  }
+
+  /**
+   * @param ascii the buffer containing the ASCII bytes of the Guid in any
+   *     of its String forms, between its position and its limit (neither
+   *     being changed)
+   *
+   * @return the Guid, whatever its layout, parsed from the raw bytes
+   *     without any charset decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   */
+  public static Guid parseAscii(final ByteBuffer ascii) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii), 0, ascii.remaining());
+  }
+
+  /**
+   * Encode all Guids at once, separated by delimiter, each one as its
+   * Base64 header followed by the rest encoded with codec (so toBase32(),
+   * toBase64() or toHex() forms for BaseCodec.BASE32, BASE64 or BASE16)
+   *
+   * @param guids the Guids to encode, whatever their layouts
+   * @param codec the codec to use
+   * @param delimiter the delimiter (not part of the codec alphabet)
+   *
+   * @return the ASCII bytes of all encoded Guids
+   *
+   * @throws InvalidArgumentRuntimeException if an argument is null
+   */
+  public static byte[] encodeAll(final Collection<Guid> guids, final BaseCodec codec, final byte delimiter) {
+    if (guids == null || codec == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    long length = -1;
+    for (final Guid guid : guids) {
+      length += guid.encodedLength(codec) + 1;
+    }
+    final byte[] dst = new byte[Math.toIntExact(Math.max(0, length))];
+    var pos = 0;
+    for (final Guid guid : guids) {
+      if (pos > 0) {
+        dst[pos++] = delimiter;
+      }
+      pos = guid.encodeTo(codec, dst, pos);
+    }
+    return dst;
+  }
+
+  /**
+   * Decode Guids separated by delimiter, each one in any of its forms and
+   * of any layout, directly from the ASCII bytes (one trailing delimiter
+   * being accepted)
+   *
+   * @param ascii encoded Guids as ASCII bytes
+   * @param offset offset in ascii
+   * @param length length of the encoded Guids
+   * @param delimiter the delimiter (not part of the encoded forms)
+   *
+   * @return the list of Guids
+   *
+   * @throws InvalidArgumentRuntimeException if one Guid is incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  public static List<Guid> decodeAll(final byte[] ascii, final int offset, final int length,
+                                     final byte delimiter) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    final AsciiSequence sequence = AsciiSequence.of(ascii, offset, length);
+    final List<Guid> guids = new ArrayList<>();
+    var start = 0;
+    while (start < length) {
+      var end = start;
+      while (end < length && ascii[offset + end] != delimiter) {
+        end++;
+      }
+      guids.add(new Guid(sequence, start, end));
+      start = end + 1;
+    }
+    return guids;
+  }
+
+  /**
+   * @param bytes the raw bytes of a Guid
+   *
+   * @return the Guid, whatever its layout (this factory being not modified)
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   */
   public Guid getGuid(final byte[] bytes) {
-    return new Guid(this, bytes);
+    return new Guid(bytes);
   }
 
   public GuidFactory useConfiguration(final GUID_CONFIGURATION guidConfiguration) {
@@ -136,29 +537,223 @@ public final class GuidFactory {
 
   public GuidFactory setTenantId(final long tenantId) {
     this.tenantId = tenantId;
+    updateSettings();
     return this;
   }
 
   public GuidFactory setPlatformId(final long platformId) {
     this.platformId = platformId;
+    updateSettings();
     return this;
   }
 
   public GuidFactory resetPlatformId() {
     platformId = JvmProcessMacIds.getMacLong();
+    updateSettings();
     return this;
   }
 
   public GuidFactory setPid(final int pid) {
     this.pid = pid;
+    updateSettings();
     return this;
   }
 
   public GuidFactory resetPid() {
     pid = JvmProcessMacIds.getJvmPID();
+    updateSettings();
+    return this;
+  }
+
+  /**
+   * @param striped if True, each thread reserves a block of counter values
+   *     at once, so that most of the generations only touch thread local state
+   *     (default being False)
+   *
+   * @return this
+   */
+  public GuidFactory setStriped(final boolean striped) {
+    this.striped = striped;
+    return this;
+  }
+
+  public boolean isStriped() {
+    return striped;
+  }
+
+  /**
+   * @param monotonic if True, when the counter is exhausted within one
+   *     millisecond, the next logical millisecond is used instead of wrapping
+   *     the counter, so that no duplicate can occur (default being False).
+   *     Takes precedence over striped mode.
+   *
+   * @return this
+   */
+  public GuidFactory setMonotonic(final boolean monotonic) {
+    this.monotonic = monotonic;
+    return this;
+  }
+
+  public boolean isMonotonic() {
+    return monotonic;
+  }
+
+  /**
+   * @param timeFirst if True, Guids are stored as header, tenant, timestamp,
+   *     counter, platform then pid (flagged in the header), so that their
+   *     byte order is their generation order per tenant, as for B-tree
+   *     binary keys, and compareTo is an unsigned byte comparison (default
+   *     being False: header, tenant, platform, pid, timestamp then counter)
+   *
+   * @return this
+   */
+  public GuidFactory setTimeFirst(final boolean timeFirst) {
+    this.timeFirst = timeFirst;
+    finalizeConfiguration();
+    return this;
+  }
+
+  public boolean isTimeFirst() {
+    return timeFirst;
+  }
+
+  /**
+   * @param timeSource the source of timestamps (default being
+   *     TimeSource.SYSTEM), the monotonic mode clock being the one shared by
+   *     the factories of the same layout and TimeSource, moved to at least
+   *     the last value of the previous clock if this factory used it
+   *
+   * @return this
+   *
+   * @throws InvalidArgumentRuntimeException if timeSource is null
+   */
+  public GuidFactory setTimeSource(final TimeSource timeSource) {
+    if (timeSource == null) {
+      throw new InvalidArgumentRuntimeException("TimeSource cannot be null");
+    }
+    final var previous = clock;
+    this.timeSource = timeSource;
+    if (previous != null) {
+      // Ids already given from the previous clock are not given again
+      final var next = layout.clock(timeSource);
+      next.advanceTo(previous);
+      clock = next;
+    }
     return this;
   }
 
+  public TimeSource getTimeSource() {
+    return timeSource;
+  }
+
+  /**
+   * @return how far (in milliseconds) the monotonic mode clock of this factory
+   *     (shared by the factories of the same layout and TimeSource) currently
+   *     runs ahead of wall time
+   */
+  public long getClockLead() {
+    return getClock().getLead(timeSource.currentTimeMillis());
+  }
+
+  /**
+   * @return the max lead (in milliseconds) of the monotonic mode clock of this
+   *     factory over wall time
+   */
+  public long getClockMaxLead() {
+    return getClock().getMaxLead();
+  }
+
+  private HybridLogicalClock getClock() {
+    var hlc = clock;
+    if (hlc == null) {
+      hlc = layout.clock(timeSource);
+      clock = hlc;
+    }
+    return hlc;
+  }
+
+  /**
+   * Copy the prefix template for the given tenant and platform (written in
+   * place if they are not the ones of this factory) at offset in dest
+   */
+  private void copyPrefix(final byte[] dest, final int offset, final long tenantId, final long platformId) {
+    if (tenantId == this.tenantId && platformId == this.platformId) {
+      System.arraycopy(prefix, 0, dest, offset, layout.prefixSize);
+    } else {
+      writePrefix(dest, offset, tenantId, platformId);
+    }
+  }
+
+  /**
+   * Write header, tenant, platform and pid (all but timestamp and counter)
+   * at offset in dest
+   */
+  private void writePrefix(final byte[] dest, final int offset, final long tenantId, final long platformId) {
+    // 3 bytes = Version + Encoding (24)
+    System.arraycopy(layout.header, 0, dest, offset + HEADER_POS, HEADER_SIZE);
+
+    // Tenant
+    var value = tenantId;
+    for (var pos = offset + TENANT_POS + tenantSize - 1; pos >= offset + TENANT_POS; pos--) {
+      dest[pos] = (byte) (value & BYTE_MASK);
+      value >>>= BYTE_SIZE;
+    }
+
+    // Platform
+    value = platformId;
+    for (var pos = offset + layout.platformPos + platformSize - 1; pos >= offset + layout.platformPos; pos--) {
+      dest[pos] = (byte) (value & BYTE_MASK);
+      value >>>= BYTE_SIZE;
+    }
+
+    // JVMPID
+    var ivalue = pid;
+    for (var pos = offset + layout.pidPos + pidSize - 1; pos >= offset + layout.pidPos; pos--) {
+      dest[pos] = (byte) (ivalue & BYTE_MASK);
+      ivalue >>>= BYTE_SIZE;
+    }
+  }
+
+  /**
+   * Generate a new Guid at offset in dest
+   */
+  private void generate(final byte[] dest, final int offset, final long tenantId, final long platformId) {
+    // atomically
+    final long time;
+    final int count;
+    if (monotonic) {
+      final var hlc = getClock();
+      final long state = hlc.next(timeSource.currentTimeMillis());
+      time = hlc.getTime(state);
+      count = hlc.getCounter(state);
+    } else {
+      time = timeSource.currentTimeMillis();
+      final var counter = layout.counter;
+      count = striped? counter.nextStriped() : counter.next();
+    }
+    copyPrefix(dest, offset, tenantId, platformId);
+    writeTimeCounter(dest, offset, time, count);
+  }
+
+  /**
+   * Write timestamp and counter of the Guid at offset in dest
+   */
+  private void writeTimeCounter(final byte[] dest, final int offset, final long time, final int count) {
+    // Timestamp
+    var value = time;
+    for (var pos = offset + layout.timePos + timeSize - 1; pos >= offset + layout.timePos; pos--) {
+      dest[pos] = (byte) (value & BYTE_MASK);
+      value >>>= BYTE_SIZE;
+    }
+
+    // Counter against collision
+    var ivalue = count;
+    for (var pos = offset + layout.counterPos + counterSize - 1; pos >= offset + layout.counterPos; pos--) {
+      dest[pos] = (byte) (ivalue & BYTE_MASK);
+      ivalue >>>= BYTE_SIZE;
+    }
+  }
+
   public short getTenantSize() {
     return tenantSize;
   }
@@ -254,59 +849,19 @@ public final class GuidFactory {
   }
 
   public short getKeySize() {
-    return keySize;
+    return layout.keySize;
   }
 
   public short getKey16Size() {
-    return key16Size;
+    return layout.key16Size;
   }
 
   public short getKey32Size() {
-    return key32Size;
+    return layout.key32Size;
   }
 
   public short getKey64Size() {
-    return key64Size;
-  }
-
-  private String getHeaderEncoded() {
-    return BaseXx.getBase64(getHeader());
-  }
-
-  private byte[] getHeader() {
-    final byte[] bytes = new byte[HEADER_SIZE];
-    bytes[0] = VERSION & 0xFF;
-    var value = tenantSize - MIN_TENANT;
-    value <<= 3;
-    value += platformSize - MIN_PLATFORM;
-    bytes[SUBSIZE1_POS] = (byte) (value & 0xFF);
-    value = pidSize - MIN_PID;
-    value <<= 3;
-    value += timeSize - MIN_TIME;
-    value <<= 2;
-    value += counterSize - MIN_COUNTER;
-    bytes[SUBSIZE2_POS] = (byte) (value & 0xFF);
-    return bytes;
-  }
-
-  private GuidFactory setFromHeader(String encoded64) {
-    var bytes = BaseXx.getFromBase64(encoded64.substring(0, HEADER_64_SIZE));
-    var version = bytes[0] & 0xFF;
-    if (version != VERSION) {
-      throw new InvalidArgumentRuntimeException("Incorrect Version");
-    }
-    var value = bytes[SUBSIZE1_POS];
-    _setPlatformSize((short) ((value & 0x07) + MIN_PLATFORM));
-    value >>>= 3;
-    _setTenantSize((short) ((value & 0x07) + MIN_TENANT));
-    value = bytes[SUBSIZE2_POS];
-    _setCounterSize((short) ((value & 0x03) + MIN_COUNTER));
-    value >>>= 2;
-    _setTimeSize((short) ((value & 0x07) + MIN_TIME));
-    value >>>= 3;
-    _setPidSize((short) ((value & 0x07) + MIN_PID));
-    finalizeConfiguration();
-    return this;
+    return layout.key64Size;
   }
 
   /**
@@ -322,6 +877,52 @@ public final class GuidFactory {
     }
   }
 
+  /**
+   * @return the avalanche mix (MurmurHash3 finalizer) of word, all bits of
+   *     the hash depending on all bits of word, so that the low bits used by
+   *     power of two tables are well distributed
+   */
+  static int mixHash(final long word) {
+    var h = word;
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  /**
+   * @return the avalanche mix of both words
+   */
+  static int mixHash(final long first, final long second) {
+    return mixHash(first * GOLDEN + second);
+  }
+
+  /**
+   * @return the avalanche mix of the three words
+   */
+  static int mixHash(final long first, final long second, final long third) {
+    return mixHash((first * GOLDEN + second) * GOLDEN + third);
+  }
+
+  /**
+   * @return the avalanche mix of the size first bytes, read as big endian
+   *     words (the last, with Time and Counter, being the partial one)
+   */
+  static int mixHash(final byte[] bytes, final int size) {
+    long combined = 0;
+    var i = 0;
+    for (; i + Long.BYTES <= size; i += Long.BYTES) {
+      combined = combined * GOLDEN + (long) LONG_VIEW.get(bytes, i);
+    }
+    long word = 0;
+    for (; i < size; i++) {
+      word = word << BYTE_SIZE | bytes[i] & BYTE_MASK;
+    }
+    return mixHash(combined, word);
+  }
+
   public enum GUID_CONFIGURATION {
     BIGGEST(MAX_TENANT, MAX_PLATFORM, MAX_PID, MAX_TIME, MAX_COUNTER),
     STANDARD((short) 3, DEFAULT_PLATFORM, DEFAULT_PID, DEFAULT_TIME, DEFAULT_COUNTER),
@@ -350,9 +951,17 @@ public final class GuidFactory {
      * real Guid
      */
     @JsonIgnore
-    private final byte[] bguid;
+    private byte[] bguid;
+    /**
+     * Shared immutable layout, given by the header
+     */
+    @JsonIgnore
+    private GuidLayout layout;
+    /**
+     * Hash, computed once from the bytes
+     */
     @JsonIgnore
-    private final GuidFactory guidFactory;
+    private int hash;
 
     /**
      * Constructor that takes a byte array as this Guid's content
@@ -361,25 +970,25 @@ public final class GuidFactory {
      *
      * @throws InvalidArgumentRuntimeException if the byte array is incorrect
      */
-    private Guid(final GuidFactory factory, final byte[] bytes) {
-      guidFactory = factory;
+    private Guid(final byte[] bytes) {
       if (bytes == null) {
         throw new InvalidArgumentRuntimeException("Empty argument");
       }
-      if (bytes.length < guidFactory.keySize) {
+      final var bytesLayout = GuidLayout.fromHeader(bytes);
+      if (bytes.length < bytesLayout.keySize) {
         throw new InvalidArgumentRuntimeException(
             "Attempted to parse malformed Guid: (" + bytes.length + ')');
       }
-      bguid = new byte[guidFactory.keySize];
-      System.arraycopy(bytes, 0, bguid, 0, guidFactory.keySize);
-      validateVersion();
+      setBytes(bytesLayout, Arrays.copyOf(bytes, bytesLayout.keySize));
     }
 
-    @JsonIgnore
-    private void validateVersion() {
-      if (getVersion() != VERSION) {
-        throw new InvalidArgumentRuntimeException("Invalid Version");
-      }
+    /**
+     * Set the content of this Guid and its hash
+     */
+    private void setBytes(final GuidLayout layout, final byte[] bytes) {
+      this.layout = layout;
+      bguid = bytes;
+      hash = mixHash(bytes, layout.keySize);
     }
 
     /**
@@ -397,11 +1006,17 @@ public final class GuidFactory {
      *
      * @throws InvalidArgumentRuntimeException if the isSource is incorrect
      */
-    private Guid(final GuidFactory factory, final String idsource) {
-      guidFactory = factory;
-      bguid = new byte[Math.min(idsource.length(), MAX_SIZE)];
+    private Guid(final String idsource) {
       setString(idsource);
-      validateVersion();
+    }
+
+    /**
+     * Build from a range of a CharSequence, decoding directly into this Guid
+     *
+     * @throws InvalidArgumentRuntimeException if the range is incorrect
+     */
+    private Guid(final CharSequence id, final int start, final int end) {
+      setString(id, start, end);
     }
 
     /**
@@ -414,74 +1029,107 @@ public final class GuidFactory {
       if (idsource == null) {
         throw new InvalidArgumentRuntimeException("Empty argument");
       }
-      var id = idsource.trim();
-      if (id.startsWith(ARK)) {
-        var ids = id;
-        ids = ids.substring(ARK.length());
-        var separator = ids.indexOf('/');
-        if (separator <= 0) {
-          throw new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + id);
-        }
-        var tenantId = 0L;
-        try {
-          tenantId = Long.parseLong(ids.substring(0, separator));
-        } catch (final NumberFormatException e) {
-          throw new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + id);
+      return setString(idsource, 0, idsource.length());
+    }
+
+    private Guid setString(final CharSequence idsource, final int start, final int end) {
+      final int status = decode(idsource, start, end);
+      if (status != IdParser.VALID) {
+        throw IdParser.malformed(status, "Guid", idsource, start, end);
+      }
+      return this;
+    }
+
+    /**
+     * Decode the range directly into this Guid, without any exception
+     *
+     * @return the parsing status from IdParser
+     */
+    private int decode(final CharSequence idsource, final int begin, final int finish) {
+      final int start = IdParser.trimStart(idsource, begin, finish);
+      final int end = IdParser.trimEnd(idsource, start, finish);
+      if (IdParser.isArk(idsource, start, end)) {
+        // Tenant parsed in one pass up to the separator, before the layout
+        final byte[] tenant = ArkCodec.scratch();
+        final int separator = ArkCodec.parseTenant(idsource, start, end, Long.MIN_VALUE, Long.MAX_VALUE, tenant, 0,
+                                                   Long.BYTES);
+        if (separator < 0) {
+          return IdParser.MALFORMED_ARK;
         }
         // Get HEADER as Base64
-        ids = ids.substring(separator + 1);
-        guidFactory.setFromHeader(ids);
-        // BASE32
-        ids = ids.substring(HEADER_64_SIZE);
-        try {
-          var base32 = BaseXx.getFromBase32(ids);
-          if (base32.length != guidFactory.keySize - guidFactory.tenantSize - HEADER_SIZE) {
-            throw new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + id);
-          }
-          System.arraycopy(guidFactory.getHeader(), 0, bguid, HEADER_POS, HEADER_SIZE);
-          // Guid Tenant
-          for (var pos = TENANT_POS + guidFactory.tenantSize - 1; pos >= TENANT_POS; pos--) {
-            bguid[pos] = (byte) (tenantId & BYTE_MASK);
-            tenantId >>>= BYTE_SIZE;
-          }
-          // BASE32
-          System.arraycopy(base32, 0, bguid, guidFactory.platformPos,
-                           guidFactory.keySize - guidFactory.tenantSize - HEADER_SIZE);
-        } catch (final IllegalArgumentException e) {
-          throw new InvalidArgumentRuntimeException("Invalid Base32", e);
+        final var arkLayout = GuidLayout.tryFromEncodedHeader(idsource, separator + 1, end);
+        if (arkLayout == null) {
+          return IdParser.MALFORMED_ARK;
+        }
+        final byte[] bytes = new byte[arkLayout.keySize];
+        System.arraycopy(tenant, Long.BYTES - arkLayout.tenantSize, bytes, TENANT_POS, arkLayout.tenantSize);
+        // BASE32 of all after the Tenant
+        if (!arkLayout.ark.decodeName(idsource, separator + 1, end, bytes)) {
+          return IdParser.MALFORMED_ARK;
         }
-        return this;
+        System.arraycopy(arkLayout.header, 0, bytes, HEADER_POS, HEADER_SIZE);
+        setBytes(arkLayout, bytes);
+        return IdParser.VALID;
       }
       // Read Base 64 for header
-      guidFactory.setFromHeader(id);
-      System.arraycopy(guidFactory.getHeader(), 0, bguid, HEADER_POS, HEADER_SIZE);
-      var ids = id.substring(HEADER_64_SIZE);
-      var len = id.length();
-      try {
-        if (len == guidFactory.key16Size) {
-          // HEXA BASE16
-          var bytes = BaseXx.getFromBase16(ids);
-          System.arraycopy(bytes, 0, bguid, TENANT_POS, guidFactory.keySize - HEADER_SIZE);
-        } else if (len == guidFactory.key32Size) {
-          // BASE32
-          var bytes = BaseXx.getFromBase32(ids);
-          System.arraycopy(bytes, 0, bguid, TENANT_POS, guidFactory.keySize - HEADER_SIZE);
-        } else if (len == guidFactory.key64Size) {
-          // BASE64
-          var bytes = BaseXx.getFromBase64(ids);
-          System.arraycopy(bytes, 0, bguid, TENANT_POS, guidFactory.keySize - HEADER_SIZE);
-        } else {
-          throw new InvalidArgumentRuntimeException("Attempted to parse malformed Guid: (" + len + ") " + id);
-        }
-      } catch (final IllegalArgumentException e) {
-        throw new InvalidArgumentRuntimeException("Attempted to parse malformed Guid: " + id, e);
+      final var idLayout = GuidLayout.tryFromEncodedHeader(idsource, start, end);
+      if (idLayout == null) {
+        return IdParser.MALFORMED;
       }
-      return this;
+      final int len = end - start;
+      final BaseCodec codec;
+      if (len == idLayout.key16Size) {
+        // HEXA BASE16
+        codec = BaseCodec.BASE16;
+      } else if (len == idLayout.key32Size) {
+        // BASE32
+        codec = BaseCodec.BASE32;
+      } else if (len == idLayout.key64Size) {
+        // BASE64
+        codec = BaseCodec.BASE64;
+      } else {
+        return IdParser.MALFORMED;
+      }
+      final byte[] bytes = new byte[idLayout.keySize];
+      if (!IdParser.decode(codec, idsource, start + HEADER_64_SIZE, end, bytes, TENANT_POS,
+                           idLayout.keySize - HEADER_SIZE)) {
+        return IdParser.MALFORMED;
+      }
+      System.arraycopy(idLayout.header, 0, bytes, HEADER_POS, HEADER_SIZE);
+      setBytes(idLayout, bytes);
+      return IdParser.VALID;
+    }
+
+    /**
+     * Decode the sortable form directly into this Guid, without any exception
+     *
+     * @return the parsing status from IdParser
+     */
+    private int decodeSortable(final CharSequence idsource, final int begin, final int finish) {
+      final int start = IdParser.trimStart(idsource, begin, finish);
+      final int end = IdParser.trimEnd(idsource, start, finish);
+      final int size = SortableForm.decodedLength(idsource, start, end);
+      if (size < HEADER_SIZE || size > MAX_SIZE) {
+        return IdParser.MALFORMED;
+      }
+      final byte[] sortable = new byte[size];
+      if (!SortableForm.decode(idsource, start, end, sortable)) {
+        return IdParser.MALFORMED;
+      }
+      // Header is at the end of the sortable form
+      final var sortableLayout = GuidLayout.tryFromHeader(sortable, size - HEADER_SIZE);
+      if (sortableLayout == null || sortableLayout.keySize != size) {
+        return IdParser.MALFORMED;
+      }
+      final byte[] bytes = new byte[size];
+      SortableForm.toRaw(sortable, bytes, size, HEADER_SIZE, sortableLayout.tenantSize, sortableLayout.timePos,
+                         sortableLayout.timeSize + sortableLayout.counterSize, sortableLayout.isSignedTenant());
+      setBytes(sortableLayout, bytes);
+      return IdParser.VALID;
     }
 
     private Guid() {
-      guidFactory = new GuidFactory();
-      bguid = new byte[MAX_SIZE];
+      // Only for Json, to be filled by setString
     }
 
     /**
@@ -500,59 +1148,21 @@ public final class GuidFactory {
      * @param platformId platform Id between -2^(p*8-1) and 2^(p*8-1)-1
      */
     private Guid(final GuidFactory factory, final long tenantId, final long platformId) {
-      // atomically
-      guidFactory = factory;
-      bguid = new byte[guidFactory.keySize];
-      var time = System.currentTimeMillis();
-      var count = getNewCounter(guidFactory.maxCounter);
-      // 3 bytes = Version + Encoding (24)
-      var bytes = guidFactory.getHeader();
-      System.arraycopy(bytes, 0, bguid, HEADER_POS, HEADER_SIZE);
-
-      // Tenant
-      var value = tenantId;
-      for (var pos = TENANT_POS + guidFactory.tenantSize - 1; pos >= TENANT_POS; pos--) {
-        bguid[pos] = (byte) (value & BYTE_MASK);
-        value >>>= BYTE_SIZE;
-      }
-
-      // Platform
-      value = platformId;
-      for (var pos = guidFactory.platformPos + guidFactory.platformSize - 1; pos >= guidFactory.platformPos;
-           pos--) {
-        bguid[pos] = (byte) (value & BYTE_MASK);
-        value >>>= BYTE_SIZE;
-      }
-
-      // JVMPID
-      var ivalue = guidFactory.pid;
-      for (var pos = guidFactory.pidPos + guidFactory.pidSize - 1; pos >= guidFactory.pidPos; pos--) {
-        bguid[pos] = (byte) (ivalue & BYTE_MASK);
-        ivalue >>>= BYTE_SIZE;
-      }
-
-      // Timestamp
-      value = time;
-      for (var pos = guidFactory.timePos + guidFactory.timeSize - 1; pos >= guidFactory.timePos; pos--) {
-        bguid[pos] = (byte) (value & BYTE_MASK);
-        value >>>= BYTE_SIZE;
-      }
-
-      // Counter against collision
-      ivalue = count;
-      for (var pos = guidFactory.counterPos + guidFactory.counterSize - 1; pos >= guidFactory.counterPos;
-           pos--) {
-        bguid[pos] = (byte) (ivalue & BYTE_MASK);
-        ivalue >>>= BYTE_SIZE;
-      }
+      final var factoryLayout = factory.layout;
+      final byte[] bytes = new byte[factoryLayout.keySize];
+      factory.generate(bytes, 0, tenantId, platformId);
+      setBytes(factoryLayout, bytes);
     }
 
-    private static synchronized int getNewCounter(final int max) {
-      if (COUNTER.compareAndSet(max, MIN_COUNTER)) {
-        return max;
-      } else {
-        return COUNTER.getAndIncrement();
-      }
+    /**
+     * Internal constructor from a trusted byte array
+     *
+     * @param layout layout of the Guid
+     * @param bytes array containing the Guid
+     * @param offset offset of the Guid in the array
+     */
+    private Guid(final GuidLayout layout, final byte[] bytes, final int offset) {
+      setBytes(layout, Arrays.copyOfRange(bytes, offset, offset + layout.keySize));
     }
 
     /**
@@ -573,7 +1183,7 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public int getKeySize() {
-      return guidFactory.getKeySize();
+      return layout.keySize;
     }
 
     /**
@@ -581,8 +1191,8 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public String toBase64() {
-      return guidFactory.getHeaderEncoded() +
-             BaseXx.getBase64(bguid, HEADER_SIZE, guidFactory.keySize - HEADER_SIZE);
+      return layout.headerEncoded +
+             BaseXx.getBase64(bguid, HEADER_SIZE, layout.keySize - HEADER_SIZE);
     }
 
     /**
@@ -590,8 +1200,8 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public String toHex() {
-      return guidFactory.getHeaderEncoded() +
-             BaseXx.getBase16(bguid, HEADER_SIZE, guidFactory.keySize - HEADER_SIZE);
+      return layout.headerEncoded +
+             BaseXx.getBase16(bguid, HEADER_SIZE, layout.keySize - HEADER_SIZE);
     }
 
     /**
@@ -599,7 +1209,91 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public String toArk() {
-      return new StringBuilder(ARK).append(getTenantId()).append('/').append(toArkName()).toString();
+      return layout.ark.toString(getTenantId(), bguid);
+    }
+
+    /**
+     * @return the length of the Ark representation
+     */
+    @JsonIgnore
+    public int getArkLength() {
+      return layout.ark.getLength(getTenantId());
+    }
+
+    /**
+     * Write the Ark representation as ASCII bytes, without any intermediate
+     * String nor array
+     *
+     * @param dst the destination array
+     * @param off the offset in dst
+     *
+     * @return the offset just after the written Ark representation
+     *
+     * @throws IndexOutOfBoundsException if dst is too small
+     */
+    public int writeArk(final byte[] dst, final int off) {
+      return layout.ark.write(getTenantId(), bguid, dst, off);
+    }
+
+    /**
+     * Write the Ark representation as ASCII bytes at the position of the
+     * buffer (moved forward), without any intermediate String nor array
+     *
+     * @param buffer the destination buffer
+     *
+     * @return the buffer
+     *
+     * @throws BufferOverflowException if not enough remaining space
+     */
+    public ByteBuffer writeArk(final ByteBuffer buffer) {
+      return layout.ark.write(getTenantId(), bguid, buffer);
+    }
+
+    /**
+     * Append the Ark representation, without any intermediate String nor
+     * array
+     *
+     * @param builder the builder to append to (may be reused)
+     *
+     * @return the builder
+     */
+    public StringBuilder appendArk(final StringBuilder builder) {
+      return layout.ark.append(getTenantId(), bguid, builder);
+    }
+
+    /**
+     * Append the Ark representation, without any intermediate String nor
+     * array
+     *
+     * @param appendable the appendable to append to
+     *
+     * @return the appendable
+     *
+     * @throws IOException from the appendable
+     */
+    public Appendable appendArk(final Appendable appendable) throws IOException {
+      return layout.ark.append(getTenantId(), bguid, appendable);
+    }
+
+    /**
+     * @return the length of the form encoded by encodeTo
+     */
+    int encodedLength(final BaseCodec codec) {
+      return HEADER_64_SIZE + codec.encodedLength(layout.keySize - HEADER_SIZE);
+    }
+
+    /**
+     * Encode this Guid as its Base64 header followed by the rest encoded with
+     * codec
+     *
+     * @return the offset in dst just after the encoded form
+     */
+    int encodeTo(final BaseCodec codec, final byte[] dst, final int dstOffset) {
+      var pos = dstOffset;
+      for (var i = 0; i < HEADER_64_SIZE; i++) {
+        dst[pos++] = (byte) layout.headerEncoded.charAt(i);
+      }
+      return codec.encode(bguid, HEADER_SIZE, layout.keySize - HEADER_SIZE, dst, pos);
     }
 
     /**
@@ -608,7 +1302,7 @@ public final class GuidFactory {
     @JsonIgnore
     public long getTenantId() {
       long value = 0;
-      for (var i = 0; i < guidFactory.tenantSize; i++) {
+      for (var i = 0; i < layout.tenantSize; i++) {
         value <<= BYTE_SIZE;
         value |= bguid[TENANT_POS + i] & BYTE_MASK;
       }
@@ -620,9 +1314,7 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public String toArkName() {
-      return guidFactory.getHeaderEncoded() + BaseXx.getBase32(bguid, guidFactory.platformPos,
-                                                               guidFactory.keySize - guidFactory.tenantSize -
-                                                               HEADER_SIZE);
+      return layout.ark.nameToString(bguid);
     }
 
     /**
@@ -643,8 +1335,20 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public String toBase32() {
-      return guidFactory.getHeaderEncoded() +
-             BaseXx.getBase32(bguid, HEADER_SIZE, guidFactory.keySize - HEADER_SIZE);
+      return layout.headerEncoded +
+             BaseXx.getBase32(bguid, HEADER_SIZE, layout.keySize - HEADER_SIZE);
+    }
+
+    /**
+     * @return the lexicographically sortable representation (Crockford
+     *     Base32 of Tenant, Time, Counter, Platform, Pid then Header), whose
+     *     String order is the order given by compareTo for Guids of the same
+     *     layout
+     */
+    @JsonIgnore
+    public String toSortable() {
+      return SortableForm.encode(bguid, layout.keySize, HEADER_SIZE, layout.tenantSize, layout.timePos,
+                                 layout.timeSize + layout.counterSize, layout.isSignedTenant());
     }
 
     /**
@@ -655,9 +1359,9 @@ public final class GuidFactory {
     @JsonIgnore
     public long getPlatformId() {
       long value = 0;
-      for (var i = 0; i < guidFactory.platformSize; i++) {
+      for (var i = 0; i < layout.platformSize; i++) {
         value <<= BYTE_SIZE;
-        value |= bguid[guidFactory.platformPos + i] & BYTE_MASK;
+        value |= bguid[layout.platformPos + i] & BYTE_MASK;
       }
       return value;
     }
@@ -670,9 +1374,9 @@ public final class GuidFactory {
     @JsonIgnore
     public int getProcessId() {
       int value = 0;
-      for (var i = 0; i < guidFactory.pidSize; i++) {
+      for (var i = 0; i < layout.pidSize; i++) {
         value <<= BYTE_SIZE;
-        value |= bguid[guidFactory.pidPos + i] & BYTE_MASK;
+        value |= bguid[layout.pidPos + i] & BYTE_MASK;
       }
       return value;
     }
@@ -680,7 +1384,7 @@ public final class GuidFactory {
     @Override
     @JsonIgnore
     public int hashCode() {
-      return Arrays.hashCode(getBytes());
+      return hash;
     }
 
     /**
@@ -690,7 +1394,36 @@ public final class GuidFactory {
      */
     @JsonIgnore
     public byte[] getBytes() {
-      return Arrays.copyOf(bguid, guidFactory.keySize);
+      return Arrays.copyOf(bguid, layout.keySize);
+    }
+
+    /**
+     * Write the raw bytes of this Guid, without any copy
+     *
+     * @param dst the destination array
+     * @param off the offset in dst
+     *
+     * @return the offset just after the written Guid
+     *
+     * @throws IndexOutOfBoundsException if dst is too small
+     */
+    public int writeTo(final byte[] dst, final int off) {
+      System.arraycopy(bguid, 0, dst, off, layout.keySize);
+      return off + layout.keySize;
+    }
+
+    /**
+     * Write the raw bytes of this Guid at the position of the buffer (moved
+     * forward), without any copy
+     *
+     * @param buffer the destination buffer
+     *
+     * @return the buffer
+     *
+     * @throws BufferOverflowException if not enough remaining space
+     */
+    public ByteBuffer writeTo(final ByteBuffer buffer) {
+      return buffer.put(bguid, 0, layout.keySize);
     }
 
     @Override
@@ -698,32 +1431,75 @@ public final class GuidFactory {
       if (!(o instanceof Guid)) {
         return false;
       }
-      return this == o || Arrays.equals(getBytes(), ((Guid) o).getBytes());
+      if (this == o) {
+        return true;
+      }
+      final var guid = (Guid) o;
+      return Arrays.equals(bguid, 0, layout.keySize, guid.bguid, 0, guid.layout.keySize);
     }
 
+    /**
+     * Total order of the sortable form for ids of the same layout: Tenant
+     * (signed if on 8 bytes and not time first), Timestamp, Counter, then
+     * Platform and Pid, as unsigned comparisons of ranges (no allocation).
+     * Ids of different layouts are ordered by their header.
+     */
     @Override
     public int compareTo(final Guid guid) {
-      var id = getTenantId();
-      var id2 = guid.getTenantId();
-      if (id != id2) {
-        return id < id2? -1 : 1;
+      final var other = guid.bguid;
+      if (layout != guid.layout) {
+        return Arrays.compareUnsigned(bguid, 0, HEADER_SIZE, other, 0, HEADER_SIZE);
+      }
+      final int size = layout.keySize;
+      if (layout.timeFirst) {
+        // Byte order is tenant, timestamp, counter then others
+        return Arrays.compareUnsigned(bguid, 0, size, other, 0, size);
+      }
+      final int platformPos = layout.platformPos;
+      final int cmp = layout.isSignedTenant()?
+          Long.compare((long) LONG_VIEW.get(bguid, TENANT_POS), (long) LONG_VIEW.get(other, TENANT_POS)) :
+          Arrays.compareUnsigned(bguid, TENANT_POS, platformPos, other, TENANT_POS, platformPos);
+      if (cmp != 0) {
+        return cmp;
       }
-      var ts = getTimestamp();
-      var ts2 = guid.getTimestamp();
-      if (ts == ts2) {
-        var ct = getCounter();
-        var ct2 = guid.getCounter();
-        if (ct == ct2) {
-          // then all must be equals, else whatever
-          return Arrays.equals(getBytes(), guid.getBytes())? 0 : -1;
+      // Time and Counter being contiguous, as Platform and Pid
+      final int timePos = layout.timePos;
+      final int cmp2 = Arrays.compareUnsigned(bguid, timePos, size, other, timePos, size);
+      return cmp2 != 0? cmp2 : Arrays.compareUnsigned(bguid, platformPos, timePos, other, platformPos, timePos);
+    }
+
+    /**
+     * Write the key of the compareTo order as unsigned words: Header, Tenant
+     * (sign bit flipped if signed), Time, Counter, Platform then Pid, padded
+     * with 0
+     *
+     * @param scratch array of at least words * 8 bytes
+     * @param keys the destination of the key
+     * @param off the offset in keys
+     * @param words the number of words of the key (at least keySize / 8
+     *     rounded up)
+     */
+    void writeSortKey(final byte[] scratch, final long[] keys, final int off, final int words) {
+      final int size = layout.keySize;
+      if (layout.timeFirst) {
+        System.arraycopy(bguid, 0, scratch, 0, size);
+      } else {
+        final int platformPos = layout.platformPos;
+        final int timePos = layout.timePos;
+        System.arraycopy(bguid, 0, scratch, 0, platformPos);
+        if (layout.isSignedTenant()) {
+          scratch[TENANT_POS] ^= Byte.MIN_VALUE;
         }
-        // Cannot be equal
-        return ct < ct2? -1 : 1;
+        System.arraycopy(bguid, timePos, scratch, platformPos, size - timePos);
+        System.arraycopy(bguid, platformPos, scratch, platformPos + size - timePos, timePos - platformPos);
+      }
+      Arrays.fill(scratch, size, words * Long.BYTES, (byte) 0);
+      for (var i = 0; i < words; i++) {
+        keys[off + i] = (long) LONG_VIEW.get(scratch, i * Long.BYTES);
       }
-      // others as ProcessId or Platform are unimportant in comparison
-      return ts < ts2? -1 : 1;
     }
 
+
     /**
      * Extract timestamp and return as long
      *
@@ -736,9 +1512,9 @@ public final class GuidFactory {
         return -1;
       }
       long time = 0;
-      for (var i = 0; i < guidFactory.timeSize; i++) {
+      for (var i = 0; i < layout.timeSize; i++) {
         time <<= BYTE_SIZE;
-        time |= bguid[guidFactory.timePos + i] & BYTE_MASK;
+        time |= bguid[layout.timePos + i] & BYTE_MASK;
       }
       return time;
     }
@@ -749,9 +1525,9 @@ public final class GuidFactory {
     @JsonIgnore
     public int getCounter() {
       int count = 0;
-      for (var i = 0; i < guidFactory.counterSize; i++) {
+      for (var i = 0; i < layout.counterSize; i++) {
         count <<= BYTE_SIZE;
-        count |= bguid[guidFactory.counterPos + i] & BYTE_MASK;
+        count |= bguid[layout.counterPos + i] & BYTE_MASK;
       }
       return count;
     }
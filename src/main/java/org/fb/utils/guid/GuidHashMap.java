@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static org.fb.utils.guid.GuidHashSet.checkId;
+
+/**
+ * Map keyed by GUIDs or TinyGUIDs, keys stored inline as long words in one
+ * array and values in a parallel one (open addressing with linear probing):
+ * no entry object nor reference to the keys, 28 bytes per GUID and 20 per
+ * TinyGUID slot (compressed references), at a load factor between 1/3 and
+ * 2/3.<br>
+ * <br>
+ * Raw ids (as in a GuidBatch arena or read from a file) can be used as keys
+ * without creating any id. Null values are not allowed. Not thread safe.
+ *
+ * @param <K> GUID or TinyGUID
+ * @param <V> the type of values
+ */
+public final class GuidHashMap<K, V> {
+  private final IdKey<K> idKey;
+  private final IdTable table;
+
+  private GuidHashMap(final IdKey<K> idKey, final int expectedSize) {
+    this.idKey = idKey;
+    table = new IdTable(idKey.words(), expectedSize, true);
+  }
+
+  /**
+   * @param expectedSize the number of GUIDs expected (to avoid resizing)
+   *
+   * @return a new empty map keyed by GUIDs
+   */
+  public static <V> GuidHashMap<GUID, V> ofGUID(final int expectedSize) {
+    return new GuidHashMap<>(GUID.KEY, expectedSize);
+  }
+
+  /**
+   * @param expectedSize the number of TinyGUIDs expected (to avoid resizing)
+   *
+   * @return a new empty map keyed by TinyGUIDs
+   */
+  public static <V> GuidHashMap<TinyGUID, V> ofTinyGUID(final int expectedSize) {
+    return new GuidHashMap<>(TinyGUID.KEY, expectedSize);
+  }
+
+  /**
+   * @param id the key
+   * @param value the value (not null)
+   *
+   * @return the previous value, or null if none
+   */
+  public V put(final K id, final V value) {
+    idKey.write(checkId(id), table.key());
+    return put(value);
+  }
+
+  /**
+   * @param bytes array containing the raw id
+   * @param offset offset of the id in the array
+   * @param value the value (not null)
+   *
+   * @return the previous value, or null if none
+   *
+   * @throws InvalidArgumentRuntimeException if the version is incorrect
+   * @throws IndexOutOfBoundsException if the id is out of bytes
+   */
+  public V put(final byte[] bytes, final int offset, final V value) {
+    idKey.read(bytes, offset, table.key());
+    return put(value);
+  }
+
+  @SuppressWarnings("unchecked")
+  private V put(final V value) {
+    checkId(value);
+    final int slot = table.add();
+    return (V) table.setValue(slot < 0? ~slot : slot, value);
+  }
+
+  /**
+   * @param id the key
+   * @param mapping the function giving the value if absent (null to not
+   *     add it)
+   *
+   * @return the current value, or the one given by mapping if absent
+   */
+  @SuppressWarnings("unchecked")
+  public V computeIfAbsent(final K id, final Function<? super K, ? extends V> mapping) {
+    idKey.write(checkId(id), table.key());
+    final int slot = table.find();
+    if (slot >= 0) {
+      return (V) table.value(slot);
+    }
+    final V value = mapping.apply(id);
+    if (value != null) {
+      // mapping may have used the table
+      idKey.write(id, table.key());
+      put(value);
+    }
+    return value;
+  }
+
+  /**
+   * @param id the key
+   *
+   * @return the value, or null if absent
+   */
+  public V get(final K id) {
+    idKey.write(checkId(id), table.key());
+    return get();
+  }
+
+  /**
+   * @param bytes array containing the raw id
+   * @param offset offset of the id in the array
+   *
+   * @return the value, or null if absent
+   *
+   * @throws InvalidArgumentRuntimeException if the version is incorrect
+   * @throws IndexOutOfBoundsException if the id is out of bytes
+   */
+  public V get(final byte[] bytes, final int offset) {
+    idKey.read(bytes, offset, table.key());
+    return get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private V get() {
+    final int slot = table.find();
+    return slot < 0? null : (V) table.value(slot);
+  }
+
+  /**
+   * @param id the key
+   *
+   * @return True if present
+   */
+  public boolean containsKey(final K id) {
+    idKey.write(checkId(id), table.key());
+    return table.find() >= 0;
+  }
+
+  /**
+   * @param id the key
+   *
+   * @return the removed value, or null if absent
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(final K id) {
+    idKey.write(checkId(id), table.key());
+    return (V) table.remove();
+  }
+
+  /**
+   * @return the number of keys
+   */
+  public int size() {
+    return table.size();
+  }
+
+  /**
+   * @return True if no key
+   */
+  public boolean isEmpty() {
+    return table.size() == 0;
+  }
+
+  /**
+   * Remove all keys, keeping the capacity
+   */
+  public void clear() {
+    table.clear();
+  }
+
+  /**
+   * @param action called for each key (created on the fly) and value, in no
+   *     particular order
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(final BiConsumer<? super K, ? super V> action) {
+    final long[] keys = table.keys();
+    final int words = idKey.words();
+    for (var slot = 0; slot < table.capacity(); slot++) {
+      if (table.isUsed(slot)) {
+        action.accept(idKey.create(keys, slot * words), (V) table.value(slot));
+      }
+    }
+  }
+}
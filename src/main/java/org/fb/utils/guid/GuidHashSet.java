@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+
+import java.util.function.Consumer;
+
+/**
+ * Set of GUIDs or TinyGUIDs, stored inline as long words in one array (open
+ * addressing with linear probing): no entry object nor reference to the ids,
+ * 24 bytes per GUID and 16 per TinyGUID slot, at a load factor between 1/3 and
+ * 2/3.<br>
+ * <br>
+ * Raw ids (as in a GuidBatch arena or read from a file) can be added or
+ * looked up without creating any id. Not thread safe.
+ *
+ * @param <T> GUID or TinyGUID
+ */
+public final class GuidHashSet<T> {
+  private final IdKey<T> idKey;
+  private final IdTable table;
+
+  private GuidHashSet(final IdKey<T> idKey, final int expectedSize) {
+    this.idKey = idKey;
+    table = new IdTable(idKey.words(), expectedSize, false);
+  }
+
+  /**
+   * @param expectedSize the number of GUIDs expected (to avoid resizing)
+   *
+   * @return a new empty set of GUIDs
+   */
+  public static GuidHashSet<GUID> ofGUID(final int expectedSize) {
+    return new GuidHashSet<>(GUID.KEY, expectedSize);
+  }
+
+  /**
+   * @param expectedSize the number of TinyGUIDs expected (to avoid resizing)
+   *
+   * @return a new empty set of TinyGUIDs
+   */
+  public static GuidHashSet<TinyGUID> ofTinyGUID(final int expectedSize) {
+    return new GuidHashSet<>(TinyGUID.KEY, expectedSize);
+  }
+
+  /**
+   * @param id the id to add
+   *
+   * @return True if added, False if already present
+   */
+  public boolean add(final T id) {
+    idKey.write(checkId(id), table.key());
+    return table.add() < 0;
+  }
+
+  /**
+   * @param bytes array containing the raw id
+   * @param offset offset of the id in the array
+   *
+   * @return True if added, False if already present
+   *
+   * @throws InvalidArgumentRuntimeException if the version is incorrect
+   * @throws IndexOutOfBoundsException if the id is out of bytes
+   */
+  public boolean add(final byte[] bytes, final int offset) {
+    idKey.read(bytes, offset, table.key());
+    return table.add() < 0;
+  }
+
+  /**
+   * @param id the id to look for
+   *
+   * @return True if present
+   */
+  public boolean contains(final T id) {
+    idKey.write(checkId(id), table.key());
+    return table.find() >= 0;
+  }
+
+  /**
+   * @param bytes array containing the raw id
+   * @param offset offset of the id in the array
+   *
+   * @return True if present
+   *
+   * @throws InvalidArgumentRuntimeException if the version is incorrect
+   * @throws IndexOutOfBoundsException if the id is out of bytes
+   */
+  public boolean contains(final byte[] bytes, final int offset) {
+    idKey.read(bytes, offset, table.key());
+    return table.find() >= 0;
+  }
+
+  /**
+   * @param id the id to remove
+   *
+   * @return True if removed, False if absent
+   */
+  public boolean remove(final T id) {
+    idKey.write(checkId(id), table.key());
+    final int before = table.size();
+    table.remove();
+    return table.size() < before;
+  }
+
+  /**
+   * @return the number of ids
+   */
+  public int size() {
+    return table.size();
+  }
+
+  /**
+   * @return True if no id
+   */
+  public boolean isEmpty() {
+    return table.size() == 0;
+  }
+
+  /**
+   * Remove all ids, keeping the capacity
+   */
+  public void clear() {
+    table.clear();
+  }
+
+  /**
+   * @param action called for each id (created on the fly), in no particular
+   *     order
+   */
+  public void forEach(final Consumer<? super T> action) {
+    final long[] keys = table.keys();
+    final int words = idKey.words();
+    for (var slot = 0; slot < table.capacity(); slot++) {
+      if (table.isUsed(slot)) {
+        action.accept(idKey.create(keys, slot * words));
+      }
+    }
+  }
+
+  static <T> T checkId(final T id) {
+    if (id == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return id;
+  }
+}
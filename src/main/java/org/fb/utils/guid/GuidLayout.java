@@ -0,0 +1,296 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.BaseCodec;
+import org.fb.utils.various.BaseXx;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.fb.utils.guid.GuidFactory.*;
+
+/**
+ * Immutable layout of a Guid (sizes and positions of each field), as encoded
+ * in its 3 bytes header.<br>
+ * <br>
+ * Layouts are shared through a registry indexed by the header, lazily filled
+ * (at most 8 * 8 * 5 * 5 * 3 * 2 entries), so that parsing a Guid never
+ * mutates a GuidFactory. Each layout also holds the counter and the
+ * monotonic clocks shared by all the factories using it, the registry being
+ * bounded.<br>
+ * <br>
+ * The default layout stores Header, Tenant, Platform, Pid, Time then Counter.
+ * The time first layout (flag TIME_FIRST in the first sub size byte) stores
+ * Header, Tenant, Time, Counter, Platform then Pid, so that the byte order is
+ * the generation order per tenant (B-tree friendly binary keys).
+ */
+final class GuidLayout {
+  private static final int NB_TENANT = MAX_TENANT - MIN_TENANT + 1;
+  private static final int NB_PLATFORM = MAX_PLATFORM - MIN_PLATFORM + 1;
+  private static final int NB_PID = MAX_PID - MIN_PID + 1;
+  private static final int NB_TIME = MAX_TIME - MIN_TIME + 1;
+  private static final int NB_COUNTER = MAX_COUNTER - MIN_COUNTER + 1;
+  /**
+   * Flag of the time first layout within the first sub size byte (after 3
+   * bits of Tenant size and 3 bits of Platform size)
+   */
+  static final int TIME_FIRST = 0x40;
+  private static final int UNUSED = 0x80;
+  private static final AtomicReferenceArray<GuidLayout> LAYOUTS =
+      new AtomicReferenceArray<>(NB_TENANT * NB_PLATFORM * NB_PID * NB_TIME * NB_COUNTER * 2);
+  final short tenantSize;
+  final short platformSize;
+  final short pidSize;
+  final short timeSize;
+  final short counterSize;
+  final short keySize;
+  final short key16Size;
+  final short key32Size;
+  final short key64Size;
+  final short platformPos;
+  final short pidPos;
+  final short timePos;
+  final short counterPos;
+  /**
+   * True for the time first layout
+   */
+  final boolean timeFirst;
+  /**
+   * Size of the prefix template (all but Time and Counter, those being
+   * written after the copy of the template)
+   */
+  final short prefixSize;
+  final int maxCounter;
+  /**
+   * Counter against collision shared by all the factories of this layout (for
+   * any tenant, platform and pid), so that two factories never give the same
+   * id
+   */
+  final UuidCounter counter;
+  /**
+   * Monotonic mode clocks shared by all the factories of this layout, one per
+   * TimeSource (weak keys, so dropped with their TimeSource)
+   */
+  private final Map<TimeSource, HybridLogicalClock> clocks = new WeakHashMap<>();
+  /**
+   * Header as bytes (not to be modified) and as Base64
+   */
+  final byte[] header;
+  final String headerEncoded;
+  /**
+   * ARK form: Tenant as decimal then encoded header and Base32 of all after
+   * the Tenant
+   */
+  final ArkCodec ark;
+
+  private GuidLayout(final short tenantSize, final short platformSize, final short pidSize, final short timeSize,
+                     final short counterSize, final boolean timeFirst) {
+    this.tenantSize = tenantSize;
+    this.platformSize = platformSize;
+    this.pidSize = pidSize;
+    this.timeSize = timeSize;
+    this.counterSize = counterSize;
+    keySize = (short) (tenantSize + platformSize + pidSize + timeSize + counterSize + HEADER_SIZE);
+    final short subsize = (short) (keySize - HEADER_SIZE);
+    key16Size = (short) (subsize * 2 + HEADER_64_SIZE);
+    key32Size = (short) (subsize * 8 / 5 + (subsize * 8 % 5 > 0? 1 : 0) + HEADER_64_SIZE);
+    key64Size = (short) (subsize * 8 / 6 + (subsize * 8 % 6 > 0? 1 : 0) + HEADER_64_SIZE);
+    this.timeFirst = timeFirst;
+    if (timeFirst) {
+      timePos = (short) (TENANT_POS + tenantSize);
+      counterPos = (short) (timePos + timeSize);
+      platformPos = (short) (counterPos + counterSize);
+      pidPos = (short) (platformPos + platformSize);
+      prefixSize = keySize;
+    } else {
+      platformPos = (short) (TENANT_POS + tenantSize);
+      pidPos = (short) (platformPos + platformSize);
+      timePos = (short) (pidPos + pidSize);
+      counterPos = (short) (timePos + timeSize);
+      prefixSize = timePos;
+    }
+    maxCounter = (int) ((1L << counterSize * 8 - 1) - 1);
+    counter = new UuidCounter(MIN_COUNTER, maxCounter);
+    header = computeHeader();
+    headerEncoded = BaseXx.getBase64(header);
+    ark = new ArkCodec(keySize, TENANT_POS, tenantSize, Long.MIN_VALUE, Long.MAX_VALUE, headerEncoded);
+  }
+
+  /**
+   * @return the shared layout for those sizes (supposed to be valid)
+   */
+  static GuidLayout of(final short tenantSize, final short platformSize, final short pidSize, final short timeSize,
+                       final short counterSize) {
+    return of(tenantSize, platformSize, pidSize, timeSize, counterSize, false);
+  }
+
+  /**
+   * @return the shared layout for those sizes and order (supposed to be
+   *     valid)
+   */
+  static GuidLayout of(final short tenantSize, final short platformSize, final short pidSize, final short timeSize,
+                       final short counterSize, final boolean timeFirst) {
+    final int index = (((((tenantSize - MIN_TENANT) * NB_PLATFORM + platformSize - MIN_PLATFORM) * NB_PID + pidSize -
+                         MIN_PID) * NB_TIME + timeSize - MIN_TIME) * NB_COUNTER + counterSize - MIN_COUNTER) * 2 +
+                      (timeFirst? 1 : 0);
+    final var layout = LAYOUTS.get(index);
+    if (layout != null) {
+      return layout;
+    }
+    LAYOUTS.compareAndSet(index, null,
+                          new GuidLayout(tenantSize, platformSize, pidSize, timeSize, counterSize, timeFirst));
+    return LAYOUTS.get(index);
+  }
+
+  /**
+   * @param timeSource the TimeSource of the factory
+   *
+   * @return the monotonic mode clock shared by all the factories of this
+   *     layout using this TimeSource
+   */
+  HybridLogicalClock clock(final TimeSource timeSource) {
+    synchronized (clocks) {
+      return clocks.computeIfAbsent(timeSource, source -> new HybridLogicalClock(counterSize * BYTE_SIZE - 1));
+    }
+  }
+
+  /**
+   * @return True if compareTo sees the Tenant as a signed number (only when
+   *     on 8 bytes, and not for the time first layout compared as unsigned
+   *     bytes)
+   */
+  boolean isSignedTenant() {
+    return tenantSize == Long.BYTES && !timeFirst;
+  }
+
+  /**
+   * @param bytes array starting with the 3 bytes header
+   *
+   * @return the shared layout associated with this header
+   *
+   * @throws InvalidArgumentRuntimeException if the header is incorrect
+   */
+  static GuidLayout fromHeader(final byte[] bytes) {
+    if (bytes.length < HEADER_SIZE || (bytes[HEADER_POS] & 0xFF) != VERSION) {
+      throw new InvalidArgumentRuntimeException("Incorrect Version");
+    }
+    final var layout = fromHeader(VERSION, bytes[SUBSIZE1_POS] & 0xFF, bytes[SUBSIZE2_POS] & 0xFF);
+    if (layout == null) {
+      throw new InvalidArgumentRuntimeException("Incorrect Header");
+    }
+    return layout;
+  }
+
+  /**
+   * @param bytes array containing the 3 bytes header at offset
+   * @param offset offset of the header
+   *
+   * @return the shared layout associated with this header, or null if
+   *     incorrect
+   */
+  static GuidLayout tryFromHeader(final byte[] bytes, final int offset) {
+    return fromHeader(bytes[offset + HEADER_POS] & 0xFF, bytes[offset + SUBSIZE1_POS] & 0xFF,
+                      bytes[offset + SUBSIZE2_POS] & 0xFF);
+  }
+
+  /**
+   * @return the shared layout associated with this header, or null if
+   *     incorrect
+   */
+  private static GuidLayout fromHeader(final int version, final int subsize1, final int subsize2) {
+    if (version != VERSION || (subsize1 & UNUSED) != 0) {
+      return null;
+    }
+    var value = subsize1;
+    final boolean timeFirst = (value & TIME_FIRST) != 0;
+    final var platformSize = (short) ((value & 0x07) + MIN_PLATFORM);
+    value >>>= 3;
+    final var tenantSize = (short) ((value & 0x07) + MIN_TENANT);
+    value = subsize2;
+    final var counterSize = (short) ((value & 0x03) + MIN_COUNTER);
+    value >>>= 2;
+    final var timeSize = (short) ((value & 0x07) + MIN_TIME);
+    value >>>= 3;
+    final var pidSize = (short) ((value & 0x07) + MIN_PID);
+    if (counterSize > MAX_COUNTER || timeSize > MAX_TIME || pidSize > MAX_PID) {
+      return null;
+    }
+    return of(tenantSize, platformSize, pidSize, timeSize, counterSize, timeFirst);
+  }
+
+  /**
+   * @param id CharSequence containing the Base64 encoded header at start
+   * @param start start index of the header
+   * @param end end index of the id
+   *
+   * @return the shared layout associated with this header
+   *
+   * @throws InvalidArgumentRuntimeException if the header is incorrect
+   */
+  static GuidLayout fromEncodedHeader(final CharSequence id, final int start, final int end) {
+    final var layout = tryFromEncodedHeader(id, start, end);
+    if (layout == null) {
+      throw new InvalidArgumentRuntimeException(
+          "Attempted to parse malformed Guid: " + IdParser.toString(id, start, end));
+    }
+    return layout;
+  }
+
+  /**
+   * @param id CharSequence containing the Base64 encoded header at start
+   * @param start start index of the header
+   * @param end end index of the id
+   *
+   * @return the shared layout associated with this header, or null if
+   *     incorrect
+   */
+  static GuidLayout tryFromEncodedHeader(final CharSequence id, final int start, final int end) {
+    if (end - start < HEADER_64_SIZE) {
+      return null;
+    }
+    final int value = BaseCodec.BASE64.valueOf(id.charAt(start)) << 18 |
+                      BaseCodec.BASE64.valueOf(id.charAt(start + 1)) << 12 |
+                      BaseCodec.BASE64.valueOf(id.charAt(start + 2)) << 6 |
+                      BaseCodec.BASE64.valueOf(id.charAt(start + 3));
+    if (value < 0) {
+      return null;
+    }
+    return fromHeader(value >>> 16, value >>> 8 & 0xFF, value & 0xFF);
+  }
+
+  private byte[] computeHeader() {
+    final byte[] bytes = new byte[HEADER_SIZE];
+    bytes[0] = VERSION & 0xFF;
+    var value = tenantSize - MIN_TENANT;
+    value <<= 3;
+    value += platformSize - MIN_PLATFORM;
+    if (timeFirst) {
+      value |= TIME_FIRST;
+    }
+    bytes[SUBSIZE1_POS] = (byte) (value & 0xFF);
+    value = pidSize - MIN_PID;
+    value <<= 3;
+    value += timeSize - MIN_TIME;
+    value <<= 2;
+    value += counterSize - MIN_COUNTER;
+    bytes[SUBSIZE2_POS] = (byte) (value & 0xFF);
+    return bytes;
+  }
+}
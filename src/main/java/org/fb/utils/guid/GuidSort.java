@@ -0,0 +1,602 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.guid.GuidFactory.Guid;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static org.fb.utils.guid.GuidFactory.LONG_VIEW;
+
+/**
+ * Radix sort of ids in the order given by their compareTo (unsigned value for
+ * LongUuid), as arrays of ids or as fixed-size records in a flat byte[] or
+ * long[].<br>
+ * <br>
+ * The key of each id is extracted once as unsigned long words, then sorted
+ * with the original index by an LSD radix sort on bytes, skipping the bytes
+ * equal for all ids (Version, Tenant, high bytes of Time...), before moving
+ * each id once. The parallel variants first partition by the most
+ * significant varying byte (MSD), then sort the partitions in parallel.<br>
+ * <br>
+ * Not stable, but equal ids being identical, this does not matter.
+ */
+public final class GuidSort {
+  private static final int RADIX = 256;
+  private static final int DIGIT_MASK = RADIX - 1;
+  /**
+   * Below, parallel variants sort sequentially
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 16;
+  /**
+   * Minimum number of entries of one chunk of a parallel pass
+   */
+  private static final int MIN_CHUNK = 1 << 14;
+  private static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+  @FunctionalInterface
+  private interface RangeTask {
+    void run(int from, int to);
+  }
+
+  private GuidSort() {
+    // empty
+  }
+
+  /**
+   * Sort in the order of GUID.compareTo
+   *
+   * @param ids the GUIDs to sort (no null)
+   */
+  public static void sort(final GUID[] ids) {
+    sort(ids, false);
+  }
+
+  /**
+   * Sort in parallel in the order of GUID.compareTo
+   *
+   * @param ids the GUIDs to sort (no null)
+   */
+  public static void parallelSort(final GUID[] ids) {
+    sort(ids, true);
+  }
+
+  private static void sort(final GUID[] ids, final boolean parallel) {
+    final int words = GUID.SORT_WORDS;
+    final long[] keys = newKeys(checkIds(ids), words);
+    forEachRange(ids.length, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        ids[i].writeSortKey(keys, i * words);
+      }
+    });
+    permute(ids, sortKeys(keys, words, ids.length, parallel), parallel);
+  }
+
+  /**
+   * Sort in the order of TinyGUID.compareTo
+   *
+   * @param ids the TinyGUIDs to sort (no null)
+   */
+  public static void sort(final TinyGUID[] ids) {
+    sort(ids, false);
+  }
+
+  /**
+   * Sort in parallel in the order of TinyGUID.compareTo
+   *
+   * @param ids the TinyGUIDs to sort (no null)
+   */
+  public static void parallelSort(final TinyGUID[] ids) {
+    sort(ids, true);
+  }
+
+  private static void sort(final TinyGUID[] ids, final boolean parallel) {
+    final int words = TinyGUID.SORT_WORDS;
+    final long[] keys = newKeys(checkIds(ids), words);
+    forEachRange(ids.length, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        ids[i].writeSortKey(keys, i * words);
+      }
+    });
+    permute(ids, sortKeys(keys, words, ids.length, parallel), parallel);
+  }
+
+  /**
+   * Sort in the order of Guid.compareTo (so by layout first if several)
+   *
+   * @param ids the Guids to sort (no null)
+   */
+  public static void sort(final Guid[] ids) {
+    sort(ids, false);
+  }
+
+  /**
+   * Sort in parallel in the order of Guid.compareTo (so by layout first if
+   * several)
+   *
+   * @param ids the Guids to sort (no null)
+   */
+  public static void parallelSort(final Guid[] ids) {
+    sort(ids, true);
+  }
+
+  private static void sort(final Guid[] ids, final boolean parallel) {
+    checkIds(ids);
+    var maxSize = 0;
+    for (final Guid id : ids) {
+      maxSize = Math.max(maxSize, id.getKeySize());
+    }
+    final int words = (maxSize + Long.BYTES - 1) / Long.BYTES;
+    final long[] keys = newKeys(ids.length, words);
+    forEachRange(ids.length, parallel, (from, to) -> {
+      final byte[] scratch = new byte[words * Long.BYTES];
+      for (int i = from; i < to; i++) {
+        ids[i].writeSortKey(scratch, keys, i * words, words);
+      }
+    });
+    permute(ids, sortKeys(keys, words, ids.length, parallel), parallel);
+  }
+
+  /**
+   * Sort by unsigned value (so by jvm id, timestamp then counter)
+   *
+   * @param ids the LongUuids to sort (no null)
+   */
+  public static void sort(final LongUuid[] ids) {
+    sort(ids, false);
+  }
+
+  /**
+   * Sort in parallel by unsigned value (so by jvm id, timestamp then counter)
+   *
+   * @param ids the LongUuids to sort (no null)
+   */
+  public static void parallelSort(final LongUuid[] ids) {
+    sort(ids, true);
+  }
+
+  private static void sort(final LongUuid[] ids, final boolean parallel) {
+    final long[] keys = newKeys(checkIds(ids), 1);
+    forEachRange(ids.length, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        keys[i] = ids[i].getLong();
+      }
+    });
+    permute(ids, sortKeys(keys, 1, ids.length, parallel), parallel);
+  }
+
+  /**
+   * Sort raw GUIDs stored one after the other (as in GuidBatch arena) in the
+   * order of GUID.compareTo
+   *
+   * @param records the raw GUIDs, the first one at offset 0
+   * @param count the number of GUIDs
+   *
+   * @throws InvalidArgumentRuntimeException if records is null
+   * @throws IndexOutOfBoundsException if records is too small
+   */
+  public static void sortGuids(final byte[] records, final int count) {
+    sortGuids(records, count, false);
+  }
+
+  /**
+   * Sort in parallel raw GUIDs stored one after the other (as in GuidBatch
+   * arena) in the order of GUID.compareTo
+   *
+   * @param records the raw GUIDs, the first one at offset 0
+   * @param count the number of GUIDs
+   *
+   * @throws InvalidArgumentRuntimeException if records is null
+   * @throws IndexOutOfBoundsException if records is too small
+   */
+  public static void parallelSortGuids(final byte[] records, final int count) {
+    sortGuids(records, count, true);
+  }
+
+  private static void sortGuids(final byte[] records, final int count, final boolean parallel) {
+    final int words = GUID.SORT_WORDS;
+    final int size = GUID.KEYSIZE;
+    final long[] keys = newKeys(checkRecords(records, size, count), words);
+    forEachRange(count, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        GUID.writeSortKey(records, i * size, keys, i * words);
+      }
+    });
+    permute(records, size, sortKeys(keys, words, count, parallel), parallel);
+  }
+
+  /**
+   * Sort raw TinyGUIDs stored one after the other (as in GuidBatch arena) in
+   * the order of TinyGUID.compareTo
+   *
+   * @param records the raw TinyGUIDs, the first one at offset 0
+   * @param count the number of TinyGUIDs
+   *
+   * @throws InvalidArgumentRuntimeException if records is null
+   * @throws IndexOutOfBoundsException if records is too small
+   */
+  public static void sortTinyGuids(final byte[] records, final int count) {
+    sortTinyGuids(records, count, false);
+  }
+
+  /**
+   * Sort in parallel raw TinyGUIDs stored one after the other (as in
+   * GuidBatch arena) in the order of TinyGUID.compareTo
+   *
+   * @param records the raw TinyGUIDs, the first one at offset 0
+   * @param count the number of TinyGUIDs
+   *
+   * @throws InvalidArgumentRuntimeException if records is null
+   * @throws IndexOutOfBoundsException if records is too small
+   */
+  public static void parallelSortTinyGuids(final byte[] records, final int count) {
+    sortTinyGuids(records, count, true);
+  }
+
+  private static void sortTinyGuids(final byte[] records, final int count, final boolean parallel) {
+    final int words = TinyGUID.SORT_WORDS;
+    final int size = TinyGUID.KEYSIZE;
+    final long[] keys = newKeys(checkRecords(records, size, count), words);
+    forEachRange(count, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        TinyGUID.writeSortKey(records, i * size, keys, i * words);
+      }
+    });
+    permute(records, size, sortKeys(keys, words, count, parallel), parallel);
+  }
+
+  /**
+   * Sort fixed-size records by unsigned byte order, as raw ids of a time
+   * first GuidFactory layout (same order as Guid.compareTo) or raw LongUuids
+   *
+   * @param records the records, the first one at offset 0
+   * @param recordSize the size of one record
+   * @param count the number of records
+   *
+   * @throws InvalidArgumentRuntimeException if records is null or
+   *     recordSize is not positive
+   * @throws IndexOutOfBoundsException if records is too small
+   */
+  public static void sort(final byte[] records, final int recordSize, final int count) {
+    sort(records, recordSize, count, false);
+  }
+
+  /**
+   * Sort in parallel fixed-size records by unsigned byte order, as raw ids
+   * of a time first GuidFactory layout (same order as Guid.compareTo) or raw
+   * LongUuids
+   *
+   * @param records the records, the first one at offset 0
+   * @param recordSize the size of one record
+   * @param count the number of records
+   *
+   * @throws InvalidArgumentRuntimeException if records is null or
+   *     recordSize is not positive
+   * @throws IndexOutOfBoundsException if records is too small
+   */
+  public static void parallelSort(final byte[] records, final int recordSize, final int count) {
+    sort(records, recordSize, count, true);
+  }
+
+  private static void sort(final byte[] records, final int recordSize, final int count, final boolean parallel) {
+    final int words = (recordSize + Long.BYTES - 1) / Long.BYTES;
+    final long[] keys = newKeys(checkRecords(records, recordSize, count), words);
+    forEachRange(count, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        final int offset = i * recordSize;
+        for (int w = 0; w < words; w++) {
+          final int pos = w * Long.BYTES;
+          keys[i * words + w] = readWord(records, offset + pos, Math.min(Long.BYTES, recordSize - pos));
+        }
+      }
+    });
+    permute(records, recordSize, sortKeys(keys, words, count, parallel), parallel);
+  }
+
+  /**
+   * Sort LongUuid values by unsigned value (so by jvm id, timestamp then
+   * counter)
+   *
+   * @param values the values of LongUuids
+   *
+   * @throws InvalidArgumentRuntimeException if values is null
+   */
+  public static void sortLongUuids(final long[] values) {
+    sortLongUuids(values, false);
+  }
+
+  /**
+   * Sort in parallel LongUuid values by unsigned value (so by jvm id,
+   * timestamp then counter)
+   *
+   * @param values the values of LongUuids
+   *
+   * @throws InvalidArgumentRuntimeException if values is null
+   */
+  public static void parallelSortLongUuids(final long[] values) {
+    sortLongUuids(values, true);
+  }
+
+  private static void sortLongUuids(final long[] values, final boolean parallel) {
+    if (values == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    // Sorted in place as unsigned keys
+    sortKeys(values, null, 1, values.length, parallel);
+  }
+
+  private static int checkIds(final Object[] ids) {
+    if (ids == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return ids.length;
+  }
+
+  private static int checkRecords(final byte[] records, final int recordSize, final int count) {
+    if (records == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    if (recordSize <= 0) {
+      throw new InvalidArgumentRuntimeException("Record size must be positive: " + recordSize);
+    }
+    if (count < 0 || (long) count * recordSize > records.length) {
+      throw new IndexOutOfBoundsException(
+          "Cannot sort " + count + " records of " + recordSize + " bytes within " + records.length + " bytes");
+    }
+    return count;
+  }
+
+  private static long[] newKeys(final int count, final int words) {
+    if ((long) count * words > MAX_ARRAY) {
+      throw new InvalidArgumentRuntimeException("Too many ids to sort at once: " + count);
+    }
+    return new long[count * words];
+  }
+
+  /**
+   * @return the up to 8 bytes from offset as a big endian word, left aligned
+   */
+  private static long readWord(final byte[] bytes, final int offset, final int length) {
+    if (length == Long.BYTES) {
+      return (long) LONG_VIEW.get(bytes, offset);
+    }
+    long word = 0;
+    for (int i = 0; i < length; i++) {
+      word |= (bytes[offset + i] & 0xFFL) << Long.SIZE - Byte.SIZE * (i + 1);
+    }
+    return word;
+  }
+
+  /**
+   * @return the original position of each entry once sorted by key
+   */
+  private static int[] sortKeys(final long[] keys, final int words, final int count, final boolean parallel) {
+    final int[] index = new int[count];
+    forEachRange(count, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        index[i] = i;
+      }
+    });
+    sortKeys(keys, index, words, count, parallel);
+    return index;
+  }
+
+  /**
+   * Sort keys (and index along if not null) in place
+   */
+  private static void sortKeys(final long[] keys, final int[] index, final int words, final int count,
+                               final boolean parallel) {
+    final long[] keyBuffer = new long[count * words];
+    final int[] indexBuffer = index == null? null : new int[count];
+    if (parallel) {
+      msd(keys, index, keyBuffer, indexBuffer, words, 0, count);
+    } else {
+      lsd(keys, index, keyBuffer, indexBuffer, words, 0, count);
+    }
+  }
+
+  /**
+   * Parallel sort of the range: partition by the most significant varying
+   * byte, then sort each partition in parallel, the result being in keys and
+   * index
+   */
+  private static void msd(final long[] keys, final int[] index, final long[] keyBuffer, final int[] indexBuffer,
+                          final int words, final int from, final int to) {
+    if (to - from < PARALLEL_THRESHOLD) {
+      lsd(keys, index, keyBuffer, indexBuffer, words, from, to);
+      return;
+    }
+    final int chunks = chunks(to - from);
+    final long[][] chunkVarying = new long[chunks][];
+    IntStream.range(0, chunks).parallel().forEach(
+        c -> chunkVarying[c] = varying(keys, words, from, chunkStart(from, to, chunks, c),
+                                       chunkStart(from, to, chunks, c + 1)));
+    final long[] varying = new long[words];
+    for (final long[] chunk : chunkVarying) {
+      for (int w = 0; w < words; w++) {
+        varying[w] |= chunk[w];
+      }
+    }
+    var word = 0;
+    while (word < words && varying[word] == 0) {
+      word++;
+    }
+    if (word == words) {
+      // All equal
+      return;
+    }
+    final int w = word;
+    final int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(varying[w])) / Byte.SIZE * Byte.SIZE;
+    final int[][] starts = new int[chunks][RADIX];
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      final int[] count = starts[c];
+      for (int i = chunkStart(from, to, chunks, c), end = chunkStart(from, to, chunks, c + 1); i < end; i++) {
+        count[(int) (keys[i * words + w] >>> shift) & DIGIT_MASK]++;
+      }
+    });
+    final int[] buckets = new int[RADIX + 1];
+    var pos = from;
+    for (int d = 0; d < RADIX; d++) {
+      buckets[d] = pos;
+      for (int c = 0; c < chunks; c++) {
+        final int count = starts[c][d];
+        starts[c][d] = pos;
+        pos += count;
+      }
+    }
+    buckets[RADIX] = to;
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      final int[] next = starts[c];
+      for (int i = chunkStart(from, to, chunks, c), end = chunkStart(from, to, chunks, c + 1); i < end; i++) {
+        move(keys, index, i, keyBuffer, indexBuffer, next[(int) (keys[i * words + w] >>> shift) & DIGIT_MASK]++,
+             words);
+      }
+    });
+    IntStream.range(0, chunks).parallel().forEach(c -> {
+      final int start = chunkStart(from, to, chunks, c);
+      final int end = chunkStart(from, to, chunks, c + 1);
+      System.arraycopy(keyBuffer, start * words, keys, start * words, (end - start) * words);
+      if (index != null) {
+        System.arraycopy(indexBuffer, start, index, start, end - start);
+      }
+    });
+    IntStream.range(0, RADIX).parallel().forEach(
+        d -> msd(keys, index, keyBuffer, indexBuffer, words, buckets[d], buckets[d + 1]));
+  }
+
+  /**
+   * Sequential LSD sort of the range, skipping the bytes equal for all
+   * entries, the result being in keys and index
+   */
+  private static void lsd(final long[] keys, final int[] index, final long[] keyBuffer, final int[] indexBuffer,
+                          final int words, final int from, final int to) {
+    if (to - from < 2) {
+      return;
+    }
+    final long[] varying = varying(keys, words, from, from, to);
+    final int[] next = new int[RADIX];
+    long[] srcKeys = keys;
+    int[] srcIndex = index;
+    long[] dstKeys = keyBuffer;
+    int[] dstIndex = indexBuffer;
+    for (int w = words - 1; w >= 0; w--) {
+      for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+        if ((varying[w] >>> shift & DIGIT_MASK) == 0) {
+          continue;
+        }
+        Arrays.fill(next, 0);
+        for (int i = from; i < to; i++) {
+          next[(int) (srcKeys[i * words + w] >>> shift) & DIGIT_MASK]++;
+        }
+        var pos = from;
+        for (int d = 0; d < RADIX; d++) {
+          final int count = next[d];
+          next[d] = pos;
+          pos += count;
+        }
+        for (int i = from; i < to; i++) {
+          move(srcKeys, srcIndex, i, dstKeys, dstIndex, next[(int) (srcKeys[i * words + w] >>> shift) & DIGIT_MASK]++,
+               words);
+        }
+        final long[] keySwap = srcKeys;
+        srcKeys = dstKeys;
+        dstKeys = keySwap;
+        final int[] indexSwap = srcIndex;
+        srcIndex = dstIndex;
+        dstIndex = indexSwap;
+      }
+    }
+    if (srcKeys != keys) {
+      System.arraycopy(srcKeys, from * words, keys, from * words, (to - from) * words);
+      if (index != null) {
+        System.arraycopy(srcIndex, from, index, from, to - from);
+      }
+    }
+  }
+
+  /**
+   * @return per word, the bits differing from the entry at first within
+   *     [from, to)
+   */
+  private static long[] varying(final long[] keys, final int words, final int first, final int from,
+                                final int to) {
+    final long[] varying = new long[words];
+    for (int w = 0; w < words; w++) {
+      final long reference = keys[first * words + w];
+      var bits = 0L;
+      for (int i = from; i < to; i++) {
+        bits |= keys[i * words + w] ^ reference;
+      }
+      varying[w] = bits;
+    }
+    return varying;
+  }
+
+  private static void move(final long[] srcKeys, final int[] srcIndex, final int src, final long[] dstKeys,
+                           final int[] dstIndex, final int dst, final int words) {
+    for (int w = 0; w < words; w++) {
+      dstKeys[dst * words + w] = srcKeys[src * words + w];
+    }
+    if (srcIndex != null) {
+      dstIndex[dst] = srcIndex[src];
+    }
+  }
+
+  private static <T> void permute(final T[] ids, final int[] index, final boolean parallel) {
+    final T[] copy = ids.clone();
+    forEachRange(ids.length, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        ids[i] = copy[index[i]];
+      }
+    });
+  }
+
+  private static void permute(final byte[] records, final int recordSize, final int[] index,
+                               final boolean parallel) {
+    final byte[] copy = Arrays.copyOf(records, index.length * recordSize);
+    forEachRange(index.length, parallel, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        System.arraycopy(copy, index[i] * recordSize, records, i * recordSize, recordSize);
+      }
+    });
+  }
+
+  /**
+   * Run the task on chunks of [0, size), in parallel if asked and size is big
+   * enough
+   */
+  private static void forEachRange(final int size, final boolean parallel, final RangeTask task) {
+    if (!parallel || size < PARALLEL_THRESHOLD) {
+      task.run(0, size);
+      return;
+    }
+    final int chunks = chunks(size);
+    IntStream.range(0, chunks).parallel()
+             .forEach(c -> task.run(chunkStart(0, size, chunks, c), chunkStart(0, size, chunks, c + 1)));
+  }
+
+  private static int chunks(final int size) {
+    return Math.max(1, Math.min(size / MIN_CHUNK, ForkJoinPool.getCommonPoolParallelism() * 4));
+  }
+
+  private static int chunkStart(final int from, final int to, final int chunks, final int chunk) {
+    return from + (int) ((long) (to - from) * chunk / chunks);
+  }
+}
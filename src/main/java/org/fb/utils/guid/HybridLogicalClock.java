@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hybrid logical clock used by the monotonic mode of UUID generation.<br>
+ * <br>
+ * Timestamp and counter are packed in one long (timestamp in milliseconds
+ * since 1970 in the high bits, as an unsigned value, counter in the low bits),
+ * so that any TimeSource, in the past or in the future, is followed as is.
+ * When the counter is exhausted within one millisecond, the increment carries
+ * into the timestamp, so the clock borrows the next logical millisecond
+ * instead of wrapping the counter. The clock catches up with wall time as soon
+ * as wall time passes the logical time.<br>
+ * <br>
+ * Generated (timestamp, counter) pairs are strictly increasing, so unique,
+ * without lock nor sleep, whatever the given wall time (it may go backward
+ * or come from any TimeSource, even changed on the fly).
+ */
+final class HybridLogicalClock {
+  /**
+   * Max counter bits, keeping 42 bits for the timestamp (up to year 2109)
+   */
+  static final int MAX_COUNTER_BITS = 22;
+  private final AtomicLong state = new AtomicLong();
+  private final AtomicLong maxLead = new AtomicLong();
+  private final int counterBits;
+  private final long counterMask;
+
+  /**
+   * @param counterBits the number of bits of the counter (up to
+   *     MAX_COUNTER_BITS)
+   */
+  HybridLogicalClock(final int counterBits) {
+    this.counterBits = Math.min(counterBits, MAX_COUNTER_BITS);
+    counterMask = (1L << this.counterBits) - 1;
+  }
+
+  /**
+   * @param now the current wall time in milliseconds
+   *
+   * @return the next packed timestamp and counter, to be read through
+   *     getTime and getCounter
+   */
+  long next(final long now) {
+    return reserve(1, now);
+  }
+
+  /**
+   * @param size the number of consecutive values to reserve
+   * @param now the current wall time in milliseconds
+   *
+   * @return the first of size consecutive packed timestamp and counter (next
+   *     ones being first + 1, first + 2...), to be read through getTime and
+   *     getCounter
+   */
+  long reserve(final int size, final long now) {
+    var current = state.get();
+    while (current >>> counterBits < now) {
+      final long first = now << counterBits;
+      if (state.compareAndSet(current, first + size - 1)) {
+        return first;
+      }
+      current = state.get();
+    }
+    final long last = state.addAndGet(size);
+    // Positive lead if counter got exhausted (next logical milliseconds borrowed)
+    final long lead = (last >>> counterBits) - now;
+    if (lead > 0 && lead > maxLead.get()) {
+      maxLead.accumulateAndGet(lead, Math::max);
+    }
+    return last - size + 1;
+  }
+
+  /**
+   * @param packed value returned by next() or reserve()
+   *
+   * @return the associated timestamp in milliseconds
+   */
+  long getTime(final long packed) {
+    return packed >>> counterBits;
+  }
+
+  /**
+   * @param packed value returned by next() or reserve()
+   *
+   * @return the associated counter
+   */
+  int getCounter(final long packed) {
+    return (int) (packed & counterMask);
+  }
+
+  /**
+   * @param wallTime the current wall time in milliseconds
+   *
+   * @return how far (in milliseconds) the logical clock currently runs ahead
+   *     of wall time (0 if not ahead)
+   */
+  long getLead(final long wallTime) {
+    final long lead = (state.get() >>> counterBits) - wallTime;
+    return Math.max(lead, 0);
+  }
+
+  /**
+   * @return the max lead (in milliseconds) of the logical clock over wall
+   *     time observed since its creation
+   */
+  long getMaxLead() {
+    return maxLead.get();
+  }
+
+  /**
+   * Move this clock to at least the last value given by other, so that the
+   * values given by other are never given again by this clock
+   *
+   * @param other a clock with the same number of counter bits
+   */
+  void advanceTo(final HybridLogicalClock other) {
+    final long last = other.state.get();
+    state.accumulateAndGet(last, (current, value) -> Long.compareUnsigned(current, value) >= 0? current : value);
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+
+/**
+ * Extraction of one field (as the Timestamp or the Tenant) of an id of fixed
+ * layout with a one byte raw header (GUID, TinyGUID), straight from its
+ * Base16, Base32, Base64 or ARK form.<br>
+ * <br>
+ * Only the chars covering the field and the version are decoded, into a per
+ * thread scratch, without building the id nor any array.
+ */
+final class IdFields {
+  private static final int VERSION_POS = 0;
+  private static final int VERSION_SIZE = 1;
+  private static final int BYTE_MASK = 0xFF;
+  private final String kind;
+  private final int keySize;
+  private final int version;
+  private final int tenantPos;
+  private final ArkCodec ark;
+
+  /**
+   * @param kind the kind of id for the messages
+   * @param keySize size of the raw id
+   * @param version expected version
+   * @param tenantPos position of the Tenant
+   * @param ark the ARK codec of this kind of id
+   */
+  IdFields(final String kind, final int keySize, final int version, final int tenantPos, final ArkCodec ark) {
+    this.kind = kind;
+    this.keySize = keySize;
+    this.version = version;
+    this.tenantPos = tenantPos;
+    this.ark = ark;
+  }
+
+  /**
+   * @param id the CharSequence containing the id in any of its forms
+   * @param begin start index in id (included)
+   * @param finish end index in id (excluded)
+   * @param pos position of the field in the raw id
+   * @param size size of the field
+   *
+   * @return the field as an unsigned big endian value
+   *
+   * @throws InvalidArgumentRuntimeException if the range is not a valid form
+   *     of this kind of id
+   * @throws IndexOutOfBoundsException if begin or finish are out of id
+   */
+  long decode(final CharSequence id, final int begin, final int finish, final int pos, final int size) {
+    IdParser.checkRange(id, begin, finish);
+    final int start = IdParser.trimStart(id, begin, finish);
+    final int end = IdParser.trimEnd(id, start, finish);
+    final byte[] field = IdParser.fieldScratch();
+    final int status;
+    if (IdParser.isArk(id, start, end)) {
+      status = decodeArk(id, start, end, pos, size, field)? IdParser.VALID : IdParser.MALFORMED_ARK;
+    } else {
+      status = IdParser.decodeField(id, start, end, 0, 0, keySize, VERSION_POS, VERSION_SIZE, field, Long.BYTES) &&
+               (field[Long.BYTES] & BYTE_MASK) == version &&
+               IdParser.decodeField(id, start, end, 0, 0, keySize, pos, size, field, 0)? IdParser.VALID :
+          IdParser.MALFORMED;
+    }
+    if (status != IdParser.VALID) {
+      throw IdParser.malformed(status, kind, id, begin, finish);
+    }
+    return IdParser.toLong(field, 0, size);
+  }
+
+  /**
+   * Decode the field from the ARK form into field, the Tenant being parsed
+   * from its decimal form and the version from the Ark name
+   *
+   * @return True if decoded
+   */
+  private boolean decodeArk(final CharSequence id, final int start, final int end, final int pos, final int size,
+                            final byte[] field) {
+    final int name = ark.parseName(id, start, end, field, 0);
+    return name >= 0 && ark.decodeNameField(id, name, VERSION_POS, VERSION_SIZE, field, Long.BYTES) &&
+           (field[Long.BYTES] & BYTE_MASK) == version &&
+           (pos == tenantPos || ark.decodeNameField(id, name, pos, size, field, 0));
+  }
+}
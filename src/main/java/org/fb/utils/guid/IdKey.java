@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+/**
+ * An id of fixed size seen as a key of long words, stored inline in an
+ * IdTable (GuidHashSet, GuidHashMap). The first word is never 0, holding the
+ * version.
+ *
+ * @param <T> the type of id
+ */
+interface IdKey<T> {
+  /**
+   * @return the number of words of the key
+   */
+  int words();
+
+  /**
+   * @param id the id
+   * @param key the destination of the words of the key
+   */
+  void write(T id, long[] key);
+
+  /**
+   * @param bytes array containing the raw id
+   * @param offset offset of the id in the array
+   * @param key the destination of the words of the key
+   *
+   * @throws org.fb.utils.exceptions.InvalidArgumentRuntimeException if the
+   *     version is incorrect
+   * @throws IndexOutOfBoundsException if the id is out of bytes
+   */
+  void read(byte[] bytes, int offset, long[] key);
+
+  /**
+   * @param keys array of keys
+   * @param off offset of the key in keys
+   *
+   * @return the id of the key
+   */
+  T create(long[] keys, int off);
+}
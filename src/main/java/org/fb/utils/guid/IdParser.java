@@ -0,0 +1,187 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.BaseCodec;
+
+import static org.fb.utils.guid.GuidFactory.*;
+
+/**
+ * Helpers to parse ids from a range of a CharSequence, without any
+ * intermediate String nor array, and without any exception: parsing steps
+ * give a status, only turned into an exception by the throwing entry points
+ */
+final class IdParser {
+  static final int VALID = 0;
+  static final int MALFORMED = 1;
+  static final int MALFORMED_ARK = 2;
+  private static final char SPACE = ' ';
+  /**
+   * Per thread scratch for fields decoded without the full id
+   */
+  private static final ThreadLocal<byte[]> FIELD = ThreadLocal.withInitial(() -> new byte[Long.BYTES * 2]);
+
+  private IdParser() {
+    // empty
+  }
+
+  /**
+   * @return the first index from start not being a white space (as for
+   *     String.trim())
+   */
+  static int trimStart(final CharSequence id, final int start, final int end) {
+    var pos = start;
+    while (pos < end && id.charAt(pos) <= SPACE) {
+      pos++;
+    }
+    return pos;
+  }
+
+  /**
+   * @return the index after the last char before end not being a white space
+   *     (as for String.trim())
+   */
+  static int trimEnd(final CharSequence id, final int start, final int end) {
+    var pos = end;
+    while (pos > start && id.charAt(pos - 1) <= SPACE) {
+      pos--;
+    }
+    return pos;
+  }
+
+  /**
+   * @return True if the range starts with the ARK prefix
+   */
+  static boolean isArk(final CharSequence id, final int start, final int end) {
+    if (end - start < ARK.length()) {
+      return false;
+    }
+    for (var i = 0; i < ARK.length(); i++) {
+      if (id.charAt(start + i) != ARK.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Decode the range into dst, only if its decoded length is exactly size
+   *
+   * @return True if decoded
+   */
+  static boolean decode(final BaseCodec codec, final CharSequence id, final int start, final int end,
+                        final byte[] dst, final int offset, final int size) {
+    return codec.decodedLength(end - start) == size && codec.decode(id, start, end, dst, offset) >= 0;
+  }
+
+  /**
+   * Decode only the bytes [pos, pos + size) of an id from the trimmed range
+   * holding its Base16, Base32 or Base64 form (found by its length), reading
+   * only the chars covering them
+   *
+   * @param skip number of chars before the encoded bytes (encoded header)
+   * @param first position in the id of the first encoded byte
+   * @param keySize size of the id
+   *
+   * @return True if decoded
+   */
+  static boolean decodeField(final CharSequence id, final int start, final int end, final int skip, final int first,
+                             final int keySize, final int pos, final int size, final byte[] dst, final int offset) {
+    final BaseCodec codec = codecOf(end - start - skip, keySize - first);
+    return codec != null && codec.decode(id, start + skip, end, pos - first, size, dst, offset) >= 0;
+  }
+
+  /**
+   * @return the codec (BASE16, BASE32 or BASE64) for which size bytes are
+   *     encoded as length chars, or null
+   */
+  static BaseCodec codecOf(final int length, final int size) {
+    if (length == BaseCodec.BASE16.encodedLength(size)) {
+      return BaseCodec.BASE16;
+    } else if (length == BaseCodec.BASE32.encodedLength(size)) {
+      return BaseCodec.BASE32;
+    } else if (length == BaseCodec.BASE64.encodedLength(size)) {
+      return BaseCodec.BASE64;
+    }
+    return null;
+  }
+
+  /**
+   * @return a per thread array of 16 bytes for decoded fields
+   */
+  static byte[] fieldScratch() {
+    return FIELD.get();
+  }
+
+  /**
+   * @return the size bytes from offset as an unsigned big endian value
+   */
+  static long toLong(final byte[] src, final int offset, final int size) {
+    long value = 0;
+    for (var i = offset; i < offset + size; i++) {
+      value <<= BYTE_SIZE;
+      value |= src[i] & BYTE_MASK;
+    }
+    return value;
+  }
+
+  /**
+   * @throws InvalidArgumentRuntimeException if id is null
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  static void checkRange(final CharSequence id, final int start, final int end) {
+    if (id == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    if (start < 0 || end > id.length() || start > end) {
+      throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of " + id.length());
+    }
+  }
+
+  /**
+   * @return True if id is not null and start and end are within id
+   */
+  static boolean isRange(final CharSequence id, final int start, final int end) {
+    return id != null && start >= 0 && end <= id.length() && start <= end;
+  }
+
+  /**
+   * @param status the status of the parsing (not VALID)
+   * @param kind the kind of id for the message
+   *
+   * @return the exception associated with this parsing status
+   */
+  static InvalidArgumentRuntimeException malformed(final int status, final String kind, final CharSequence id,
+                                                   final int begin, final int finish) {
+    final int start = trimStart(id, begin, finish);
+    final int end = trimEnd(id, start, finish);
+    if (status == MALFORMED_ARK) {
+      return new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + toString(id, start, end));
+    }
+    return new InvalidArgumentRuntimeException(
+        "Attempted to parse malformed " + kind + ": (" + (end - start) + ") " + toString(id, start, end));
+  }
+
+  /**
+   * @return the range as a String, only for error messages
+   */
+  static String toString(final CharSequence id, final int start, final int end) {
+    return id.subSequence(start, end).toString();
+  }
+}
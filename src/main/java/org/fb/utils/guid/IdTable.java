@@ -0,0 +1,280 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing table with linear probing of keys of a fixed number of long
+ * words, stored inline in one long[] (slot i at i * words), with optional
+ * values along in one Object[].<br>
+ * <br>
+ * A slot is free when the first word of its key is 0. A key whose first word
+ * is 0 (only possible for single word keys, others starting with a version)
+ * is kept in the extra slot at capacity. Removal shifts back the following
+ * keys, so that there is no tombstone. Slots are spread by the same mixing as
+ * the hashCode of ids.<br>
+ * <br>
+ * Not thread safe. The key to find, add or remove is written first in key().
+ */
+final class IdTable {
+  private static final int MIN_CAPACITY = 16;
+  private static final int MAX_CAPACITY = 1 << 29;
+  private final int words;
+  private final boolean withValues;
+  private final long[] key;
+  private long[] keys;
+  private Object[] values;
+  private int capacity;
+  private int mask;
+  private int threshold;
+  private int size;
+  private boolean hasZero;
+
+  /**
+   * @param words number of long words of a key
+   * @param expectedSize the number of keys expected (to avoid resizing)
+   * @param withValues True to store values along keys
+   */
+  IdTable(final int words, final int expectedSize, final boolean withValues) {
+    if (expectedSize < 0) {
+      throw new InvalidArgumentRuntimeException("Expected size must not be negative: " + expectedSize);
+    }
+    this.words = words;
+    this.withValues = withValues;
+    key = new long[words];
+    // Load factor of 2/3
+    var initial = MIN_CAPACITY;
+    while (initial < MAX_CAPACITY && (long) initial * 2 / 3 < expectedSize) {
+      initial <<= 1;
+    }
+    allocate(initial);
+  }
+
+  private void allocate(final int newCapacity) {
+    capacity = newCapacity;
+    mask = newCapacity - 1;
+    threshold = (int) ((long) newCapacity * 2 / 3);
+    // One more slot for the key starting with 0
+    keys = new long[(newCapacity + 1) * words];
+    values = withValues? new Object[newCapacity + 1] : null;
+  }
+
+  /**
+   * @return the array to write the key to find, add or remove
+   */
+  long[] key() {
+    return key;
+  }
+
+  /**
+   * @return the number of keys
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the number of slots (so excluded bound of slots, out of the extra
+   *     slot)
+   */
+  int capacity() {
+    return capacity;
+  }
+
+  /**
+   * @return the array of keys, key of slot i at i * words
+   */
+  long[] keys() {
+    return keys;
+  }
+
+  /**
+   * @return True if the slot (up to capacity included) holds a key
+   */
+  boolean isUsed(final int slot) {
+    return slot == capacity? hasZero : keys[slot * words] != 0;
+  }
+
+  /**
+   * @return the value of the slot
+   */
+  Object value(final int slot) {
+    return values[slot];
+  }
+
+  /**
+   * @return the previous value of the slot
+   */
+  Object setValue(final int slot, final Object value) {
+    final Object previous = values[slot];
+    values[slot] = value;
+    return previous;
+  }
+
+  /**
+   * @return the slot of key(), or -1 if absent
+   */
+  int find() {
+    if (key[0] == 0) {
+      return hasZero? capacity : -1;
+    }
+    var slot = hash(key, 0) & mask;
+    while (keys[slot * words] != 0) {
+      if (matches(slot)) {
+        return slot;
+      }
+      slot = slot + 1 & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Add key() if absent
+   *
+   * @return the slot of key() if already present, else the complement (~) of
+   *     the slot where it is added
+   */
+  int add() {
+    if (key[0] == 0) {
+      if (hasZero) {
+        return capacity;
+      }
+      hasZero = true;
+      size++;
+      return ~capacity;
+    }
+    var slot = hash(key, 0) & mask;
+    while (keys[slot * words] != 0) {
+      if (matches(slot)) {
+        return slot;
+      }
+      slot = slot + 1 & mask;
+    }
+    if (size >= threshold) {
+      resize();
+      slot = hash(key, 0) & mask;
+      while (keys[slot * words] != 0) {
+        slot = slot + 1 & mask;
+      }
+    }
+    System.arraycopy(key, 0, keys, slot * words, words);
+    size++;
+    return ~slot;
+  }
+
+  /**
+   * Remove key() if present
+   *
+   * @return the value of the removed key (null if none or without values)
+   */
+  Object remove() {
+    final int slot = find();
+    if (slot < 0) {
+      return null;
+    }
+    size--;
+    final Object value = withValues? values[slot] : null;
+    if (slot == capacity) {
+      hasZero = false;
+      if (withValues) {
+        values[slot] = null;
+      }
+      return value;
+    }
+    // Shift back the following keys which may not stay after the gap
+    var gap = slot;
+    var next = gap + 1 & mask;
+    while (keys[next * words] != 0) {
+      final int ideal = hash(keys, next * words) & mask;
+      if ((next - ideal & mask) >= (next - gap & mask)) {
+        System.arraycopy(keys, next * words, keys, gap * words, words);
+        if (withValues) {
+          values[gap] = values[next];
+        }
+        gap = next;
+      }
+      next = next + 1 & mask;
+    }
+    Arrays.fill(keys, gap * words, (gap + 1) * words, 0);
+    if (withValues) {
+      values[gap] = null;
+    }
+    return value;
+  }
+
+  /**
+   * Remove all keys, keeping the capacity
+   */
+  void clear() {
+    Arrays.fill(keys, 0);
+    if (withValues) {
+      Arrays.fill(values, null);
+    }
+    size = 0;
+    hasZero = false;
+  }
+
+  private boolean matches(final int slot) {
+    final int off = slot * words;
+    for (var i = 0; i < words; i++) {
+      if (keys[off + i] != key[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int hash(final long[] array, final int off) {
+    switch (words) {
+      case 1:
+        return GuidFactory.mixHash(array[off]);
+      case 2:
+        return GuidFactory.mixHash(array[off], array[off + 1]);
+      default:
+        return GuidFactory.mixHash(array[off], array[off + 1], array[off + 2]);
+    }
+  }
+
+  private void resize() {
+    if (capacity == MAX_CAPACITY) {
+      throw new InvalidArgumentRuntimeException("Too many ids: " + size);
+    }
+    final long[] oldKeys = keys;
+    final Object[] oldValues = values;
+    final int oldCapacity = capacity;
+    allocate(capacity << 1);
+    for (var i = 0; i < oldCapacity; i++) {
+      if (oldKeys[i * words] != 0) {
+        var slot = hash(oldKeys, i * words) & mask;
+        while (keys[slot * words] != 0) {
+          slot = slot + 1 & mask;
+        }
+        System.arraycopy(oldKeys, i * words, keys, slot * words, words);
+        if (withValues) {
+          values[slot] = oldValues[i];
+        }
+      }
+    }
+    // Extra slot of the key starting with 0
+    if (withValues) {
+      values[capacity] = oldValues[oldCapacity];
+    }
+  }
+}
@@ -16,11 +16,15 @@
 package org.fb.utils.guid;
 
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.AsciiSequence;
+import org.fb.utils.various.BaseCodec;
 import org.fb.utils.various.BaseXx;
 import org.fb.utils.various.RandomUtil;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * UUID Generator (also Global UUID Generator) but limited to 1 Integer (32
@@ -38,7 +42,8 @@ public final class IntegerUuid {
   /**
    * Counter part
    */
-  private static final AtomicInteger COUNTER = new AtomicInteger(RandomUtil.RANDOM.nextInt());
+  private static final UuidCounter COUNTER =
+      new UuidCounter(Integer.MIN_VALUE, Integer.MAX_VALUE, RandomUtil.RANDOM.nextInt());
   /**
    * Byte size of UUID
    */
@@ -48,6 +53,10 @@ public final class IntegerUuid {
    * real UUID
    */
   private final byte[] uuid = { 0, 0, 0, 0 };
+  /**
+   * Hash, computed once from the UUID
+   */
+  private int hash;
 
   /**
    * Constructor that generates a new UUID using the current process id, MAC
@@ -55,19 +64,12 @@ public final class IntegerUuid {
    */
   public IntegerUuid() {
     // atomically
-    var count = getCounter();
+    var count = COUNTER.next();
     uuid[0] = (byte) (count >> 24);
     uuid[1] = (byte) (count >> 16);
     uuid[2] = (byte) (count >> 8);
     uuid[3] = (byte) count;
-  }
-
-  private static synchronized int getCounter() {
-    if (COUNTER.compareAndSet(Integer.MAX_VALUE, Integer.MIN_VALUE)) {
-      return Integer.MAX_VALUE;
-    } else {
-      return COUNTER.getAndIncrement();
-    }
+    hash = GuidFactory.mixHash(count);
   }
 
   /**
@@ -81,6 +83,7 @@ public final class IntegerUuid {
           "Attempted to parse malformed UUID: " + Arrays.toString(bytes));
     }
     System.arraycopy(bytes, 0, uuid, 0, UUIDSIZE);
+    hash = GuidFactory.mixHash(getInt());
   }
 
   public IntegerUuid(final int value) {
@@ -88,15 +91,113 @@ public final class IntegerUuid {
     uuid[1] = (byte) (value >> 16);
     uuid[2] = (byte) (value >> 8);
     uuid[3] = (byte) value;
+    hash = GuidFactory.mixHash(value);
   }
 
   public IntegerUuid(final String idsource) {
-    final String id = idsource.trim();
+    this(idsource, 0, idsource.length());
+  }
+
+  /**
+   * Build from a range of a CharSequence, decoding directly into this UUID
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   */
+  private IntegerUuid(final CharSequence idsource, final int start, final int end) {
+    if (!decode(idsource, start, end)) {
+      throw IdParser.malformed(IdParser.MALFORMED, "UUID", idsource, start, end);
+    }
+  }
+
+  /**
+   * Decode the range directly into this UUID, without any exception
+   *
+   * @return True if valid
+   */
+  private boolean decode(final CharSequence idsource, final int begin, final int finish) {
+    final int start = IdParser.trimStart(idsource, begin, finish);
+    final int end = IdParser.trimEnd(idsource, start, finish);
+    if (end - start != UUIDSIZE * 2 || !IdParser.decode(BaseCodec.BASE16, idsource, start, end, uuid, 0, UUIDSIZE)) {
+      return false;
+    }
+    hash = GuidFactory.mixHash(getInt());
+    return true;
+  }
+
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the UUID, parsed without any intermediate String nor array
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static IntegerUuid parse(final CharSequence id, final int start, final int end) {
+    IdParser.checkRange(id, start, end);
+    return new IntegerUuid(id, start, end);
+  }
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the UUID, or null if id is null, the range is out of id or not a
+   *     valid UUID (no exception being created)
+   */
+  public static IntegerUuid tryParse(final CharSequence id, final int start, final int end) {
+    if (!IdParser.isRange(id, start, end)) {
+      return null;
+    }
+    final IntegerUuid uuid = new IntegerUuid(0);
+    return uuid.decode(id, start, end)? uuid : null;
+  }
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   *
+   * @return the UUID, or null if id is null or not a valid UUID (no exception
+   *     being created)
+   */
+  public static IntegerUuid tryParse(final CharSequence id) {
+    return id == null? null : tryParse(id, 0, id.length());
+  }
+
+
+  /**
+   * @param ascii the ASCII bytes of the UUID as hexadecimal
+   * @param offset offset in ascii
+   * @param length number of bytes
+   *
+   * @return the UUID, parsed from the raw bytes without any charset decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  public static IntegerUuid parseAscii(final byte[] ascii, final int offset, final int length) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii, offset, length), 0, length);
+  }
 
-    if (id.length() != UUIDSIZE * 2) {
-      throw new InvalidArgumentRuntimeException("Attempted to parse malformed UUID: " + id);
+  /**
+   * @param ascii the buffer containing the ASCII bytes of the UUID as
+   *     hexadecimal, between its position and its limit (neither being
+   *     changed)
+   *
+   * @return the UUID, parsed from the raw bytes without any charset decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   */
+  public static IntegerUuid parseAscii(final ByteBuffer ascii) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
     }
-    System.arraycopy(BaseXx.getFromBase16(id), 0, uuid, 0, UUIDSIZE);
+    return parse(AsciiSequence.of(ascii), 0, ascii.remaining());
   }
 
   @Override
@@ -113,6 +214,51 @@ public final class IntegerUuid {
     return Arrays.copyOf(uuid, UUIDSIZE);
   }
 
+  /**
+   * Write the raw bytes of this UUID, without any copy
+   *
+   * @param dst the destination array
+   * @param off the offset in dst
+   *
+   * @return the offset just after the written UUID
+   *
+   * @throws IndexOutOfBoundsException if dst is too small
+   */
+  public int writeTo(final byte[] dst, final int off) {
+    System.arraycopy(uuid, 0, dst, off, UUIDSIZE);
+    return off + UUIDSIZE;
+  }
+
+  /**
+   * Write the raw bytes of this UUID at the position of the buffer (moved
+   * forward), without any copy
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public ByteBuffer writeTo(final ByteBuffer buffer) {
+    return buffer.put(uuid);
+  }
+
+  /**
+   * Generate a new UUID directly into the buffer (at its position, moved
+   * forward, in big endian whatever the buffer order), without creating any
+   * object
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public static ByteBuffer generateInto(final ByteBuffer buffer) {
+    final int value = COUNTER.next();
+    return buffer.putInt(buffer.order() == ByteOrder.BIG_ENDIAN? value : Integer.reverseBytes(value));
+  }
+
   /**
    * extract timestamp from raw UUID bytes and return as int
    *
@@ -137,7 +283,7 @@ public final class IntegerUuid {
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(uuid);
+    return hash;
   }
 
   /**
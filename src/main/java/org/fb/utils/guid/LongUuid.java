@@ -16,10 +16,14 @@
 package org.fb.utils.guid;
 
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.AsciiSequence;
+import org.fb.utils.various.BaseCodec;
 import org.fb.utils.various.BaseXx;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * UUID Generator (also Global UUID Generator) but limited to 1 Long (64 bits)
@@ -49,7 +53,14 @@ public final class LongUuid {
   /**
    * Counter part
    */
-  private static final AtomicInteger COUNTER = new AtomicInteger(MIN_COUNTER);
+  private static final UuidCounter COUNTER = new UuidCounter(MIN_COUNTER, MAX_COUNTER);
+  /**
+   * Clock and counter used in monotonic mode, kept whatever the TimeSource so
+   * that it never goes back
+   */
+  private static final HybridLogicalClock CLOCK = new HybridLogicalClock(SIZE_COUNTER);
+  private static volatile boolean monotonic;
+  private static volatile TimeSource timeSource = TimeSource.SYSTEM;
   /**
    * Byte size of UUID
    */
@@ -60,6 +71,10 @@ public final class LongUuid {
    * real UUID
    */
   private final byte[] uuid = { 0, 0, 0, 0, 0, 0, 0, 0 };
+  /**
+   * Hash, computed once from the UUID
+   */
+  private int hash;
 
   /**
    * Constructor that generates a new UUID using the current process id and
@@ -78,12 +93,21 @@ public final class LongUuid {
     uuid[5] = (byte) (value >> 16);
     uuid[6] = (byte) (value >> 8);
     uuid[7] = (byte) value;
+    hash = GuidFactory.mixHash(value);
   }
 
   public static long getLongUuid() {
-    var time = System.currentTimeMillis();
-    // atomically
-    var count = getCounter();
+    final long time;
+    final int count;
+    if (monotonic) {
+      final long state = CLOCK.next(timeSource.currentTimeMillis());
+      time = CLOCK.getTime(state);
+      count = CLOCK.getCounter(state);
+    } else {
+      time = timeSource.currentTimeMillis();
+      // atomically
+      count = getCounter();
+    }
     // Jvmd Id on 4 first bits
     // Timestamp on 40 bits (2^40 ms = 35 years rolling)
     // Count on 20 bits => 2^20 (1M / ms)
@@ -93,12 +117,55 @@ public final class LongUuid {
     return uuidAsLong;
   }
 
-  static synchronized int getCounter() {
-    if (COUNTER.compareAndSet(MAX_COUNTER, MIN_COUNTER)) {
-      return MAX_COUNTER;
-    } else {
-      return COUNTER.getAndIncrement();
+  static int getCounter() {
+    return COUNTER.next();
+  }
+
+  /**
+   * @param monotonic if True, when the counter is exhausted within one
+   *     millisecond, the next logical millisecond is used instead of wrapping
+   *     the counter, so that no duplicate can occur (default being False)
+   */
+  public static void setMonotonic(final boolean monotonic) {
+    LongUuid.monotonic = monotonic;
+  }
+
+  public static boolean isMonotonic() {
+    return monotonic;
+  }
+
+  /**
+   * @param timeSource the source of timestamps (default being
+   *     TimeSource.SYSTEM), the monotonic mode clock going on from its last
+   *     value (never back, even for a TimeSource in the past)
+   *
+   * @throws InvalidArgumentRuntimeException if timeSource is null
+   */
+  public static void setTimeSource(final TimeSource timeSource) {
+    if (timeSource == null) {
+      throw new InvalidArgumentRuntimeException("TimeSource cannot be null");
     }
+    LongUuid.timeSource = timeSource;
+  }
+
+  public static TimeSource getTimeSource() {
+    return timeSource;
+  }
+
+  /**
+   * @return how far (in milliseconds) the monotonic mode clock currently runs
+   *     ahead of wall time
+   */
+  public static long getClockLead() {
+    return CLOCK.getLead(timeSource.currentTimeMillis());
+  }
+
+  /**
+   * @return the max lead (in milliseconds) of the monotonic mode clock over
+   *     wall time
+   */
+  public static long getClockMaxLead() {
+    return CLOCK.getMaxLead();
   }
 
   /**
@@ -112,15 +179,148 @@ public final class LongUuid {
           "Attempted to parse malformed UUID: " + Arrays.toString(bytes));
     }
     System.arraycopy(bytes, 0, uuid, 0, UUIDSIZE);
+    hash = GuidFactory.mixHash(getLong());
   }
 
   public LongUuid(final String idsource) {
-    var id = idsource.trim();
+    this(idsource, 0, idsource.length());
+  }
+
+  /**
+   * Build from a range of a CharSequence, decoding directly into this UUID
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   */
+  private LongUuid(final CharSequence idsource, final int start, final int end) {
+    if (!decode(idsource, start, end)) {
+      throw IdParser.malformed(IdParser.MALFORMED, "UUID", idsource, start, end);
+    }
+  }
+
+  /**
+   * Decode the range directly into this UUID, without any exception
+   *
+   * @return True if valid
+   */
+  private boolean decode(final CharSequence idsource, final int begin, final int finish) {
+    final int start = IdParser.trimStart(idsource, begin, finish);
+    final int end = IdParser.trimEnd(idsource, start, finish);
+    if (end - start != UUIDSIZE * 2 || !IdParser.decode(BaseCodec.BASE16, idsource, start, end, uuid, 0, UUIDSIZE)) {
+      return false;
+    }
+    hash = GuidFactory.mixHash(getLong());
+    return true;
+  }
+
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the UUID, parsed without any intermediate String nor array
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static LongUuid parse(final CharSequence id, final int start, final int end) {
+    IdParser.checkRange(id, start, end);
+    return new LongUuid(id, start, end);
+  }
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the UUID, or null if id is null, the range is out of id or not a
+   *     valid UUID (no exception being created)
+   */
+  public static LongUuid tryParse(final CharSequence id, final int start, final int end) {
+    if (!IdParser.isRange(id, start, end)) {
+      return null;
+    }
+    final LongUuid uuid = new LongUuid(0L);
+    return uuid.decode(id, start, end)? uuid : null;
+  }
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   *
+   * @return the UUID, or null if id is null or not a valid UUID (no exception
+   *     being created)
+   */
+  public static LongUuid tryParse(final CharSequence id) {
+    return id == null? null : tryParse(id, 0, id.length());
+  }
 
-    if (id.length() != UUIDSIZE * 2) {
-      throw new InvalidArgumentRuntimeException("Attempted to parse malformed UUID: " + id);
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   * @param begin start index in id (included)
+   * @param finish end index in id (excluded)
+   *
+   * @return the millisecond UTC timestamp of the UUID, decoding only the
+   *     hexadecimal chars covering it, without building the UUID
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if begin or finish are out of id
+   */
+  public static long timestampOf(final CharSequence id, final int begin, final int finish) {
+    IdParser.checkRange(id, begin, finish);
+    final int start = IdParser.trimStart(id, begin, finish);
+    final int end = IdParser.trimEnd(id, start, finish);
+    final byte[] field = IdParser.fieldScratch();
+    // Process id (4 bits) then Time (40 bits) within the first 6 bytes
+    if (end - start != UUIDSIZE * 2 || BaseCodec.BASE16.decode(id, start, end, 0, 6, field, 0) < 0) {
+      throw IdParser.malformed(IdParser.MALFORMED, "UUID", id, begin, finish);
     }
-    System.arraycopy(BaseXx.getFromBase16(id), 0, uuid, 0, UUIDSIZE);
+    return IdParser.toLong(field, 0, 6) >>> 4 & 0xFFFFFFFFFFL;
+  }
+
+  /**
+   * @param id the CharSequence containing the UUID as hexadecimal
+   *
+   * @return the millisecond UTC timestamp of the UUID, as timestampOf(id, 0,
+   *     id.length())
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static long timestampOf(final CharSequence id) {
+    return timestampOf(id, 0, id == null? 0 : id.length());
+  }
+
+
+  /**
+   * @param ascii the ASCII bytes of the UUID as hexadecimal
+   * @param offset offset in ascii
+   * @param length number of bytes
+   *
+   * @return the UUID, parsed from the raw bytes without any charset decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  public static LongUuid parseAscii(final byte[] ascii, final int offset, final int length) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii, offset, length), 0, length);
+  }
+
+  /**
+   * @param ascii the buffer containing the ASCII bytes of the UUID as
+   *     hexadecimal, between its position and its limit (neither being
+   *     changed)
+   *
+   * @return the UUID, parsed from the raw bytes without any charset decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   */
+  public static LongUuid parseAscii(final ByteBuffer ascii) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii), 0, ascii.remaining());
   }
 
   @Override
@@ -137,6 +337,51 @@ public final class LongUuid {
     return Arrays.copyOf(uuid, UUIDSIZE);
   }
 
+  /**
+   * Write the raw bytes of this UUID, without any copy
+   *
+   * @param dst the destination array
+   * @param off the offset in dst
+   *
+   * @return the offset just after the written UUID
+   *
+   * @throws IndexOutOfBoundsException if dst is too small
+   */
+  public int writeTo(final byte[] dst, final int off) {
+    System.arraycopy(uuid, 0, dst, off, UUIDSIZE);
+    return off + UUIDSIZE;
+  }
+
+  /**
+   * Write the raw bytes of this UUID at the position of the buffer (moved
+   * forward), without any copy
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public ByteBuffer writeTo(final ByteBuffer buffer) {
+    return buffer.put(uuid);
+  }
+
+  /**
+   * Generate a new UUID directly into the buffer (at its position, moved
+   * forward, in big endian whatever the buffer order), without creating any
+   * object
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public static ByteBuffer generateInto(final ByteBuffer buffer) {
+    final long value = getLongUuid();
+    return buffer.putLong(buffer.order() == ByteOrder.BIG_ENDIAN? value : Long.reverseBytes(value));
+  }
+
   /**
    * extract process id from raw UUID bytes and return as int
    *
@@ -172,7 +417,7 @@ public final class LongUuid {
 
   @Override
   public int hashCode() {
-    return Arrays.hashCode(uuid);
+    return hash;
   }
 
   /**
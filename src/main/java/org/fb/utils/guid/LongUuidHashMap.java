@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import java.util.function.LongFunction;
+
+import static org.fb.utils.guid.GuidHashSet.checkId;
+
+/**
+ * Map keyed by LongUuids, keys stored as their long values in one array and
+ * values in a parallel one (open addressing with linear probing): no entry
+ * object nor boxed key, 12 bytes per slot (compressed references), at a load
+ * factor between 1/3 and 2/3.<br>
+ * <br>
+ * Values or raw ids can be used as keys without creating any LongUuid. Null
+ * values are not allowed. Not thread safe.
+ *
+ * @param <V> the type of values
+ */
+public final class LongUuidHashMap<V> {
+  private final IdTable table;
+
+  /**
+   * Consumer of one key and its value
+   *
+   * @param <V> the type of values
+   */
+  @FunctionalInterface
+  public interface EntryConsumer<V> {
+    void accept(long key, V value);
+  }
+
+  /**
+   * @param expectedSize the number of LongUuids expected (to avoid resizing)
+   */
+  public LongUuidHashMap(final int expectedSize) {
+    table = new IdTable(1, expectedSize, true);
+  }
+
+  /**
+   * @param id the key
+   * @param value the value (not null)
+   *
+   * @return the previous value, or null if none
+   */
+  public V put(final LongUuid id, final V value) {
+    return put(checkId(id).getLong(), value);
+  }
+
+  /**
+   * @param bytes array containing the raw LongUuid
+   * @param offset offset of the LongUuid in the array
+   * @param value the value (not null)
+   *
+   * @return the previous value, or null if none
+   *
+   * @throws IndexOutOfBoundsException if the LongUuid is out of bytes
+   */
+  public V put(final byte[] bytes, final int offset, final V value) {
+    return put(LongUuidHashSet.read(bytes, offset), value);
+  }
+
+  /**
+   * @param key the value of the LongUuid
+   * @param value the value (not null)
+   *
+   * @return the previous value, or null if none
+   */
+  @SuppressWarnings("unchecked")
+  public V put(final long key, final V value) {
+    checkId(value);
+    table.key()[0] = key;
+    final int slot = table.add();
+    return (V) table.setValue(slot < 0? ~slot : slot, value);
+  }
+
+  /**
+   * @param key the value of the LongUuid
+   * @param mapping the function giving the value if absent (null to not add
+   *     it)
+   *
+   * @return the current value, or the one given by mapping if absent
+   */
+  public V computeIfAbsent(final long key, final LongFunction<? extends V> mapping) {
+    final V current = get(key);
+    if (current != null) {
+      return current;
+    }
+    final V value = mapping.apply(key);
+    if (value != null) {
+      put(key, value);
+    }
+    return value;
+  }
+
+  /**
+   * @param id the key
+   *
+   * @return the value, or null if absent
+   */
+  public V get(final LongUuid id) {
+    return get(checkId(id).getLong());
+  }
+
+  /**
+   * @param bytes array containing the raw LongUuid
+   * @param offset offset of the LongUuid in the array
+   *
+   * @return the value, or null if absent
+   *
+   * @throws IndexOutOfBoundsException if the LongUuid is out of bytes
+   */
+  public V get(final byte[] bytes, final int offset) {
+    return get(LongUuidHashSet.read(bytes, offset));
+  }
+
+  /**
+   * @param key the value of the LongUuid
+   *
+   * @return the value, or null if absent
+   */
+  @SuppressWarnings("unchecked")
+  public V get(final long key) {
+    table.key()[0] = key;
+    final int slot = table.find();
+    return slot < 0? null : (V) table.value(slot);
+  }
+
+  /**
+   * @param key the value of the LongUuid
+   *
+   * @return True if present
+   */
+  public boolean containsKey(final long key) {
+    table.key()[0] = key;
+    return table.find() >= 0;
+  }
+
+  /**
+   * @param key the value of the LongUuid
+   *
+   * @return the removed value, or null if absent
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(final long key) {
+    table.key()[0] = key;
+    return (V) table.remove();
+  }
+
+  /**
+   * @return the number of keys
+   */
+  public int size() {
+    return table.size();
+  }
+
+  /**
+   * @return True if no key
+   */
+  public boolean isEmpty() {
+    return table.size() == 0;
+  }
+
+  /**
+   * Remove all keys, keeping the capacity
+   */
+  public void clear() {
+    table.clear();
+  }
+
+  /**
+   * @param action called for each key (value of LongUuid) and value, in no
+   *     particular order
+   */
+  @SuppressWarnings("unchecked")
+  public void forEach(final EntryConsumer<? super V> action) {
+    final long[] keys = table.keys();
+    for (var slot = 0; slot <= table.capacity(); slot++) {
+      if (table.isUsed(slot)) {
+        action.accept(keys[slot], (V) table.value(slot));
+      }
+    }
+  }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import java.util.Objects;
+import java.util.function.LongConsumer;
+
+import static org.fb.utils.guid.GuidFactory.LONG_VIEW;
+import static org.fb.utils.guid.GuidHashSet.checkId;
+
+/**
+ * Set of LongUuids, stored as their long values in one array (open addressing
+ * with linear probing): no entry object nor reference to the ids, 8 bytes per
+ * slot, at a load factor between 1/3 and 2/3.<br>
+ * <br>
+ * Values or raw ids can be added or looked up without creating any LongUuid.
+ * Not thread safe.
+ */
+public final class LongUuidHashSet {
+  private static final int UUIDSIZE = 8;
+  private final IdTable table;
+
+  /**
+   * @param expectedSize the number of LongUuids expected (to avoid resizing)
+   */
+  public LongUuidHashSet(final int expectedSize) {
+    table = new IdTable(1, expectedSize, false);
+  }
+
+  /**
+   * @param id the LongUuid to add
+   *
+   * @return True if added, False if already present
+   */
+  public boolean add(final LongUuid id) {
+    return add(checkId(id).getLong());
+  }
+
+  /**
+   * @param value the value of the LongUuid to add
+   *
+   * @return True if added, False if already present
+   */
+  public boolean add(final long value) {
+    table.key()[0] = value;
+    return table.add() < 0;
+  }
+
+  /**
+   * @param bytes array containing the raw LongUuid
+   * @param offset offset of the LongUuid in the array
+   *
+   * @return True if added, False if already present
+   *
+   * @throws IndexOutOfBoundsException if the LongUuid is out of bytes
+   */
+  public boolean add(final byte[] bytes, final int offset) {
+    return add(read(bytes, offset));
+  }
+
+  /**
+   * @param id the LongUuid to look for
+   *
+   * @return True if present
+   */
+  public boolean contains(final LongUuid id) {
+    return contains(checkId(id).getLong());
+  }
+
+  /**
+   * @param value the value of the LongUuid to look for
+   *
+   * @return True if present
+   */
+  public boolean contains(final long value) {
+    table.key()[0] = value;
+    return table.find() >= 0;
+  }
+
+  /**
+   * @param bytes array containing the raw LongUuid
+   * @param offset offset of the LongUuid in the array
+   *
+   * @return True if present
+   *
+   * @throws IndexOutOfBoundsException if the LongUuid is out of bytes
+   */
+  public boolean contains(final byte[] bytes, final int offset) {
+    return contains(read(bytes, offset));
+  }
+
+  /**
+   * @param value the value of the LongUuid to remove
+   *
+   * @return True if removed, False if absent
+   */
+  public boolean remove(final long value) {
+    table.key()[0] = value;
+    final int before = table.size();
+    table.remove();
+    return table.size() < before;
+  }
+
+  /**
+   * @return the number of LongUuids
+   */
+  public int size() {
+    return table.size();
+  }
+
+  /**
+   * @return True if no LongUuid
+   */
+  public boolean isEmpty() {
+    return table.size() == 0;
+  }
+
+  /**
+   * Remove all LongUuids, keeping the capacity
+   */
+  public void clear() {
+    table.clear();
+  }
+
+  /**
+   * @param action called for each value of LongUuid, in no particular order
+   */
+  public void forEach(final LongConsumer action) {
+    final long[] keys = table.keys();
+    for (var slot = 0; slot <= table.capacity(); slot++) {
+      if (table.isUsed(slot)) {
+        action.accept(keys[slot]);
+      }
+    }
+  }
+
+  static long read(final byte[] bytes, final int offset) {
+    Objects.checkFromIndexSize(offset, UUIDSIZE, bytes.length);
+    return (long) LONG_VIEW.get(bytes, offset);
+  }
+}
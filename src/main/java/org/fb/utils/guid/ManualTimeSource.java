@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time source whose timestamp is only changed by hand, for deterministic
+ * tests and benchmarks
+ */
+public final class ManualTimeSource implements TimeSource {
+  private final AtomicLong now;
+
+  /**
+   * @param initial the initial timestamp in milliseconds
+   */
+  public ManualTimeSource(final long initial) {
+    now = new AtomicLong(initial);
+  }
+
+  /**
+   * Initialized with the current system time
+   */
+  public ManualTimeSource() {
+    this(System.currentTimeMillis());
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return now.get();
+  }
+
+  /**
+   * @param time the new timestamp in milliseconds
+   *
+   * @return this
+   */
+  public ManualTimeSource set(final long time) {
+    now.set(time);
+    return this;
+  }
+
+  /**
+   * @param millis the number of milliseconds to add to the timestamp
+   *
+   * @return the new timestamp
+   */
+  public long advance(final long millis) {
+    return now.addAndGet(millis);
+  }
+}
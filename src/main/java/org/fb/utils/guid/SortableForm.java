@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid;
+
+import org.fb.utils.various.BaseCodec;
+
+/**
+ * Lexicographically sortable String form of ids.<br>
+ * <br>
+ * Raw ids are stored as Header, Tenant, then Platform, Pid, Time and Counter
+ * (Time and Counter, the tail, being either last or just after the Tenant).
+ * The sortable form reorders them as Tenant (sign bit flipped when the tenant
+ * is signed), Time, Counter, Platform, Pid then Header, encoded with the
+ * Crockford Base32 alphabet which preserves byte order. So for ids of the same
+ * layout, the String order is the order given by compareTo (Tenant, Time then
+ * Counter).
+ */
+final class SortableForm {
+  private static final BaseCodec CODEC = BaseCodec.CROCKFORD32;
+  private static final int SIGN_BIT = 0x80;
+
+  private SortableForm() {
+    // empty
+  }
+
+  /**
+   * @param id the raw id
+   * @param size the size of the id
+   * @param headerSize the size of the header
+   * @param tenantSize the size of the tenant
+   * @param timePos the position of Time
+   * @param tailSize the size of Time and Counter
+   * @param signedTenant True if the tenant is a signed number
+   *
+   * @return the sortable form
+   */
+  static String encode(final byte[] id, final int size, final int headerSize, final int tenantSize,
+                       final int timePos, final int tailSize, final boolean signedTenant) {
+    final int othersPos = headerSize + tenantSize;
+    final int before = timePos - othersPos;
+    final int after = size - timePos - tailSize;
+    final byte[] sortable = new byte[size];
+    System.arraycopy(id, headerSize, sortable, 0, tenantSize);
+    if (signedTenant) {
+      sortable[0] ^= SIGN_BIT;
+    }
+    System.arraycopy(id, timePos, sortable, tenantSize, tailSize);
+    System.arraycopy(id, othersPos, sortable, tenantSize + tailSize, before);
+    System.arraycopy(id, timePos + tailSize, sortable, tenantSize + tailSize + before, after);
+    System.arraycopy(id, 0, sortable, size - headerSize, headerSize);
+    return CODEC.encode(sortable, 0, size);
+  }
+
+  /**
+   * @return the number of bytes of the sortable form within the range, or
+   *     -1 if invalid
+   */
+  static int decodedLength(final CharSequence id, final int start, final int end) {
+    return CODEC.decodedLength(end - start);
+  }
+
+  /**
+   * Decode the range, still in sortable order
+   *
+   * @return True if decoded
+   */
+  static boolean decode(final CharSequence id, final int start, final int end, final byte[] sortable) {
+    return IdParser.decode(CODEC, id, start, end, sortable, 0, sortable.length);
+  }
+
+  /**
+   * Reorder the decoded sortable form into the raw id
+   *
+   * @param sortable the decoded sortable form
+   * @param id the raw id to fill
+   * @param size the size of the id
+   * @param headerSize the size of the header
+   * @param tenantSize the size of the tenant
+   * @param timePos the position of Time
+   * @param tailSize the size of Time and Counter
+   * @param signedTenant True if the tenant is a signed number
+   */
+  static void toRaw(final byte[] sortable, final byte[] id, final int size, final int headerSize,
+                    final int tenantSize, final int timePos, final int tailSize, final boolean signedTenant) {
+    final int othersPos = headerSize + tenantSize;
+    final int before = timePos - othersPos;
+    final int after = size - timePos - tailSize;
+    System.arraycopy(sortable, size - headerSize, id, 0, headerSize);
+    System.arraycopy(sortable, 0, id, headerSize, tenantSize);
+    if (signedTenant) {
+      id[headerSize] ^= SIGN_BIT;
+    }
+    System.arraycopy(sortable, tenantSize, id, timePos, tailSize);
+    System.arraycopy(sortable, tenantSize + tailSize, id, othersPos, before);
+    System.arraycopy(sortable, tenantSize + tailSize + before, id, timePos + tailSize, after);
+  }
+}
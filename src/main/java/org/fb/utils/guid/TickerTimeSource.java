@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Time source returning a cached timestamp, updated by a daemon thread at
+ * about 1 ms resolution, so that generation only reads a volatile field.
+ */
+final class TickerTimeSource implements TimeSource, Runnable {
+  static final TickerTimeSource INSTANCE = new TickerTimeSource();
+  private static final long TICK = TimeUnit.MILLISECONDS.toNanos(1);
+  private volatile long now = System.currentTimeMillis();
+
+  private TickerTimeSource() {
+    final var thread = new Thread(this, "GuidTimeTicker");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public long currentTimeMillis() {
+    return now;
+  }
+
+  @Override
+  public void run() {
+    while (true) {
+      LockSupport.parkNanos(TICK);
+      now = System.currentTimeMillis();
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+/**
+ * Source of the millisecond timestamp used by UUID generation.<br>
+ * <br>
+ * Three implementations are available:<br>
+ * - SYSTEM (default): System.currentTimeMillis() on each call<br>
+ * - ticker(): cached timestamp, updated by a daemon thread at about 1 ms
+ * resolution, for throughput mode<br>
+ * - ManualTimeSource: timestamp set by hand, for deterministic tests and
+ * benchmarks
+ */
+@FunctionalInterface
+public interface TimeSource {
+  /**
+   * Default time source, calling System.currentTimeMillis() each time
+   */
+  TimeSource SYSTEM = System::currentTimeMillis;
+
+  /**
+   * @return the current time in milliseconds since Time 0
+   */
+  long currentTimeMillis();
+
+  /**
+   * @return the shared time source cached and updated by a daemon thread at
+   *     about 1 ms resolution (the thread being started on first call)
+   */
+  static TimeSource ticker() {
+    return TickerTimeSource.INSTANCE;
+  }
+}
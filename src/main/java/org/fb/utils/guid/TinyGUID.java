@@ -21,11 +21,17 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.various.AsciiSequence;
+import org.fb.utils.various.BaseCodec;
 import org.fb.utils.various.BaseXx;
 import org.fb.utils.various.SingletonUtils;
 
-import java.util.Arrays;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collection;
+import java.util.Objects;
 
 import static org.fb.utils.guid.GuidFactory.*;
 
@@ -37,6 +43,9 @@ import static org.fb.utils.guid.GuidFactory.*;
  * - 6 bytes = timestamp (48) (so up to 8 925 years after Time 0 so year 10 895)
  * <br>
  * - 3 bytes = counter against collision (24) (so up to 16 000 Millions/s) <br>
+ * Those 16 bytes are held as two longs (big endian), without any array, so
+ * that one TinyGUID takes 32 bytes of heap (instead of 48 with its own byte
+ * array).<br>
  * This implementation aims to get guarantee unique UUID globally (so GUUID)
  * by using Platform Id for platform specification (based on MAC address or
  * specific 6 bytes as Hexadecimal value) for global aspect, JVM PID for
@@ -66,6 +75,10 @@ public final class TinyGUID implements Comparable<TinyGUID> {
   static final int PLATFORM_POS = TENANT_POS + TENANT_SIZE;
   static final int TIME_POS = PLATFORM_POS + PLATFORM_SIZE;
   static final int COUNTER_POS = TIME_POS + TIME_SIZE;
+  /**
+   * Number of unsigned words of the compareTo order key
+   */
+  static final int SORT_WORDS = 2;
   /**
    * Version to store (to check correctness if future algorithm) between 0 and
    * 255
@@ -86,12 +99,90 @@ public final class TinyGUID implements Comparable<TinyGUID> {
   /**
    * Counter part
    */
-  private static final AtomicInteger COUNTER = new AtomicInteger(MIN_COUNTER);
+  private static final UuidCounter COUNTER = new UuidCounter(MIN_COUNTER, MAX_COUNTER);
+  /**
+   * Clock and counter used in monotonic mode, kept whatever the TimeSource so
+   * that it never goes back
+   */
+  private static final HybridLogicalClock CLOCK = new HybridLogicalClock(SIZE_COUNTER);
+  /**
+   * ARK form: Tenant as decimal then Base32 of Header, Platform, Time and Counter
+   */
+  private static final ArkCodec ARK_CODEC =
+      new ArkCodec(KEYSIZE, TENANT_POS, TENANT_SIZE, Short.MIN_VALUE, Short.MAX_VALUE, null);
   /**
-   * real GUID
+   * Timestamp and Tenant straight from any form
+   */
+  private static final IdFields FIELDS = new IdFields("TinyGUID", KEYSIZE, VERSION, TENANT_POS, ARK_CODEC);
+  /**
+   * Key of GuidHashSet and GuidHashMap: High then Low, as mixed by hashCode
+   */
+  static final IdKey<TinyGUID> KEY = new IdKey<>() {
+    @Override
+    public int words() {
+      return 2;
+    }
+
+    @Override
+    public void write(final TinyGUID id, final long[] key) {
+      key[0] = id.high;
+      key[1] = id.low;
+    }
+
+    @Override
+    public void read(final byte[] bytes, final int offset, final long[] key) {
+      Objects.checkFromIndexSize(offset, KEYSIZE, bytes.length);
+      if ((bytes[offset + HEADER_POS] & BYTE_MASK) != VERSION) {
+        throw new InvalidArgumentRuntimeException("Version is incorrect: " + (bytes[offset + HEADER_POS] & BYTE_MASK));
+      }
+      key[0] = (long) LONG_VIEW.get(bytes, offset);
+      key[1] = (long) LONG_VIEW.get(bytes, offset + Long.BYTES);
+    }
+
+    @Override
+    public TinyGUID create(final long[] keys, final int off) {
+      final byte[] scratch = SCRATCH.get();
+      LONG_VIEW.set(scratch, 0, keys[off]);
+      LONG_VIEW.set(scratch, Long.BYTES, keys[off + 1]);
+      return new TinyGUID(scratch, 0);
+    }
+  };
+  /**
+   * Index of each cached String form
+   */
+  private static final int STRING_BASE32 = 0;
+  private static final int STRING_BASE64 = 1;
+  private static final int STRING_HEX = 2;
+  private static final int STRING_ARK = 3;
+  private static final int NB_STRINGS = 4;
+  private static volatile boolean monotonic;
+  private static volatile TimeSource timeSource = TimeSource.SYSTEM;
+  private static volatile boolean cacheStrings;
+  /**
+   * Per thread buffer for the raw bytes (generation, parsing and encoding)
+   */
+  private static final ThreadLocal<byte[]> SCRATCH = ThreadLocal.withInitial(() -> new byte[KEYSIZE]);
+  /**
+   * Empty content, source of TinyGUID to be decoded
+   */
+  private static final byte[] EMPTY = new byte[KEYSIZE];
+  /**
+   * String forms computed once, only if cacheStrings (racy single check, so
+   * a form may be computed more than once under contention, always to the
+   * same value)
+   */
+  @JsonIgnore
+  private String[] strings;
+  /**
+   * Bytes 0 to 7: Version, Tenant, Platform and first byte of Time
    */
   @JsonIgnore
-  private final byte[] bguid = new byte[KEYSIZE];
+  private long high;
+  /**
+   * Bytes 8 to 15: last 5 bytes of Time and Counter
+   */
+  @JsonIgnore
+  private long low;
 
   /**
    * Constructor that takes a byte array as this TinyGUID's content
@@ -108,12 +199,39 @@ public final class TinyGUID implements Comparable<TinyGUID> {
       throw new InvalidArgumentRuntimeException(
           "Attempted to parse malformed TinyGUID: (" + bytes.length + ')');
     }
-    System.arraycopy(bytes, 0, bguid, 0, KEYSIZE);
+    load(bytes, 0);
     if (getVersion() != VERSION) {
       throw new InvalidArgumentRuntimeException("Version is incorrect: " + getVersion());
     }
   }
 
+  /**
+   * Internal constructor from a trusted byte array
+   *
+   * @param bytes array containing the TinyGUID
+   * @param offset offset of the TinyGUID in the array
+   */
+  TinyGUID(final byte[] bytes, final int offset) {
+    load(bytes, offset);
+  }
+
+  /**
+   * Set this TinyGUID from its raw bytes
+   */
+  private void load(final byte[] bytes, final int offset) {
+    high = (long) LONG_VIEW.get(bytes, offset);
+    low = (long) LONG_VIEW.get(bytes, offset + Long.BYTES);
+  }
+
+  /**
+   * @return the per thread scratch filled with the raw bytes of this TinyGUID
+   */
+  private byte[] toScratch() {
+    final byte[] scratch = SCRATCH.get();
+    writeTo(scratch, 0);
+    return scratch;
+  }
+
   /**
    * extract version field as a hex char from raw TinyGUID bytes
    *
@@ -121,7 +239,7 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public int getVersion() {
-    return bguid[HEADER_POS] & BYTE_MASK;
+    return (int) (high >>> 56);
   }
 
   /**
@@ -131,6 +249,209 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   public TinyGUID(final String idsource) {
     setString(idsource);
+    checkVersion();
+  }
+
+  /**
+   * Build from a range of a CharSequence, decoding directly into this TinyGUID
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   */
+  private TinyGUID(final CharSequence id, final int start, final int end) {
+    setString(id, start, end);
+    checkVersion();
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the TinyGUID, parsed without any intermediate String nor array
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static TinyGUID parse(final CharSequence id, final int start, final int end) {
+    IdParser.checkRange(id, start, end);
+    return new TinyGUID(id, start, end);
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the TinyGUID, or null if id is null, the range is out of id or
+   *     not a valid TinyGUID (no exception being created)
+   */
+  public static TinyGUID tryParse(final CharSequence id, final int start, final int end) {
+    if (!IdParser.isRange(id, start, end)) {
+      return null;
+    }
+    final TinyGUID guid = new TinyGUID(EMPTY, 0);
+    if (guid.decode(id, start, end) != IdParser.VALID || guid.getVersion() != VERSION) {
+      return null;
+    }
+    return guid;
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   *
+   * @return the TinyGUID, or null if id is null or not a valid TinyGUID (no
+   *     exception being created)
+   */
+  public static TinyGUID tryParse(final CharSequence id) {
+    return id == null? null : tryParse(id, 0, id.length());
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the millisecond UTC timestamp of the TinyGUID, decoding only the
+   *     chars covering it (and the version), without building the TinyGUID
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static long timestampOf(final CharSequence id, final int start, final int end) {
+    return FIELDS.decode(id, start, end, TIME_POS, TIME_SIZE);
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   *
+   * @return the millisecond UTC timestamp of the TinyGUID, as timestampOf(id,
+   *     0, id.length())
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static long timestampOf(final CharSequence id) {
+    return timestampOf(id, 0, id == null? 0 : id.length());
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   * @param start start index in id (included)
+   * @param end end index in id (excluded)
+   *
+   * @return the Tenant id of the TinyGUID, decoding only the chars covering it
+   *     (and the version), without building the TinyGUID
+   *
+   * @throws InvalidArgumentRuntimeException if the range is incorrect
+   * @throws IndexOutOfBoundsException if start or end are out of id
+   */
+  public static short tenantOf(final CharSequence id, final int start, final int end) {
+    return (short) FIELDS.decode(id, start, end, TENANT_POS, TENANT_SIZE);
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in any of its forms
+   *
+   * @return the Tenant id of the TinyGUID, as tenantOf(id, 0, id.length())
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static short tenantOf(final CharSequence id) {
+    return tenantOf(id, 0, id == null? 0 : id.length());
+  }
+
+  /**
+   * @param ascii the ASCII bytes of the TinyGUID in any of its String forms
+   * @param offset offset in ascii
+   * @param length number of bytes
+   *
+   * @return the TinyGUID, parsed from the raw bytes without any charset
+   *     decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  public static TinyGUID parseAscii(final byte[] ascii, final int offset, final int length) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii, offset, length), 0, length);
+  }
+
+  /**
+   * @param ascii the buffer containing the ASCII bytes of the TinyGUID in any
+   *     of its String forms, between its position and its limit (neither
+   *     being changed)
+   *
+   * @return the TinyGUID, parsed from the raw bytes without any charset
+   *     decoding
+   *
+   * @throws InvalidArgumentRuntimeException if the bytes are incorrect
+   */
+  public static TinyGUID parseAscii(final ByteBuffer ascii) {
+    if (ascii == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    return parse(AsciiSequence.of(ascii), 0, ascii.remaining());
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in its sortable form
+   *     (see toSortable())
+   *
+   * @return the TinyGUID
+   *
+   * @throws InvalidArgumentRuntimeException if id is incorrect
+   */
+  public static TinyGUID parseSortable(final CharSequence id) {
+    if (id == null) {
+      throw new InvalidArgumentRuntimeException("Empty argument");
+    }
+    final TinyGUID guid = new TinyGUID(EMPTY, 0);
+    if (guid.decodeSortable(id, 0, id.length()) != IdParser.VALID) {
+      throw IdParser.malformed(IdParser.MALFORMED, "TinyGUID", id, 0, id.length());
+    }
+    guid.checkVersion();
+    return guid;
+  }
+
+  /**
+   * @param id the CharSequence containing the TinyGUID in its sortable form
+   *     (see toSortable())
+   *
+   * @return the TinyGUID, or null if id is null or not a valid sortable form (no
+   *     exception being created)
+   */
+  public static TinyGUID tryParseSortable(final CharSequence id) {
+    if (id == null) {
+      return null;
+    }
+    final TinyGUID guid = new TinyGUID(EMPTY, 0);
+    if (guid.decodeSortable(id, 0, id.length()) != IdParser.VALID || guid.getVersion() != VERSION) {
+      return null;
+    }
+    return guid;
+  }
+
+  /**
+   * Decode the sortable form directly into this TinyGUID, without any exception
+   *
+   * @return the parsing status from IdParser
+   */
+  private int decodeSortable(final CharSequence idsource, final int begin, final int finish) {
+    final int start = IdParser.trimStart(idsource, begin, finish);
+    final int end = IdParser.trimEnd(idsource, start, finish);
+    final byte[] sortable = new byte[KEYSIZE];
+    if (!SortableForm.decode(idsource, start, end, sortable)) {
+      return IdParser.MALFORMED;
+    }
+    final byte[] bytes = SCRATCH.get();
+    SortableForm.toRaw(sortable, bytes, KEYSIZE, HEADER_SIZE, TENANT_SIZE, TIME_POS, TIME_SIZE + COUNTER_SIZE,
+                       true);
+    load(bytes, 0);
+    return IdParser.VALID;
+  }
+
+  private void checkVersion() {
     if (getVersion() != VERSION) {
       throw new InvalidArgumentRuntimeException("Version is incorrect: " + getVersion());
     }
@@ -146,53 +467,53 @@ public final class TinyGUID implements Comparable<TinyGUID> {
     if (idsource == null) {
       throw new InvalidArgumentRuntimeException("Empty argument");
     }
-    var id = idsource.trim();
-    if (id.startsWith(ARK)) {
-      var ids = id;
-      ids = ids.substring(ARK.length());
-      var separator = ids.indexOf('/');
-      if (separator <= 0) {
-        throw new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + id);
-      }
-      var tenantId = 0;
-      try {
-        tenantId = Short.parseShort(ids.substring(0, separator));
-      } catch (final NumberFormatException e) {
-        throw new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + id);
-      }
-      // BASE32
-      ids = ids.substring(separator + 1);
-      var base32 = BaseXx.getFromBase32(ids);
-      if (base32.length != KEYSIZE - TENANT_SIZE) {
-        throw new InvalidArgumentRuntimeException(ATTEMPTED_TO_PARSE_MALFORMED_ARK_GUID + id);
+    strings = null;
+    return setString(idsource, 0, idsource.length());
+  }
+
+  private TinyGUID setString(final CharSequence idsource, final int start, final int end) {
+    final int status = decode(idsource, start, end);
+    if (status != IdParser.VALID) {
+      throw IdParser.malformed(status, "TinyGUID", idsource, start, end);
+    }
+    return this;
+  }
+
+  /**
+   * Decode the range directly into this TinyGUID, without any exception
+   *
+   * @return the parsing status from IdParser
+   */
+  private int decode(final CharSequence idsource, final int begin, final int finish) {
+    final int start = IdParser.trimStart(idsource, begin, finish);
+    final int end = IdParser.trimEnd(idsource, start, finish);
+    final byte[] bytes = SCRATCH.get();
+    if (IdParser.isArk(idsource, start, end)) {
+      if (!ARK_CODEC.decode(idsource, start, end, bytes)) {
+        return IdParser.MALFORMED_ARK;
       }
-      System.arraycopy(base32, 0, bguid, HEADER_POS, HEADER_SIZE);
-      bguid[TENANT_POS + 1] = (byte) (tenantId & BYTE_MASK);
-      tenantId >>>= BYTE_SIZE;
-      bguid[TENANT_POS] = (byte) (tenantId & BYTE_MASK);
+      load(bytes, 0);
+      return IdParser.VALID;
+    }
+    final int len = end - start;
+    final BaseCodec codec;
+    if (len == KEYB16SIZE) {
+      // HEXA BASE16
+      codec = BaseCodec.BASE16;
+    } else if (len == KEYB32SIZE) {
       // BASE32
-      System.arraycopy(base32, HEADER_SIZE, bguid, PLATFORM_POS, PLATFORM_SIZE + TIME_SIZE + COUNTER_SIZE);
-      return this;
-    }
-    var len = id.length();
-    try {
-      if (len == KEYB16SIZE) {
-        // HEXA BASE16
-        System.arraycopy(BaseXx.getFromBase16(id), 0, bguid, 0, KEYSIZE);
-      } else if (len == KEYB32SIZE) {
-        // BASE32
-        System.arraycopy(BaseXx.getFromBase32(id), 0, bguid, 0, KEYSIZE);
-      } else if (len == KEYB64SIZE) {
-        // BASE64
-        System.arraycopy(BaseXx.getFromBase64(id), 0, bguid, 0, KEYSIZE);
-      } else {
-        throw new InvalidArgumentRuntimeException(
-            "Attempted to parse malformed TinyGUID: (" + len + ") " + id);
-      }
-    } catch (final IllegalArgumentException e) {
-      throw new InvalidArgumentRuntimeException("Attempted to parse malformed TinyGUID: " + id, e);
+      codec = BaseCodec.BASE32;
+    } else if (len == KEYB64SIZE) {
+      // BASE64
+      codec = BaseCodec.BASE64;
+    } else {
+      return IdParser.MALFORMED;
     }
-    return this;
+    if (!IdParser.decode(codec, idsource, start, end, bytes, 0, KEYSIZE)) {
+      return IdParser.MALFORMED;
+    }
+    load(bytes, 0);
+    return IdParser.VALID;
   }
 
   /**
@@ -214,73 +535,172 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    *     of range
    */
   public TinyGUID(final short tenantId, final int platformId) {
+    checkIds(tenantId, platformId);
+    final byte[] bytes = SCRATCH.get();
+    generate(bytes, 0, tenantId, platformId);
+    load(bytes, 0);
+  }
+
+  private static void checkIds(final short tenantId, final int platformId) {
     if (tenantId < MIN_SHORT || tenantId > MAX_SHORT) {
       throw new InvalidArgumentRuntimeException("TenantId must be between -2^16 and 2^15-1: " + tenantId);
     }
     if (platformId < MIN_INT || platformId > MAX_INT) {
       throw new InvalidArgumentRuntimeException("PlatformId must be between -2^31 and 2^31-1: " + platformId);
     }
+  }
 
+  /**
+   * Generate a new TinyGUID at offset in dest
+   */
+  private static void generate(final byte[] dest, final int offset, final short tenantId,
+                               final int platformId) {
     // atomically
-    var time = System.currentTimeMillis();
-    var count = getNewCounter();
+    final long time;
+    final int count;
+    if (monotonic) {
+      final long state = CLOCK.next(timeSource.currentTimeMillis());
+      time = CLOCK.getTime(state);
+      count = CLOCK.getCounter(state);
+    } else {
+      time = timeSource.currentTimeMillis();
+      count = COUNTER.next();
+    }
+    writePrefix(dest, offset, tenantId, platformId);
+    writeTimeCounter(dest, offset, time, count);
+  }
+
+  /**
+   * Write Version, Tenant Id and Platform Id
+   */
+  private static void writePrefix(final byte[] dest, final int offset, final short tenantId,
+                                  final int platformId) {
     // 1 bytes = Version (8)
-    bguid[HEADER_POS] = (byte) VERSION;
+    dest[offset + HEADER_POS] = (byte) VERSION;
 
     // 1 byte = Domain (16)
     var value = 0;
     value = tenantId;
-    bguid[TENANT_POS + 1] = (byte) (value & BYTE_MASK);
+    dest[offset + TENANT_POS + 1] = (byte) (value & BYTE_MASK);
     value >>>= BYTE_SIZE;
-    bguid[TENANT_POS] = (byte) (value & BYTE_MASK);
+    dest[offset + TENANT_POS] = (byte) (value & BYTE_MASK);
 
     // 4 bytes = Platform (32)
     value = platformId;
-    bguid[PLATFORM_POS + 3] = (byte) (value & BYTE_MASK);
+    dest[offset + PLATFORM_POS + 3] = (byte) (value & BYTE_MASK);
     value >>>= BYTE_SIZE;
-    bguid[PLATFORM_POS + 2] = (byte) (value & BYTE_MASK);
+    dest[offset + PLATFORM_POS + 2] = (byte) (value & BYTE_MASK);
     value >>>= BYTE_SIZE;
-    bguid[PLATFORM_POS + 1] = (byte) (value & BYTE_MASK);
+    dest[offset + PLATFORM_POS + 1] = (byte) (value & BYTE_MASK);
     value >>>= BYTE_SIZE;
-    bguid[PLATFORM_POS] = (byte) (value & BYTE_MASK);
+    dest[offset + PLATFORM_POS] = (byte) (value & BYTE_MASK);
+  }
 
+  /**
+   * Write Timestamp and Counter
+   */
+  private static void writeTimeCounter(final byte[] dest, final int offset, final long time,
+                                       final int count) {
     // 6 bytes = timestamp (so up to 8 925 years after Time 0 so year 10
     // 895)
     var lvalue = time;
-    bguid[TIME_POS + 5] = (byte) (lvalue & BYTE_MASK);
+    dest[offset + TIME_POS + 5] = (byte) (lvalue & BYTE_MASK);
     lvalue >>>= BYTE_SIZE;
-    bguid[TIME_POS + 4] = (byte) (lvalue & BYTE_MASK);
+    dest[offset + TIME_POS + 4] = (byte) (lvalue & BYTE_MASK);
     lvalue >>>= BYTE_SIZE;
-    bguid[TIME_POS + 3] = (byte) (lvalue & BYTE_MASK);
+    dest[offset + TIME_POS + 3] = (byte) (lvalue & BYTE_MASK);
     lvalue >>>= BYTE_SIZE;
-    bguid[TIME_POS + 2] = (byte) (lvalue & BYTE_MASK);
+    dest[offset + TIME_POS + 2] = (byte) (lvalue & BYTE_MASK);
     lvalue >>>= BYTE_SIZE;
-    bguid[TIME_POS + 1] = (byte) (lvalue & BYTE_MASK);
+    dest[offset + TIME_POS + 1] = (byte) (lvalue & BYTE_MASK);
     lvalue >>>= BYTE_SIZE;
-    bguid[TIME_POS] = (byte) (lvalue & BYTE_MASK);
+    dest[offset + TIME_POS] = (byte) (lvalue & BYTE_MASK);
 
     // 3 bytes = counter against collision
-    value = count;
-    bguid[COUNTER_POS + 2] = (byte) (value & BYTE_MASK);
+    var value = count;
+    dest[offset + COUNTER_POS + 2] = (byte) (value & BYTE_MASK);
     value >>>= BYTE_SIZE;
-    bguid[COUNTER_POS + 1] = (byte) (value & BYTE_MASK);
+    dest[offset + COUNTER_POS + 1] = (byte) (value & BYTE_MASK);
     value >>>= BYTE_SIZE;
-    bguid[COUNTER_POS] = (byte) (value & BYTE_MASK);
+    dest[offset + COUNTER_POS] = (byte) (value & BYTE_MASK);
+  }
 
+  /**
+   * Generate n TinyGUID at once, all stored in one contiguous byte array, with
+   * no tenant and default Platform Id
+   *
+   * @param n the number of TinyGUID to generate
+   *
+   * @return the batch of TinyGUID
+   *
+   * @throws InvalidArgumentRuntimeException if n is not positive
+   */
+  public static GuidBatch<TinyGUID> generate(final int n) {
+    return generate(n, (short) 0, JvmProcessMacIds.getJvmIntegerId() & MASK_INT);
   }
 
-  private static synchronized int getNewCounter() {
-    if (COUNTER.compareAndSet(MAX_COUNTER, MIN_COUNTER)) {
-      return MAX_COUNTER;
-    } else {
-      return COUNTER.getAndIncrement();
-    }
+  /**
+   * Generate n TinyGUID at once, all stored in one contiguous byte array.
+   * Counter values are reserved in one atomic step.
+   *
+   * @param n the number of TinyGUID to generate
+   * @param tenantId tenant id between -2^16 and 2^15-1
+   * @param platformId platform Id between -2^31 and 2^31-1
+   *
+   * @return the batch of TinyGUID
+   *
+   * @throws InvalidArgumentRuntimeException if n is not positive
+   */
+  public static GuidBatch<TinyGUID> generate(final int n, final short tenantId, final int platformId) {
+    final byte[] arena = GuidBatch.allocate(n, KEYSIZE);
+    writePrefix(arena, 0, tenantId, platformId);
+    GuidBatch.fill(arena, KEYSIZE, TIME_POS, n, COUNTER, monotonic? CLOCK : null, timeSource,
+                   TinyGUID::writeTimeCounter);
+    return new GuidBatch<>(arena, KEYSIZE, n, TinyGUID::new);
   }
 
   public TinyGUID(final int tenantId) {
     this((short) (tenantId & 0xFFFF));
   }
 
+  /**
+   * Encode all TinyGUIDs at once, separated by delimiter, as their raw bytes
+   * encoded with codec (so toBase32(), toBase64() or toHex() forms for
+   * BaseCodec.BASE32, BASE64 or BASE16)
+   *
+   * @param guids the TinyGUIDs to encode (a GuidBatch view being directly
+   *     encoded from its arena)
+   * @param codec the codec to use
+   * @param delimiter the delimiter (not part of the codec alphabet)
+   *
+   * @return the ASCII bytes of all encoded TinyGUIDs
+   *
+   * @throws InvalidArgumentRuntimeException if an argument is null
+   */
+  public static byte[] encodeAll(final Collection<TinyGUID> guids, final BaseCodec codec, final byte delimiter) {
+    return GuidBatch.encodeAll(guids, KEYSIZE, TinyGUID::writeTo, codec, delimiter);
+  }
+
+  /**
+   * Decode TinyGUIDs encoded by encodeAll directly into one contiguous byte array
+   *
+   * @param ascii encoded TinyGUIDs as ASCII bytes
+   * @param offset offset in ascii
+   * @param length length of the encoded TinyGUIDs
+   * @param codec the codec to use
+   * @param delimiter the delimiter (not part of the codec alphabet)
+   *
+   * @return the batch of TinyGUIDs
+   *
+   * @throws InvalidArgumentRuntimeException if the encoded TinyGUIDs are
+   *     incorrect
+   * @throws IndexOutOfBoundsException if offset or length are out of ascii
+   */
+  public static GuidBatch<TinyGUID> decodeAll(final byte[] ascii, final int offset, final int length,
+                                              final BaseCodec codec, final byte delimiter) {
+    return GuidBatch.decodeAll(ascii, offset, length, codec, delimiter, KEYSIZE, VERSION, TinyGUID::new);
+  }
+
   /**
    * Constructor that generates a new TinyGUID using the current process id,
    * Platform Id and timestamp with no tenant
@@ -298,6 +718,52 @@ public final class TinyGUID implements Comparable<TinyGUID> {
     this((short) (tenantId & 0xFFFF), platformId);
   }
 
+  /**
+   * Generate a new TinyGUID directly into the buffer (at its position, moved
+   * forward), with no tenant and default Platform Id, without creating any
+   * object
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public static ByteBuffer generateInto(final ByteBuffer buffer) {
+    return generateInto(buffer, (short) 0, JvmProcessMacIds.getJvmIntegerId() & MASK_INT);
+  }
+
+  /**
+   * Generate a new TinyGUID directly into the buffer (at its position, moved
+   * forward), without creating any object
+   *
+   * @param buffer the destination buffer
+   * @param tenantId tenant id between -2^16 and 2^15-1
+   * @param platformId platform Id between -2^31 and 2^31-1
+   *
+   * @return the buffer
+   *
+   * @throws InvalidArgumentRuntimeException if any of the argument are out
+   *     of range
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public static ByteBuffer generateInto(final ByteBuffer buffer, final short tenantId, final int platformId) {
+    checkIds(tenantId, platformId);
+    if (buffer.remaining() < KEYSIZE) {
+      throw new BufferOverflowException();
+    }
+    if (buffer.hasArray()) {
+      final int position = buffer.position();
+      generate(buffer.array(), buffer.arrayOffset() + position, tenantId, platformId);
+      buffer.position(position + KEYSIZE);
+    } else {
+      final byte[] scratch = SCRATCH.get();
+      generate(scratch, 0, tenantId, platformId);
+      buffer.put(scratch);
+    }
+    return buffer;
+  }
+
   /**
    * @return the KeySize
    */
@@ -317,12 +783,73 @@ public final class TinyGUID implements Comparable<TinyGUID> {
     return KEYB64SIZE;
   }
 
+  /**
+   * @param monotonic if True, when the counter is exhausted within one
+   *     millisecond, the next logical millisecond is used instead of wrapping
+   *     the counter, so that no duplicate can occur (default being False)
+   */
+  public static void setMonotonic(final boolean monotonic) {
+    TinyGUID.monotonic = monotonic;
+  }
+
+  public static boolean isMonotonic() {
+    return monotonic;
+  }
+
+  /**
+   * @param cacheStrings if True, String forms (Base32, Base64, Hex and Ark)
+   *     are computed once per instance and kept, so that instances printed
+   *     several times do not encode again (default being False, instances
+   *     never printed paying only one null reference)
+   */
+  public static void setCacheStrings(final boolean cacheStrings) {
+    TinyGUID.cacheStrings = cacheStrings;
+  }
+
+  public static boolean isCacheStrings() {
+    return cacheStrings;
+  }
+
+  /**
+   * @param timeSource the source of timestamps (default being
+   *     TimeSource.SYSTEM), the monotonic mode clock going on from its last
+   *     value (never back, even for a TimeSource in the past)
+   *
+   * @throws InvalidArgumentRuntimeException if timeSource is null
+   */
+  public static void setTimeSource(final TimeSource timeSource) {
+    if (timeSource == null) {
+      throw new InvalidArgumentRuntimeException("TimeSource cannot be null");
+    }
+    TinyGUID.timeSource = timeSource;
+  }
+
+  public static TimeSource getTimeSource() {
+    return timeSource;
+  }
+
+  /**
+   * @return how far (in milliseconds) the monotonic mode clock currently runs
+   *     ahead of wall time
+   */
+  public static long getClockLead() {
+    return CLOCK.getLead(timeSource.currentTimeMillis());
+  }
+
+  /**
+   * @return the max lead (in milliseconds) of the monotonic mode clock over
+   *     wall time
+   */
+  public static long getClockMaxLead() {
+    return CLOCK.getMaxLead();
+  }
+
   /**
    * @return the Base64 representation
    */
   @JsonIgnore
   public String toBase64() {
-    return BaseXx.getBase64(bguid);
+    return cacheStrings? cachedString(STRING_BASE64) : computeString(STRING_BASE64);
   }
 
   /**
@@ -330,7 +857,7 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public String toHex() {
-    return BaseXx.getBase16(bguid);
+    return cacheStrings? cachedString(STRING_HEX) : computeString(STRING_HEX);
   }
 
   /**
@@ -338,7 +865,7 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public String toArk() {
-    return new StringBuilder(ARK).append(getTenantId()).append('/').append(toArkName()).toString();
+    return cacheStrings? cachedString(STRING_ARK) : computeString(STRING_ARK);
   }
 
   /**
@@ -346,17 +873,75 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public short getTenantId() {
-    return (short) ((bguid[TENANT_POS] & BYTE_MASK) << BYTE_SIZE | bguid[TENANT_POS + 1] & BYTE_MASK);
+    return (short) (high >>> 40);
   }
 
   /**
    * @return the Ark Name part of Ark representation
    */
   public String toArkName() {
-    var temp = new byte[KEYSIZE - TENANT_SIZE];
-    System.arraycopy(bguid, HEADER_POS, temp, 0, HEADER_SIZE);
-    System.arraycopy(bguid, PLATFORM_POS, temp, HEADER_SIZE, PLATFORM_SIZE + TIME_SIZE + COUNTER_SIZE);
-    return BaseXx.getBase32(temp);
+    return ARK_CODEC.nameToString(toScratch());
+  }
+
+  /**
+   * @return the length of the Ark representation
+   */
+  @JsonIgnore
+  public int getArkLength() {
+    return ARK_CODEC.getLength(getTenantId());
+  }
+
+  /**
+   * Write the Ark representation as ASCII bytes, without any intermediate
+   * String nor array
+   *
+   * @param dst the destination array
+   * @param off the offset in dst
+   *
+   * @return the offset just after the written Ark representation
+   *
+   * @throws IndexOutOfBoundsException if dst is too small
+   */
+  public int writeArk(final byte[] dst, final int off) {
+    return ARK_CODEC.write(getTenantId(), toScratch(), dst, off);
+  }
+
+  /**
+   * Write the Ark representation as ASCII bytes at the position of the
+   * buffer (moved forward), without any intermediate String nor array
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public ByteBuffer writeArk(final ByteBuffer buffer) {
+    return ARK_CODEC.write(getTenantId(), toScratch(), buffer);
+  }
+
+  /**
+   * Append the Ark representation, without any intermediate String nor array
+   *
+   * @param builder the builder to append to (may be reused)
+   *
+   * @return the builder
+   */
+  public StringBuilder appendArk(final StringBuilder builder) {
+    return ARK_CODEC.append(getTenantId(), toScratch(), builder);
+  }
+
+  /**
+   * Append the Ark representation, without any intermediate String nor array
+   *
+   * @param appendable the appendable to append to
+   *
+   * @return the appendable
+   *
+   * @throws IOException from the appendable
+   */
+  public Appendable appendArk(final Appendable appendable) throws IOException {
+    return ARK_CODEC.append(getTenantId(), toScratch(), appendable);
   }
 
   /**
@@ -377,7 +962,46 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public String toBase32() {
-    return BaseXx.getBase32(bguid);
+    return cacheStrings? cachedString(STRING_BASE32) : computeString(STRING_BASE32);
+  }
+
+  /**
+   * @return the lexicographically sortable representation (Crockford Base32
+   *     of Tenant, Time, Counter, Platform then Version), whose
+   *     String order is the order given by compareTo
+   */
+  @JsonIgnore
+  public String toSortable() {
+    return SortableForm.encode(toScratch(), KEYSIZE, HEADER_SIZE, TENANT_SIZE, TIME_POS, TIME_SIZE + COUNTER_SIZE,
+                               true);
+  }
+
+  private String cachedString(final int form) {
+    var forms = strings;
+    if (forms == null) {
+      forms = new String[NB_STRINGS];
+      strings = forms;
+    }
+    var value = forms[form];
+    if (value == null) {
+      value = computeString(form);
+      forms[form] = value;
+    }
+    return value;
+  }
+
+  private String computeString(final int form) {
+    final byte[] bytes = toScratch();
+    switch (form) {
+      case STRING_BASE64:
+        return BaseXx.getBase64(bytes);
+      case STRING_HEX:
+        return BaseXx.getBase16(bytes);
+      case STRING_ARK:
+        return ARK_CODEC.toString(getTenantId(), bytes);
+      default:
+        return BaseXx.getBase32(bytes);
+    }
   }
 
   /**
@@ -387,9 +1011,7 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public int getPlatformId() {
-    return (bguid[PLATFORM_POS] & BYTE_MASK) << BYTE_SIZE * 3 |
-           (bguid[PLATFORM_POS + 1] & BYTE_MASK) << BYTE_SIZE * 2 |
-           (bguid[PLATFORM_POS + 2] & BYTE_MASK) << BYTE_SIZE | bguid[PLATFORM_POS + 3] & BYTE_MASK;
+    return (int) (high >>> BYTE_SIZE);
   }
 
   /**
@@ -403,19 +1025,15 @@ public final class TinyGUID implements Comparable<TinyGUID> {
       return SingletonUtils.getSingletonByteArray();
     }
     final byte[] x = new byte[6];
-    x[0] = 0;
-    x[1] = 0;
-    x[2] = (byte) (bguid[PLATFORM_POS] & BYTE_MASK);
-    x[3] = bguid[PLATFORM_POS + 1];
-    x[4] = bguid[PLATFORM_POS + 2];
-    x[5] = bguid[PLATFORM_POS + 3];
+    INT_VIEW.set(x, 2, getPlatformId());
     return x;
   }
 
   @Override
   @JsonIgnore
   public int hashCode() {
-    return Arrays.hashCode(bguid);
+    // Not cached: one more int field would take 8 more bytes per instance
+    return mixHash(high, low);
   }
 
   @Override
@@ -423,32 +1041,65 @@ public final class TinyGUID implements Comparable<TinyGUID> {
     if (!(o instanceof TinyGUID)) {
       return false;
     }
-    return this == o || Arrays.equals(bguid, ((TinyGUID) o).bguid);
+    final TinyGUID guid = (TinyGUID) o;
+    return high == guid.high && low == guid.low;
   }
 
+  /**
+   * Total order of the sortable form: Tenant (signed), Timestamp, Counter, then
+   * Platform and Version, on 2 words computed from the fields
+   */
   @Override
   public int compareTo(final TinyGUID guid) {
-    var id = getTenantId();
-    var id2 = guid.getTenantId();
-    if (id != id2) {
-      return id < id2? -1 : 1;
-    }
-    var ts = getTimestamp();
-    var ts2 = guid.getTimestamp();
-    if (ts == ts2) {
-      var ct = getCounter();
-      var ct2 = guid.getCounter();
-      if (ct == ct2) {
-        // then all must be equals, else whatever
-        return Arrays.equals(bguid, guid.getBytes())? 0 : -1;
-      }
-      // Cannot be equal
-      return ct < ct2? -1 : 1;
-    }
-    // others as ProcessId or Platform are unimportant in comparison
-    return ts < ts2? -1 : 1;
+    final int cmp = Long.compare(sortHigh(high, low), sortHigh(guid.high, guid.low));
+    return cmp != 0? cmp : Long.compareUnsigned(sortLow(high, low), sortLow(guid.high, guid.low));
+  }
+
+  /**
+   * @return Tenant and Time, as a signed word
+   */
+  private static long sortHigh(final long high, final long low) {
+    return high >>> 40 << 48 | (high & BYTE_MASK) << 40 | low >>> 24;
+  }
+
+  /**
+   * @return Counter, Platform and Version, as an unsigned word
+   */
+  private static long sortLow(final long high, final long low) {
+    return low << 40 | high & 0xFFFFFFFF00L | high >>> 56;
+  }
+
+  /**
+   * Write the key of the compareTo order as SORT_WORDS unsigned words
+   *
+   * @param keys the destination of the key
+   * @param off the offset in keys
+   */
+  void writeSortKey(final long[] keys, final int off) {
+    writeSortKey(high, low, keys, off);
+  }
+
+  /**
+   * Write the key of the compareTo order of raw TinyGUID bytes as SORT_WORDS
+   * unsigned words
+   *
+   * @param bytes array containing the TinyGUID
+   * @param offset offset of the TinyGUID in the array
+   * @param keys the destination of the key
+   * @param off the offset in keys
+   */
+  static void writeSortKey(final byte[] bytes, final int offset, final long[] keys, final int off) {
+    writeSortKey((long) LONG_VIEW.get(bytes, offset), (long) LONG_VIEW.get(bytes, offset + Long.BYTES), keys, off);
   }
 
+  private static void writeSortKey(final long high, final long low, final long[] keys, final int off) {
+    // Sign bit flipped so that the signed Tenant orders as unsigned
+    keys[off] = sortHigh(high, low) ^ Long.MIN_VALUE;
+    keys[off + 1] = sortLow(high, low);
+  }
+
+
+
   /**
    * Extract timestamp and return as long
    *
@@ -460,12 +1111,7 @@ public final class TinyGUID implements Comparable<TinyGUID> {
     if (getVersion() != VERSION) {
       return -1;
     }
-    long time = 0;
-    for (var i = 0; i < TIME_SIZE; i++) {
-      time <<= BYTE_SIZE;
-      time |= bguid[TIME_POS + i] & BYTE_MASK;
-    }
-    return time;
+    return (high & BYTE_MASK) << 40 | low >>> 24;
   }
 
   /**
@@ -473,8 +1119,7 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public int getCounter() {
-    return (bguid[COUNTER_POS] & BYTE_MASK) << BYTE_SIZE * 2 |
-           (bguid[COUNTER_POS + 1] & BYTE_MASK) << BYTE_SIZE | bguid[COUNTER_POS + 2] & BYTE_MASK;
+    return (int) low & MAX_COUNTER;
   }
 
   /**
@@ -484,7 +1129,46 @@ public final class TinyGUID implements Comparable<TinyGUID> {
    */
   @JsonIgnore
   public byte[] getBytes() {
-    return Arrays.copyOf(bguid, bguid.length);
+    final byte[] bytes = new byte[KEYSIZE];
+    writeTo(bytes, 0);
+    return bytes;
+  }
+
+  /**
+   * Write the raw bytes of this TinyGUID, without any intermediate array
+   *
+   * @param dst the destination array
+   * @param off the offset in dst
+   *
+   * @return the offset just after the written TinyGUID
+   *
+   * @throws IndexOutOfBoundsException if dst is too small
+   */
+  public int writeTo(final byte[] dst, final int off) {
+    Objects.checkFromIndexSize(off, KEYSIZE, dst.length);
+    LONG_VIEW.set(dst, off, high);
+    LONG_VIEW.set(dst, off + Long.BYTES, low);
+    return off + KEYSIZE;
+  }
+
+  /**
+   * Write the raw bytes of this TinyGUID at the position of the buffer (moved
+   * forward, in big endian whatever the buffer order), without any
+   * intermediate array
+   *
+   * @param buffer the destination buffer
+   *
+   * @return the buffer
+   *
+   * @throws BufferOverflowException if not enough remaining space
+   */
+  public ByteBuffer writeTo(final ByteBuffer buffer) {
+    if (buffer.remaining() < KEYSIZE) {
+      throw new BufferOverflowException();
+    }
+    final boolean bigEndian = buffer.order() == ByteOrder.BIG_ENDIAN;
+    buffer.putLong(bigEndian? high : Long.reverseBytes(high));
+    return buffer.putLong(bigEndian? low : Long.reverseBytes(low));
   }
 
 }
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free counter against collision, used by all UUID implementations.<br>
+ * <br>
+ * Values go from min to max (included) and then wrap back to min. The
+ * internal sequence is a never wrapping long, so one allocation is only one
+ * atomic increment (no monitor, no CAS loop), the wrap being computed from
+ * the sequence.<br>
+ * <br>
+ * In striped mode, each thread reserves a block of consecutive sequence values
+ * at once, so that most of the calls only touch thread local state.
+ */
+final class UuidCounter {
+  /**
+   * Number of sequence values reserved at once by one thread in striped mode
+   */
+  static final int STRIPE_SIZE = 64;
+  private static final int STRIPE_NEXT = 0;
+  private static final int STRIPE_END = 1;
+  /**
+   * Never wrapping sequence (2^63 values)
+   */
+  private final AtomicLong sequence;
+  private final long min;
+  private final long range;
+  /**
+   * Mask to use instead of modulo if range is a power of 2, else 0
+   */
+  private final long mask;
+  /**
+   * Per thread reserved block of sequence values: next one and end (excluded)
+   */
+  private final ThreadLocal<long[]> stripes = ThreadLocal.withInitial(() -> new long[2]);
+
+  /**
+   * @param min the min value (included)
+   * @param max the max value (included)
+   * @param initial the first value to return, between min and max
+   */
+  UuidCounter(final int min, final int max, final int initial) {
+    this.min = min;
+    range = (long) max - min + 1;
+    mask = (range & range - 1) == 0? range - 1 : 0;
+    sequence = new AtomicLong((long) initial - min);
+  }
+
+  /**
+   * @param min the min value (included)
+   * @param max the max value (included)
+   */
+  UuidCounter(final int min, final int max) {
+    this(min, max, min);
+  }
+
+  /**
+   * @return the next counter value, wrapping from max to min
+   */
+  int next() {
+    return valueOf(sequence.getAndIncrement());
+  }
+
+  /**
+   * @param size the number of consecutive sequence values to reserve
+   *
+   * @return the first reserved sequence value, to be transformed through
+   *     valueOf
+   */
+  long reserve(final int size) {
+    return sequence.getAndAdd(size);
+  }
+
+  /**
+   * @param seq a sequence value
+   *
+   * @return the associated counter value
+   */
+  int valueOf(final long seq) {
+    return (int) (min + (mask != 0? seq & mask : seq % range));
+  }
+
+  /**
+   * @return the number of distinct counter values
+   */
+  long getRange() {
+    return range;
+  }
+
+  /**
+   * Striped version of next(): the sequence value comes from a block
+   * reserved by the current thread. The block is dropped if the shared
+   * sequence did a full wrap since it was reserved, so that the uniqueness is
+   * the same as the non striped version.
+   *
+   * @return the next counter value, wrapping from max to min
+   */
+  int nextStriped() {
+    final long[] stripe = stripes.get();
+    var seq = stripe[STRIPE_NEXT];
+    if (seq >= stripe[STRIPE_END] || sequence.get() - seq > range) {
+      seq = sequence.getAndAdd(STRIPE_SIZE);
+      stripe[STRIPE_END] = seq + STRIPE_SIZE;
+    }
+    stripe[STRIPE_NEXT] = seq + 1;
+    return valueOf(seq);
+  }
+}
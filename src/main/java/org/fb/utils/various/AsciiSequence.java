@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.various;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Read only CharSequence view over ASCII (or Latin-1) bytes, from a byte
+ * array or a ByteBuffer, so that text parsers can work on raw bytes without
+ * any charset decoding step nor copy.<br>
+ * <br>
+ * The view is not a snapshot: changing the underlying bytes changes it.
+ */
+public final class AsciiSequence implements CharSequence {
+  private static final int BYTE_MASK = 0xFF;
+  /**
+   * Backing array, or null if only the buffer is available (direct buffer),
+   * directly used by BaseCodec
+   */
+  final byte[] array;
+  private final ByteBuffer buffer;
+  final int offset;
+  private final int length;
+
+  private AsciiSequence(final byte[] array, final ByteBuffer buffer, final int offset, final int length) {
+    this.array = array;
+    this.buffer = buffer;
+    this.offset = offset;
+    this.length = length;
+  }
+
+  /**
+   * @param bytes the ASCII bytes
+   * @param offset offset in bytes
+   * @param length number of bytes
+   *
+   * @return the view over those bytes
+   *
+   * @throws IndexOutOfBoundsException if offset or length are out of bytes
+   */
+  public static AsciiSequence of(final byte[] bytes, final int offset, final int length) {
+    Objects.checkFromIndexSize(offset, length, bytes.length);
+    return new AsciiSequence(bytes, null, offset, length);
+  }
+
+  /**
+   * @param buffer the buffer containing ASCII bytes between its position and
+   *     its limit (neither position nor limit are changed)
+   *
+   * @return the view over those bytes
+   */
+  public static AsciiSequence of(final ByteBuffer buffer) {
+    if (buffer.hasArray()) {
+      return new AsciiSequence(buffer.array(), null, buffer.arrayOffset() + buffer.position(), buffer.remaining());
+    }
+    return new AsciiSequence(null, buffer, buffer.position(), buffer.remaining());
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(final int index) {
+    Objects.checkIndex(index, length);
+    if (array != null) {
+      return (char) (array[offset + index] & BYTE_MASK);
+    }
+    return (char) (buffer.get(offset + index) & BYTE_MASK);
+  }
+
+  @Override
+  public CharSequence subSequence(final int start, final int end) {
+    Objects.checkFromToIndex(start, end, length);
+    return new AsciiSequence(array, buffer, offset + start, end - start);
+  }
+
+  @Override
+  public String toString() {
+    if (array != null) {
+      return new String(array, offset, length, StandardCharsets.ISO_8859_1);
+    }
+    final byte[] bytes = new byte[length];
+    for (var i = 0; i < length; i++) {
+      bytes[i] = buffer.get(offset + i);
+    }
+    return new String(bytes, StandardCharsets.ISO_8859_1);
+  }
+}
@@ -0,0 +1,833 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.various;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Table driven Base16, Base32 and Base64 codec.<br>
+ * <br>
+ * Encoding goes through a lookup table, one block of bytes (1, 5 or 3 bytes
+ * for Base16, Base32 and Base64) at a time, directly into a byte array (from
+ * which a Latin-1 String is built) or into a caller's byte or char array.
+ * Decoding goes through a reverse table, invalid input giving -1 instead of an
+ * exception.<br>
+ * <br>
+ * Output is bit for bit compatible with the lower case unpadded (except for
+ * BASE64_PADDING) alphabets used by BaseXx.<br>
+ * <br>
+ * CROCKFORD32 alphabet is in ASCII order, so that for byte arrays of the same
+ * size, the order of the encoded forms is the unsigned order of the bytes.
+ */
+public final class BaseCodec {
+  /**
+   * Base16 lower case, no padding
+   */
+  public static final BaseCodec BASE16 = new BaseCodec("0123456789abcdef", 4, false);
+  /**
+   * Base32 lower case (RFC 4648 alphabet), no padding
+   */
+  public static final BaseCodec BASE32 = new BaseCodec("abcdefghijklmnopqrstuvwxyz234567", 5, false);
+  /**
+   * Base64 (RFC 4648 alphabet), no padding
+   */
+  public static final BaseCodec BASE64 =
+      new BaseCodec("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", 6, false);
+  /**
+   * Base64 (RFC 4648 alphabet), with padding (optional while decoding)
+   */
+  public static final BaseCodec BASE64_PADDING =
+      new BaseCodec("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/", 6, true);
+  /**
+   * Base64 Url safe (RFC 4648 alphabet), no padding
+   */
+  public static final BaseCodec BASE64_URL =
+      new BaseCodec("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_", 6, false);
+  /**
+   * Base32 upper case (Crockford alphabet), no padding, order preserving;
+   * decoding is case insensitive and accepts I, L (as 1) and O (as 0)
+   */
+  public static final BaseCodec CROCKFORD32 =
+      new BaseCodec("0123456789ABCDEFGHJKMNPQRSTVWXYZ", 5, false).alias("abcdefghjkmnpqrstvwxyzIiLlOo",
+                                                                           "ABCDEFGHJKMNPQRSTVWXYZ111100");
+  private static final byte PADDING = '=';
+  private static final int BYTE_SIZE = 8;
+  private static final int BYTE_MASK = 0xFF;
+  private static final int ASCII_SIZE = 128;
+  /**
+   * Size of scratch arrays for buffers without array
+   */
+  private static final int CHUNK_SIZE = 8192;
+  private final byte[] alphabet;
+  /**
+   * Reverse table for ASCII chars: value of the char, or -1 if not in the
+   * alphabet
+   */
+  private final byte[] decodabet = new byte[ASCII_SIZE];
+  private final int bits;
+  private final int mask;
+  private final int blockBytes;
+  private final int blockChars;
+  private final boolean padding;
+
+  private BaseCodec(final String chars, final int bits, final boolean padding) {
+    alphabet = chars.getBytes(StandardCharsets.ISO_8859_1);
+    Arrays.fill(decodabet, (byte) -1);
+    for (var i = 0; i < alphabet.length; i++) {
+      decodabet[alphabet[i]] = (byte) i;
+    }
+    this.bits = bits;
+    mask = (1 << bits) - 1;
+    // Smallest block made of whole bytes and whole chars
+    var block = BYTE_SIZE;
+    while (block % bits != 0) {
+      block += BYTE_SIZE;
+    }
+    blockBytes = block / BYTE_SIZE;
+    blockChars = block / bits;
+    this.padding = padding;
+  }
+
+  /**
+   * Decode each char of from as the matching char of to
+   */
+  private BaseCodec alias(final String from, final String to) {
+    for (var i = 0; i < from.length(); i++) {
+      decodabet[from.charAt(i)] = decodabet[to.charAt(i)];
+    }
+    return this;
+  }
+
+  /**
+   * @param size number of bytes to encode
+   *
+   * @return the length of the encoded form
+   */
+  public int encodedLength(final int size) {
+    final int remaining = size % blockBytes;
+    var length = size / blockBytes * blockChars;
+    if (remaining > 0) {
+      length += padding? blockChars : (remaining * BYTE_SIZE + bits - 1) / bits;
+    }
+    return length;
+  }
+
+  /**
+   * @param length length of the encoded form, without padding
+   *
+   * @return the number of decoded bytes, or -1 if the length is not a valid
+   *     one
+   */
+  public int decodedLength(final int length) {
+    if (length < 0) {
+      return -1;
+    }
+    final int remaining = length % blockChars;
+    final int tailBytes = remaining * bits / BYTE_SIZE;
+    if ((tailBytes * BYTE_SIZE + bits - 1) / bits != remaining) {
+      return -1;
+    }
+    return length / blockChars * blockBytes + tailBytes;
+  }
+
+  /**
+   * @param src bytes to encode
+   * @param offset offset in src
+   * @param size number of bytes to encode
+   *
+   * @return the encoded form as a Latin-1 String
+   *
+   * @throws IndexOutOfBoundsException if offset or size are out of src
+   */
+  public String encode(final byte[] src, final int offset, final int size) {
+    final byte[] dst = new byte[encodedLength(size)];
+    encode(src, offset, size, dst, 0);
+    return new String(dst, StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * @param src bytes to encode
+   * @param offset offset in src
+   * @param size number of bytes to encode
+   * @param dst destination array of ASCII chars (at least encodedLength(size)
+   *     from dstOffset)
+   * @param dstOffset offset in dst
+   *
+   * @return the offset in dst just after the encoded form
+   *
+   * @throws IndexOutOfBoundsException if out of src or dst
+   */
+  public int encode(final byte[] src, final int offset, final int size, final byte[] dst, final int dstOffset) {
+    Objects.checkFromIndexSize(offset, size, src.length);
+    Objects.checkFromIndexSize(dstOffset, encodedLength(size), dst.length);
+    return encodeRecord(src, offset, size, dst, dstOffset);
+  }
+
+  /**
+   * @param recordSize size of one record
+   * @param count number of records
+   *
+   * @return the length of the encoded form of count records separated by
+   *     one delimiter
+   *
+   * @throws ArithmeticException if the length overflows an int
+   */
+  public int encodedLength(final int recordSize, final int count) {
+    if (count <= 0) {
+      return 0;
+    }
+    return Math.toIntExact((long) count * (encodedLength(recordSize) + 1) - 1);
+  }
+
+  /**
+   * Encode count contiguous records of recordSize bytes, each one being
+   * encoded as encode(src, offset, recordSize) and separated by delimiter
+   * (not after the last one). Bounds are checked once for all records.
+   *
+   * @param src records to encode
+   * @param offset offset of the first record in src
+   * @param recordSize size of one record
+   * @param count number of records
+   * @param dst destination array of ASCII chars (at least
+   *     encodedLength(recordSize, count) from dstOffset)
+   * @param dstOffset offset in dst
+   * @param delimiter the delimiter (not part of this alphabet)
+   *
+   * @return the offset in dst just after the last encoded record
+   *
+   * @throws IllegalArgumentException if recordSize or count are negative
+   * @throws IndexOutOfBoundsException if out of src or dst
+   */
+  public int encodeAll(final byte[] src, final int offset, final int recordSize, final int count, final byte[] dst,
+                       final int dstOffset, final byte delimiter) {
+    checkRecords(recordSize, count);
+    Objects.checkFromIndexSize(offset, Math.toIntExact((long) recordSize * count), src.length);
+    Objects.checkFromIndexSize(dstOffset, encodedLength(recordSize, count), dst.length);
+    var pos = dstOffset;
+    for (int k = 0, i = offset; k < count; k++, i += recordSize) {
+      if (k > 0) {
+        dst[pos++] = delimiter;
+      }
+      pos = encodeRecord(src, i, recordSize, dst, pos);
+    }
+    return pos;
+  }
+
+  /**
+   * Encode all the records between position and limit of src (moved
+   * forward) into dst (moved forward), as encodeAll(byte[]...). Buffers
+   * without array go through scratch arrays reused chunk after chunk.
+   *
+   * @param src records to encode (remaining a multiple of recordSize)
+   * @param recordSize size of one record
+   * @param dst destination of ASCII chars
+   * @param delimiter the delimiter (not part of this alphabet)
+   *
+   * @return the number of encoded records
+   *
+   * @throws IllegalArgumentException if recordSize is not positive or src
+   *     does not contain whole records
+   * @throws BufferOverflowException if not enough remaining space in dst
+   *     (nothing being written)
+   */
+  public int encodeAll(final ByteBuffer src, final int recordSize, final ByteBuffer dst, final byte delimiter) {
+    if (recordSize <= 0 || src.remaining() % recordSize != 0) {
+      throw new IllegalArgumentException("Not whole records of " + recordSize + " bytes: " + src.remaining());
+    }
+    final int count = src.remaining() / recordSize;
+    final int length = encodedLength(recordSize, count);
+    if (dst.remaining() < length) {
+      throw new BufferOverflowException();
+    }
+    if (src.hasArray() && dst.hasArray()) {
+      encodeAll(src.array(), src.arrayOffset() + src.position(), recordSize, count, dst.array(),
+                dst.arrayOffset() + dst.position(), delimiter);
+      src.position(src.limit());
+      dst.position(dst.position() + length);
+      return count;
+    }
+    final int chunk = Math.min(count, Math.max(1, CHUNK_SIZE / recordSize));
+    final byte[] records = new byte[chunk * recordSize];
+    final byte[] ascii = new byte[encodedLength(recordSize, chunk) + 1];
+    var done = 0;
+    while (done < count) {
+      final int nb = Math.min(chunk, count - done);
+      src.get(records, 0, nb * recordSize);
+      var pos = 0;
+      if (done > 0) {
+        ascii[pos++] = delimiter;
+      }
+      pos = encodeAll(records, 0, recordSize, nb, ascii, pos, delimiter);
+      dst.put(ascii, 0, pos);
+      done += nb;
+    }
+    return count;
+  }
+
+  /**
+   * Encode without any bound check
+   */
+  private int encodeRecord(final byte[] src, final int offset, final int size, final byte[] dst,
+                           final int dstOffset) {
+    final int end = offset + size;
+    final int fullEnd = end - size % blockBytes;
+    var pos = encodeBlocks(src, offset, fullEnd, dst, dstOffset);
+    var i = fullEnd;
+    if (i < end) {
+      long block = 0;
+      var nbBits = 0;
+      while (i < end) {
+        block = block << BYTE_SIZE | src[i++] & BYTE_MASK;
+        nbBits += BYTE_SIZE;
+      }
+      final int chars = (nbBits + bits - 1) / bits;
+      block <<= chars * bits - nbBits;
+      for (var shift = (chars - 1) * bits; shift >= 0; shift -= bits) {
+        dst[pos++] = alphabet[(int) (block >>> shift) & mask];
+      }
+      if (padding) {
+        for (var k = chars; k < blockChars; k++) {
+          dst[pos++] = PADDING;
+        }
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * @param src bytes to encode
+   * @param offset offset in src
+   * @param size number of bytes to encode
+   * @param dst destination array (at least encodedLength(size) from
+   *     dstOffset)
+   * @param dstOffset offset in dst
+   *
+   * @return the offset in dst just after the encoded form
+   *
+   * @throws IndexOutOfBoundsException if out of src or dst
+   */
+  public int encode(final byte[] src, final int offset, final int size, final char[] dst, final int dstOffset) {
+    Objects.checkFromIndexSize(offset, size, src.length);
+    Objects.checkFromIndexSize(dstOffset, encodedLength(size), dst.length);
+    final int end = offset + size;
+    final int fullEnd = end - size % blockBytes;
+    var pos = dstOffset;
+    var i = offset;
+    while (i < fullEnd) {
+      long block = 0;
+      for (var k = 0; k < blockBytes; k++) {
+        block = block << BYTE_SIZE | src[i++] & BYTE_MASK;
+      }
+      for (var shift = (blockChars - 1) * bits; shift >= 0; shift -= bits) {
+        dst[pos++] = (char) alphabet[(int) (block >>> shift) & mask];
+      }
+    }
+    if (i < end) {
+      long block = 0;
+      var nbBits = 0;
+      while (i < end) {
+        block = block << BYTE_SIZE | src[i++] & BYTE_MASK;
+        nbBits += BYTE_SIZE;
+      }
+      final int chars = (nbBits + bits - 1) / bits;
+      block <<= chars * bits - nbBits;
+      for (var shift = (chars - 1) * bits; shift >= 0; shift -= bits) {
+        dst[pos++] = (char) alphabet[(int) (block >>> shift) & mask];
+      }
+      if (padding) {
+        for (var k = chars; k < blockChars; k++) {
+          dst[pos++] = PADDING;
+        }
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * @param src encoded form
+   *
+   * @return the decoded bytes, or null if src is not a valid encoded form
+   */
+  public byte[] decode(final CharSequence src) {
+    final int end = trimPadding(src, 0, src.length());
+    final int size = decodedLength(end);
+    if (size < 0) {
+      return null;
+    }
+    final byte[] dst = new byte[size];
+    return decode(src, 0, end, dst, 0) < 0? null : dst;
+  }
+
+  /**
+   * @param src encoded form
+   * @param start start index in src (included)
+   * @param end end index in src (excluded)
+   * @param dst destination array (at least decodedLength(end - start) from
+   *     dstOffset)
+   * @param dstOffset offset in dst
+   *
+   * @return the offset in dst just after the decoded bytes, or -1 if src is
+   *     not a valid encoded form
+   *
+   * @throws IndexOutOfBoundsException if out of src or dst
+   */
+  public int decode(final CharSequence src, final int start, final int end, final byte[] dst,
+                    final int dstOffset) {
+    Objects.checkFromToIndex(start, end, src.length());
+    if (src instanceof AsciiSequence && ((AsciiSequence) src).array != null) {
+      final AsciiSequence ascii = (AsciiSequence) src;
+      return decodeAscii(ascii.array, ascii.offset + start, end - start, dst, dstOffset);
+    }
+    final int last = trimPadding(src, start, end);
+    final int size = decodedLength(last - start);
+    if (size < 0) {
+      return -1;
+    }
+    Objects.checkFromIndexSize(dstOffset, size, dst.length);
+    final int fullEnd = last - (last - start) % blockChars;
+    var pos = decodeBlocks(src, start, fullEnd, dst, dstOffset);
+    if (pos < 0) {
+      return -1;
+    }
+    var i = fullEnd;
+    if (i < last) {
+      long block = 0;
+      var nbBits = 0;
+      while (i < last) {
+        final int value = valueOf(src.charAt(i++));
+        if (value < 0) {
+          return -1;
+        }
+        block = block << bits | value;
+        nbBits += bits;
+      }
+      // Extra low bits are ignored
+      block >>>= nbBits % BYTE_SIZE;
+      for (var shift = (nbBits / BYTE_SIZE - 1) * BYTE_SIZE; shift >= 0; shift -= BYTE_SIZE) {
+        dst[pos++] = (byte) (block >>> shift);
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Decode only the bytes [byteOffset, byteOffset + size) of the encoded form,
+   * reading only the chars covering them (other chars being not checked)
+   *
+   * @param src encoded form
+   * @param start start index in src (included)
+   * @param end end index in src (excluded)
+   * @param byteOffset offset of the first byte to decode in the decoded form
+   * @param size number of bytes to decode
+   * @param dst destination array
+   * @param dstOffset offset in dst
+   *
+   * @return the offset in dst just after the decoded bytes, or -1 if the
+   *     length of src or one of the read chars is not valid
+   *
+   * @throws IndexOutOfBoundsException if out of src, of the decoded form or
+   *     of dst
+   */
+  public int decode(final CharSequence src, final int start, final int end, final int byteOffset, final int size,
+                    final byte[] dst, final int dstOffset) {
+    Objects.checkFromToIndex(start, end, src.length());
+    final int decoded = decodedLength(trimPadding(src, start, end) - start);
+    if (decoded < 0) {
+      return -1;
+    }
+    Objects.checkFromIndexSize(byteOffset, size, decoded);
+    Objects.checkFromIndexSize(dstOffset, size, dst.length);
+    final int firstBit = byteOffset * BYTE_SIZE;
+    final int last = start + ((byteOffset + size) * BYTE_SIZE + bits - 1) / bits;
+    // Leading bits of the first char are not part of the range
+    var nbBits = -(firstBit % bits);
+    var block = 0;
+    var pos = dstOffset;
+    for (var i = start + firstBit / bits; i < last; i++) {
+      final int value = valueOf(src.charAt(i));
+      if (value < 0) {
+        return -1;
+      }
+      block = block << bits | value;
+      nbBits += bits;
+      if (nbBits >= BYTE_SIZE) {
+        nbBits -= BYTE_SIZE;
+        dst[pos++] = (byte) (block >>> nbBits);
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Same as decode(CharSequence...) but directly from ASCII bytes, without any
+   * charset decoding
+   *
+   * @param src encoded form as ASCII bytes
+   * @param offset offset in src
+   * @param length length of the encoded form
+   * @param dst destination array (at least decodedLength(length) from
+   *     dstOffset)
+   * @param dstOffset offset in dst
+   *
+   * @return the offset in dst just after the decoded bytes, or -1 if src is
+   *     not a valid encoded form
+   *
+   * @throws IndexOutOfBoundsException if out of src or dst
+   */
+  public int decodeAscii(final byte[] src, final int offset, final int length, final byte[] dst,
+                         final int dstOffset) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final int last = trimPadding(src, offset, offset + length);
+    final int size = decodedLength(last - offset);
+    if (size < 0) {
+      return -1;
+    }
+    Objects.checkFromIndexSize(dstOffset, size, dst.length);
+    return decodeRecord(src, offset, last, dst, dstOffset);
+  }
+
+  /**
+   * Decode records encoded by encodeAll: each one of exactly
+   * encodedLength(recordSize) ASCII chars, separated by delimiter (one
+   * trailing delimiter being accepted). Bounds are checked once for all
+   * records.
+   *
+   * @param src encoded records as ASCII bytes
+   * @param offset offset in src
+   * @param length length of the encoded records
+   * @param delimiter the delimiter (not part of this alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination array (at least recordSize * count from
+   *     dstOffset)
+   * @param dstOffset offset in dst
+   *
+   * @return the number of decoded records, or -1 if src is not a valid
+   *     encoded form (dst being possibly partially written)
+   *
+   * @throws IllegalArgumentException if recordSize is not positive
+   * @throws IndexOutOfBoundsException if out of src or dst
+   */
+  public int decodeAll(final byte[] src, final int offset, final int length, final byte delimiter,
+                       final int recordSize, final byte[] dst, final int dstOffset) {
+    Objects.checkFromIndexSize(offset, length, src.length);
+    final int count = countRecords(length, length > 0 && src[offset + length - 1] == delimiter, recordSize);
+    if (count <= 0) {
+      return count;
+    }
+    Objects.checkFromIndexSize(dstOffset, recordSize * count, dst.length);
+    final int chars = encodedLength(recordSize);
+    var pos = dstOffset;
+    for (int k = 0, i = offset; k < count; k++, i += chars + 1) {
+      final int end = i + chars;
+      if (k < count - 1 && src[end] != delimiter) {
+        return -1;
+      }
+      final int last = trimPadding(src, i, end);
+      if (decodedLength(last - i) != recordSize) {
+        return -1;
+      }
+      pos = decodeRecord(src, i, last, dst, pos);
+      if (pos < 0) {
+        return -1;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Decode all the records between position and limit of src into dst, as
+   * decodeAll(byte[]...). Both positions are moved forward only if src is
+   * valid. Buffers without array go through scratch arrays reused chunk after
+   * chunk.
+   *
+   * @param src encoded records as ASCII bytes
+   * @param delimiter the delimiter (not part of this alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination of decoded records
+   *
+   * @return the number of decoded records, or -1 if src is not a valid
+   *     encoded form
+   *
+   * @throws IllegalArgumentException if recordSize is not positive
+   * @throws BufferOverflowException if not enough remaining space in dst
+   *     (nothing being written)
+   */
+  public int decodeAll(final ByteBuffer src, final byte delimiter, final int recordSize, final ByteBuffer dst) {
+    final int length = src.remaining();
+    final int count = countRecords(length, length > 0 && src.get(src.limit() - 1) == delimiter, recordSize);
+    if (count <= 0) {
+      return count;
+    }
+    if (dst.remaining() < recordSize * count) {
+      throw new BufferOverflowException();
+    }
+    if (src.hasArray() && dst.hasArray()) {
+      if (decodeAll(src.array(), src.arrayOffset() + src.position(), length, delimiter, recordSize, dst.array(),
+                    dst.arrayOffset() + dst.position()) < 0) {
+        return -1;
+      }
+      src.position(src.limit());
+      dst.position(dst.position() + recordSize * count);
+      return count;
+    }
+    final int stride = encodedLength(recordSize) + 1;
+    final int chunk = Math.min(count, Math.max(1, CHUNK_SIZE / stride));
+    final byte[] ascii = new byte[chunk * stride];
+    final byte[] records = new byte[chunk * recordSize];
+    final int srcPosition = src.position();
+    final int dstPosition = dst.position();
+    var done = 0;
+    while (done < count) {
+      final int nb = Math.min(chunk, count - done);
+      final int size = Math.min(nb * stride, src.remaining());
+      src.get(ascii, 0, size);
+      if (decodeAll(ascii, 0, size, delimiter, recordSize, records, 0) != nb) {
+        src.position(srcPosition);
+        dst.position(dstPosition);
+        return -1;
+      }
+      dst.put(records, 0, nb * recordSize);
+      done += nb;
+    }
+    return count;
+  }
+
+  /**
+   * @return the number of records of the encoded length, or -1 if invalid
+   */
+  private int countRecords(final int length, final boolean trailingDelimiter, final int recordSize) {
+    checkRecords(recordSize, 0);
+    if (length == 0) {
+      return 0;
+    }
+    final int stride = encodedLength(recordSize) + 1;
+    final int full = trailingDelimiter? length : length + 1;
+    return full % stride == 0? full / stride : -1;
+  }
+
+  private static void checkRecords(final int recordSize, final int count) {
+    if (recordSize <= 0 || count < 0) {
+      throw new IllegalArgumentException("Invalid records: " + count + " of " + recordSize + " bytes");
+    }
+  }
+
+  /**
+   * Decode without any bound check, padding being already removed
+   */
+  private int decodeRecord(final byte[] src, final int offset, final int last, final byte[] dst,
+                           final int dstOffset) {
+    final int fullEnd = last - (last - offset) % blockChars;
+    var pos = decodeBlocks(src, offset, fullEnd, dst, dstOffset);
+    if (pos < 0) {
+      return -1;
+    }
+    var i = fullEnd;
+    if (i < last) {
+      long block = 0;
+      var nbBits = 0;
+      while (i < last) {
+        final int value = valueOf(src[i++]);
+        if (value < 0) {
+          return -1;
+        }
+        block = block << bits | value;
+        nbBits += bits;
+      }
+      // Extra low bits are ignored
+      block >>>= nbBits % BYTE_SIZE;
+      for (var shift = (nbBits / BYTE_SIZE - 1) * BYTE_SIZE; shift >= 0; shift -= BYTE_SIZE) {
+        dst[pos++] = (byte) (block >>> shift);
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Encode full blocks, unrolled for each block size
+   */
+  private int encodeBlocks(final byte[] src, final int offset, final int end, final byte[] dst,
+                           final int dstOffset) {
+    final byte[] table = alphabet;
+    var pos = dstOffset;
+    if (blockBytes == 1) {
+      for (var i = offset; i < end; i++) {
+        final int value = src[i] & BYTE_MASK;
+        dst[pos] = table[value >>> 4];
+        dst[pos + 1] = table[value & 0x0F];
+        pos += 2;
+      }
+    } else if (blockBytes == 5) {
+      for (var i = offset; i < end; i += 5) {
+        final long block = (long) (src[i] & BYTE_MASK) << 32 | (long) (src[i + 1] & BYTE_MASK) << 24 |
+                           (src[i + 2] & BYTE_MASK) << 16 | (src[i + 3] & BYTE_MASK) << 8 | src[i + 4] & BYTE_MASK;
+        dst[pos] = table[(int) (block >>> 35) & 0x1F];
+        dst[pos + 1] = table[(int) (block >>> 30) & 0x1F];
+        dst[pos + 2] = table[(int) (block >>> 25) & 0x1F];
+        dst[pos + 3] = table[(int) (block >>> 20) & 0x1F];
+        dst[pos + 4] = table[(int) (block >>> 15) & 0x1F];
+        dst[pos + 5] = table[(int) (block >>> 10) & 0x1F];
+        dst[pos + 6] = table[(int) (block >>> 5) & 0x1F];
+        dst[pos + 7] = table[(int) block & 0x1F];
+        pos += 8;
+      }
+    } else {
+      for (var i = offset; i < end; i += 3) {
+        final int block = (src[i] & BYTE_MASK) << 16 | (src[i + 1] & BYTE_MASK) << 8 | src[i + 2] & BYTE_MASK;
+        dst[pos] = table[block >>> 18];
+        dst[pos + 1] = table[block >>> 12 & 0x3F];
+        dst[pos + 2] = table[block >>> 6 & 0x3F];
+        dst[pos + 3] = table[block & 0x3F];
+        pos += 4;
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Decode full blocks, unrolled for each block size
+   *
+   * @return the offset just after the decoded bytes, or -1 if invalid
+   */
+  private int decodeBlocks(final CharSequence src, final int start, final int end, final byte[] dst,
+                           final int dstOffset) {
+    var pos = dstOffset;
+    if (blockBytes == 1) {
+      for (var i = start; i < end; i += 2) {
+        final int block = valueOf(src.charAt(i)) << 4 | valueOf(src.charAt(i + 1));
+        if (block < 0) {
+          return -1;
+        }
+        dst[pos++] = (byte) block;
+      }
+    } else if (blockBytes == 5) {
+      for (var i = start; i < end; i += 8) {
+        final int high = valueOf(src.charAt(i)) << 15 | valueOf(src.charAt(i + 1)) << 10 |
+                         valueOf(src.charAt(i + 2)) << 5 | valueOf(src.charAt(i + 3));
+        final int low = valueOf(src.charAt(i + 4)) << 15 | valueOf(src.charAt(i + 5)) << 10 |
+                        valueOf(src.charAt(i + 6)) << 5 | valueOf(src.charAt(i + 7));
+        if ((high | low) < 0) {
+          return -1;
+        }
+        dst[pos] = (byte) (high >>> 12);
+        dst[pos + 1] = (byte) (high >>> 4);
+        dst[pos + 2] = (byte) (high << 4 | low >>> 16);
+        dst[pos + 3] = (byte) (low >>> 8);
+        dst[pos + 4] = (byte) low;
+        pos += 5;
+      }
+    } else {
+      for (var i = start; i < end; i += 4) {
+        final int block = valueOf(src.charAt(i)) << 18 | valueOf(src.charAt(i + 1)) << 12 |
+                          valueOf(src.charAt(i + 2)) << 6 | valueOf(src.charAt(i + 3));
+        if (block < 0) {
+          return -1;
+        }
+        dst[pos] = (byte) (block >>> 16);
+        dst[pos + 1] = (byte) (block >>> 8);
+        dst[pos + 2] = (byte) block;
+        pos += 3;
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * Decode full blocks of ASCII bytes, unrolled for each block size
+   *
+   * @return the offset just after the decoded bytes, or -1 if invalid
+   */
+  private int decodeBlocks(final byte[] src, final int start, final int end, final byte[] dst,
+                           final int dstOffset) {
+    var pos = dstOffset;
+    if (blockBytes == 1) {
+      for (var i = start; i < end; i += 2) {
+        final int block = valueOf(src[i]) << 4 | valueOf(src[i + 1]);
+        if (block < 0) {
+          return -1;
+        }
+        dst[pos++] = (byte) block;
+      }
+    } else if (blockBytes == 5) {
+      for (var i = start; i < end; i += 8) {
+        final int high = valueOf(src[i]) << 15 | valueOf(src[i + 1]) << 10 |
+                         valueOf(src[i + 2]) << 5 | valueOf(src[i + 3]);
+        final int low = valueOf(src[i + 4]) << 15 | valueOf(src[i + 5]) << 10 |
+                        valueOf(src[i + 6]) << 5 | valueOf(src[i + 7]);
+        if ((high | low) < 0) {
+          return -1;
+        }
+        dst[pos] = (byte) (high >>> 12);
+        dst[pos + 1] = (byte) (high >>> 4);
+        dst[pos + 2] = (byte) (high << 4 | low >>> 16);
+        dst[pos + 3] = (byte) (low >>> 8);
+        dst[pos + 4] = (byte) low;
+        pos += 5;
+      }
+    } else {
+      for (var i = start; i < end; i += 4) {
+        final int block = valueOf(src[i]) << 18 | valueOf(src[i + 1]) << 12 |
+                          valueOf(src[i + 2]) << 6 | valueOf(src[i + 3]);
+        if (block < 0) {
+          return -1;
+        }
+        dst[pos] = (byte) (block >>> 16);
+        dst[pos + 1] = (byte) (block >>> 8);
+        dst[pos + 2] = (byte) block;
+        pos += 3;
+      }
+    }
+    return pos;
+  }
+
+  /**
+   * @param c one char
+   *
+   * @return its value in this alphabet, or -1 if not in the alphabet
+   */
+  public int valueOf(final char c) {
+    return c < ASCII_SIZE? decodabet[c] : -1;
+  }
+
+  private int valueOf(final byte c) {
+    return c >= 0? decodabet[c] : -1;
+  }
+
+  private int trimPadding(final byte[] src, final int start, final int end) {
+    var last = end;
+    if (padding) {
+      while (last > start && src[last - 1] == PADDING) {
+        last--;
+      }
+    }
+    return last;
+  }
+
+  private int trimPadding(final CharSequence src, final int start, final int end) {
+    var last = end;
+    if (padding) {
+      while (last > start && src.charAt(last - 1) == PADDING) {
+        last--;
+      }
+    }
+    return last;
+  }
+}
@@ -16,20 +16,21 @@
 
 package org.fb.utils.various;
 
-import com.google.common.io.BaseEncoding;
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 
 /**
- * Base16, Base32 and Base64 codecs
+ * Base16, Base32 and Base64 codecs, relying on the table driven BaseCodec
  */
 public final class BaseXx {
   private static final String ARGUMENT_NULL_NOT_ALLOWED = "argument null not allowed";
-  private static final BaseEncoding BASE64 = BaseEncoding.base64().omitPadding();
-  private static final BaseEncoding BASE32 = BaseEncoding.base32().lowerCase().omitPadding();
-  private static final BaseEncoding BASE16 = BaseEncoding.base16().lowerCase().omitPadding();
-  private static final BaseEncoding BASE64STANDARD = BaseEncoding.base64();
-  private static final BaseEncoding BASE64URL = BaseEncoding.base64Url().omitPadding();
-
-  private static final Boolean NOT_NULL = Boolean.TRUE;
+  private static final BaseCodec BASE64 = BaseCodec.BASE64;
+  private static final BaseCodec BASE32 = BaseCodec.BASE32;
+  private static final BaseCodec BASE16 = BaseCodec.BASE16;
+  private static final BaseCodec BASE64STANDARD = BaseCodec.BASE64_PADDING;
+  private static final BaseCodec BASE64URL = BaseCodec.BASE64_URL;
 
   private BaseXx() {
     // empty
@@ -43,8 +44,8 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase16(final byte[] bytes) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
-    return BASE16.encode(bytes);
+    checkNotNull(bytes);
+    return BASE16.encode(bytes, 0, bytes.length);
   }
 
   /**
@@ -57,7 +58,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase16(final byte[] bytes, final int offset, final int size) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
+    checkNotNull(bytes);
     return BASE16.encode(bytes, offset, size);
   }
 
@@ -69,8 +70,8 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase32(final byte[] bytes) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
-    return BASE32.encode(bytes);
+    checkNotNull(bytes);
+    return BASE32.encode(bytes, 0, bytes.length);
   }
 
   /**
@@ -83,7 +84,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase32(final byte[] bytes, final int offset, final int size) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
+    checkNotNull(bytes);
     return BASE32.encode(bytes, offset, size);
   }
 
@@ -95,8 +96,8 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase64(final byte[] bytes) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
-    return BASE64.encode(bytes);
+    checkNotNull(bytes);
+    return BASE64.encode(bytes, 0, bytes.length);
   }
 
   /**
@@ -109,7 +110,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase64(final byte[] bytes, final int offset, final int size) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
+    checkNotNull(bytes);
     return BASE64.encode(bytes, offset, size);
   }
 
@@ -121,8 +122,8 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase64Padding(final byte[] bytes) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
-    return BASE64STANDARD.encode(bytes);
+    checkNotNull(bytes);
+    return BASE64STANDARD.encode(bytes, 0, bytes.length);
   }
 
   /**
@@ -135,7 +136,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase64Padding(final byte[] bytes, final int offset, final int size) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
+    checkNotNull(bytes);
     return BASE64STANDARD.encode(bytes, offset, size);
   }
 
@@ -147,8 +148,8 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase64Url(final byte[] bytes) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
-    return BASE64URL.encode(bytes);
+    checkNotNull(bytes);
+    return BASE64URL.encode(bytes, 0, bytes.length);
   }
 
   /**
@@ -161,10 +162,142 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static String getBase64Url(final byte[] bytes, final int offset, final int size) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, bytes, NOT_NULL);
+    checkNotNull(bytes);
     return BASE64URL.encode(bytes, offset, size);
   }
 
+  /**
+   * Bulk encoding of count contiguous records, each one as getBase16(records,
+   * offset + i * recordSize, recordSize), separated by delimiter
+   *
+   * @param records records to encode
+   * @param offset offset of the first record
+   * @param recordSize size of one record
+   * @param count number of records
+   * @param dst destination array of ASCII chars
+   * @param dstOffset offset in dst
+   * @param delimiter the delimiter (not part of the alphabet)
+   *
+   * @return the offset in dst just after the last encoded record
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws IndexOutOfBoundsException if out of records or dst
+   */
+  public static int getBase16(final byte[] records, final int offset, final int recordSize, final int count,
+                              final byte[] dst, final int dstOffset, final byte delimiter) {
+    checkNotNull(records);
+    checkNotNull(dst);
+    return BASE16.encodeAll(records, offset, recordSize, count, dst, dstOffset, delimiter);
+  }
+
+  /**
+   * Bulk encoding of all records between position and limit of records
+   * into dst, separated by delimiter (both buffers being moved forward)
+   *
+   * @param records records to encode (whole records only)
+   * @param recordSize size of one record
+   * @param dst destination of ASCII chars
+   * @param delimiter the delimiter (not part of the alphabet)
+   *
+   * @return the number of encoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws BufferOverflowException if not enough remaining space in dst
+   */
+  public static int getBase16(final ByteBuffer records, final int recordSize, final ByteBuffer dst,
+                              final byte delimiter) {
+    checkNotNull(records, dst);
+    return BASE16.encodeAll(records, recordSize, dst, delimiter);
+  }
+
+  /**
+   * Bulk encoding of count contiguous records, each one as getBase32(records,
+   * offset + i * recordSize, recordSize), separated by delimiter
+   *
+   * @param records records to encode
+   * @param offset offset of the first record
+   * @param recordSize size of one record
+   * @param count number of records
+   * @param dst destination array of ASCII chars
+   * @param dstOffset offset in dst
+   * @param delimiter the delimiter (not part of the alphabet)
+   *
+   * @return the offset in dst just after the last encoded record
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws IndexOutOfBoundsException if out of records or dst
+   */
+  public static int getBase32(final byte[] records, final int offset, final int recordSize, final int count,
+                              final byte[] dst, final int dstOffset, final byte delimiter) {
+    checkNotNull(records);
+    checkNotNull(dst);
+    return BASE32.encodeAll(records, offset, recordSize, count, dst, dstOffset, delimiter);
+  }
+
+  /**
+   * Bulk encoding of all records between position and limit of records
+   * into dst, separated by delimiter (both buffers being moved forward)
+   *
+   * @param records records to encode (whole records only)
+   * @param recordSize size of one record
+   * @param dst destination of ASCII chars
+   * @param delimiter the delimiter (not part of the alphabet)
+   *
+   * @return the number of encoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws BufferOverflowException if not enough remaining space in dst
+   */
+  public static int getBase32(final ByteBuffer records, final int recordSize, final ByteBuffer dst,
+                              final byte delimiter) {
+    checkNotNull(records, dst);
+    return BASE32.encodeAll(records, recordSize, dst, delimiter);
+  }
+
+  /**
+   * Bulk encoding of count contiguous records, each one as getBase64(records,
+   * offset + i * recordSize, recordSize), separated by delimiter
+   *
+   * @param records records to encode
+   * @param offset offset of the first record
+   * @param recordSize size of one record
+   * @param count number of records
+   * @param dst destination array of ASCII chars
+   * @param dstOffset offset in dst
+   * @param delimiter the delimiter (not part of the alphabet)
+   *
+   * @return the offset in dst just after the last encoded record
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws IndexOutOfBoundsException if out of records or dst
+   */
+  public static int getBase64(final byte[] records, final int offset, final int recordSize, final int count,
+                              final byte[] dst, final int dstOffset, final byte delimiter) {
+    checkNotNull(records);
+    checkNotNull(dst);
+    return BASE64.encodeAll(records, offset, recordSize, count, dst, dstOffset, delimiter);
+  }
+
+  /**
+   * Bulk encoding of all records between position and limit of records
+   * into dst, separated by delimiter (both buffers being moved forward)
+   *
+   * @param records records to encode (whole records only)
+   * @param recordSize size of one record
+   * @param dst destination of ASCII chars
+   * @param delimiter the delimiter (not part of the alphabet)
+   *
+   * @return the number of encoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws BufferOverflowException if not enough remaining space in dst
+   */
+  public static int getBase64(final ByteBuffer records, final int recordSize, final ByteBuffer dst,
+                              final byte delimiter) {
+    checkNotNull(records, dst);
+    return BASE64.encodeAll(records, recordSize, dst, delimiter);
+  }
+
   /**
    * @param base16 to transform
    *
@@ -173,8 +306,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static byte[] getFromBase16(final String base16) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, base16);
-    return BASE16.decode(base16);
+    return decode(BASE16, base16);
   }
 
   /**
@@ -185,8 +317,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static byte[] getFromBase32(final String base32) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, base32);
-    return BASE32.decode(base32);
+    return decode(BASE32, base32);
   }
 
   /**
@@ -197,8 +328,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static byte[] getFromBase64(final String base64) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, base64);
-    return BASE64.decode(base64);
+    return decode(BASE64, base64);
   }
 
   /**
@@ -209,8 +339,7 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static byte[] getFromBase64Padding(final String base64) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, base64);
-    return BASE64STANDARD.decode(base64);
+    return decode(BASE64STANDARD, base64);
   }
 
   /**
@@ -221,7 +350,168 @@ public final class BaseXx {
    * @throws IllegalArgumentException if argument is not compatible
    */
   public static byte[] getFromBase64Url(final String base64) {
-    ParametersChecker.checkParameter(ARGUMENT_NULL_NOT_ALLOWED, base64);
-    return BASE64URL.decode(base64);
+    return decode(BASE64URL, base64);
+  }
+
+  /**
+   * Bulk decoding of records of recordSize bytes, as encoded by
+   * getBase16(records...)
+   *
+   * @param ascii encoded records as ASCII bytes
+   * @param offset offset in ascii
+   * @param length length of the encoded records
+   * @param delimiter the delimiter (not part of the alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination array
+   * @param dstOffset offset in dst
+   *
+   * @return the number of decoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws IndexOutOfBoundsException if out of ascii or dst
+   */
+  public static int getFromBase16(final byte[] ascii, final int offset, final int length, final byte delimiter,
+                                  final int recordSize, final byte[] dst, final int dstOffset) {
+    checkNotNull(ascii);
+    checkNotNull(dst);
+    return checkDecoded(BASE16.decodeAll(ascii, offset, length, delimiter, recordSize, dst, dstOffset));
+  }
+
+  /**
+   * Bulk decoding of records of recordSize bytes between position and limit
+   * of ascii into dst (both buffers being moved forward)
+   *
+   * @param ascii encoded records as ASCII bytes
+   * @param delimiter the delimiter (not part of the alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination of decoded records
+   *
+   * @return the number of decoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws BufferOverflowException if not enough remaining space in dst
+   */
+  public static int getFromBase16(final ByteBuffer ascii, final byte delimiter, final int recordSize,
+                                  final ByteBuffer dst) {
+    checkNotNull(ascii, dst);
+    return checkDecoded(BASE16.decodeAll(ascii, delimiter, recordSize, dst));
+  }
+
+  /**
+   * Bulk decoding of records of recordSize bytes, as encoded by
+   * getBase32(records...)
+   *
+   * @param ascii encoded records as ASCII bytes
+   * @param offset offset in ascii
+   * @param length length of the encoded records
+   * @param delimiter the delimiter (not part of the alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination array
+   * @param dstOffset offset in dst
+   *
+   * @return the number of decoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws IndexOutOfBoundsException if out of ascii or dst
+   */
+  public static int getFromBase32(final byte[] ascii, final int offset, final int length, final byte delimiter,
+                                  final int recordSize, final byte[] dst, final int dstOffset) {
+    checkNotNull(ascii);
+    checkNotNull(dst);
+    return checkDecoded(BASE32.decodeAll(ascii, offset, length, delimiter, recordSize, dst, dstOffset));
+  }
+
+  /**
+   * Bulk decoding of records of recordSize bytes between position and limit
+   * of ascii into dst (both buffers being moved forward)
+   *
+   * @param ascii encoded records as ASCII bytes
+   * @param delimiter the delimiter (not part of the alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination of decoded records
+   *
+   * @return the number of decoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws BufferOverflowException if not enough remaining space in dst
+   */
+  public static int getFromBase32(final ByteBuffer ascii, final byte delimiter, final int recordSize,
+                                  final ByteBuffer dst) {
+    checkNotNull(ascii, dst);
+    return checkDecoded(BASE32.decodeAll(ascii, delimiter, recordSize, dst));
+  }
+
+  /**
+   * Bulk decoding of records of recordSize bytes, as encoded by
+   * getBase64(records...)
+   *
+   * @param ascii encoded records as ASCII bytes
+   * @param offset offset in ascii
+   * @param length length of the encoded records
+   * @param delimiter the delimiter (not part of the alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination array
+   * @param dstOffset offset in dst
+   *
+   * @return the number of decoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws IndexOutOfBoundsException if out of ascii or dst
+   */
+  public static int getFromBase64(final byte[] ascii, final int offset, final int length, final byte delimiter,
+                                  final int recordSize, final byte[] dst, final int dstOffset) {
+    checkNotNull(ascii);
+    checkNotNull(dst);
+    return checkDecoded(BASE64.decodeAll(ascii, offset, length, delimiter, recordSize, dst, dstOffset));
+  }
+
+  /**
+   * Bulk decoding of records of recordSize bytes between position and limit
+   * of ascii into dst (both buffers being moved forward)
+   *
+   * @param ascii encoded records as ASCII bytes
+   * @param delimiter the delimiter (not part of the alphabet)
+   * @param recordSize size of one decoded record
+   * @param dst destination of decoded records
+   *
+   * @return the number of decoded records
+   *
+   * @throws IllegalArgumentException if argument is not compatible
+   * @throws BufferOverflowException if not enough remaining space in dst
+   */
+  public static int getFromBase64(final ByteBuffer ascii, final byte delimiter, final int recordSize,
+                                  final ByteBuffer dst) {
+    checkNotNull(ascii, dst);
+    return checkDecoded(BASE64.decodeAll(ascii, delimiter, recordSize, dst));
+  }
+
+  private static void checkNotNull(final byte[] bytes) {
+    if (bytes == null) {
+      throw new InvalidArgumentRuntimeException(ARGUMENT_NULL_NOT_ALLOWED);
+    }
+  }
+
+  private static void checkNotNull(final ByteBuffer src, final ByteBuffer dst) {
+    if (src == null || dst == null) {
+      throw new InvalidArgumentRuntimeException(ARGUMENT_NULL_NOT_ALLOWED);
+    }
+  }
+
+  private static int checkDecoded(final int count) {
+    if (count < 0) {
+      throw new IllegalArgumentException("Invalid encoded records");
+    }
+    return count;
+  }
+
+  private static byte[] decode(final BaseCodec codec, final String encoded) {
+    if (encoded == null || encoded.isBlank()) {
+      throw new InvalidArgumentRuntimeException(ARGUMENT_NULL_NOT_ALLOWED);
+    }
+    final byte[] bytes = codec.decode(encoded);
+    if (bytes == null) {
+      throw new IllegalArgumentException("Invalid encoded form: " + encoded);
+    }
+    return bytes;
   }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.exceptions;
+
+import org.fb.utils.guid.GUID;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InvalidArgumentRuntimeExceptionTest {
+  @Test
+  public void testStackTrace() {
+    assertTrue(InvalidArgumentRuntimeException.isStackTrace());
+    assertTrue(new InvalidArgumentRuntimeException("test").getStackTrace().length > 0);
+    InvalidArgumentRuntimeException.setStackTrace(false);
+    try {
+      assertFalse(InvalidArgumentRuntimeException.isStackTrace());
+      final InvalidArgumentRuntimeException exception =
+          assertThrows(InvalidArgumentRuntimeException.class, () -> new GUID("wrong"));
+      assertEquals(0, exception.getStackTrace().length);
+      assertTrue(exception.getMessage().contains("wrong"));
+      final Throwable cause = new IllegalStateException();
+      assertSame(cause, new InvalidArgumentRuntimeException("test", cause).getCause());
+    } finally {
+      InvalidArgumentRuntimeException.setStackTrace(true);
+    }
+    assertTrue(new InvalidArgumentRuntimeException("test").getStackTrace().length > 0);
+  }
+}
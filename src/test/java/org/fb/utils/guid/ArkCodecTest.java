@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ArkCodecTest {
+  @Test
+  public void testDecimal() {
+    final Random random = new Random(10);
+    final long[] values = {
+        0, 1, -1, 9, 10, -10, 99, 100, Integer.MIN_VALUE, Integer.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE
+    };
+    final byte[] dst = new byte[22];
+    for (var i = 0; i < 10000; i++) {
+      final long value = i < values.length? values[i] : random.nextLong() >> random.nextInt(64);
+      final String expected = Long.toString(value);
+      assertEquals(expected.length(), ArkCodec.decimalLength(value));
+      assertEquals(expected.length() + 1, ArkCodec.writeDecimal(value, dst, 1));
+      assertEquals(expected, new String(dst, 1, expected.length(), StandardCharsets.US_ASCII));
+      final String ark = "ark:/" + expected + "/x";
+      assertEquals(ark.length() - 2,
+                   ArkCodec.parseTenant(ark, 0, ark.length(), Long.MIN_VALUE, Long.MAX_VALUE, dst, 0, Long.BYTES));
+      long parsed = 0;
+      for (var k = 0; k < Long.BYTES; k++) {
+        parsed = parsed << 8 | dst[k] & 0xFF;
+      }
+      assertEquals(value, parsed);
+    }
+  }
+
+  @Test
+  public void testInvalidTenant() {
+    final byte[] dst = new byte[8];
+    for (final String ark : new String[] {
+        "ark:/", "ark://x", "ark:/-/x", "ark:/+/x", "ark:/12", "ark:/1a/x", "ark:/9223372036854775808/x",
+        "ark:/-9223372036854775809/x", "ark:/ 1/x"
+    }) {
+      assertEquals(-1, ArkCodec.parseTenant(ark, 0, ark.length(), Long.MIN_VALUE, Long.MAX_VALUE, dst, 0, 8), ark);
+    }
+    assertEquals(-1, ArkCodec.parseTenant("ark:/32768/x", 0, 12, Short.MIN_VALUE, Short.MAX_VALUE, dst, 0, 2));
+    assertEquals(11, ArkCodec.parseTenant("ark:/-32768/x", 0, 13, Short.MIN_VALUE, Short.MAX_VALUE, dst, 0, 2));
+    assertEquals(10, ArkCodec.parseTenant("ark:/+1234/x", 0, 12, Short.MIN_VALUE, Short.MAX_VALUE, dst, 0, 2));
+  }
+}
@@ -18,10 +18,20 @@ package org.fb.utils.guid;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
 import org.fb.utils.json.JsonHandler;
+import org.fb.utils.various.BaseCodec;
+import org.fb.utils.various.BaseXx;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -255,6 +265,24 @@ public class GUIDTest {
   }
 
 
+  @Test
+  public void testMonotonic() {
+    GUID.setMonotonic(true);
+    try {
+      assertTrue(GUID.isMonotonic());
+      GUID previous = new GUID();
+      for (int i = 0; i < NB; i++) {
+        final GUID guid = new GUID();
+        assertTrue(previous.compareTo(guid) < 0);
+        previous = guid;
+      }
+      assertTrue(GUID.getClockLead() >= 0);
+      assertTrue(GUID.getClockMaxLead() >= 0);
+    } finally {
+      GUID.setMonotonic(false);
+    }
+  }
+
   @Test
   public void concurrentGeneration() throws Exception {
     final int numThreads = 10;
@@ -299,4 +327,220 @@ public class GUIDTest {
       }
     }
   }
+
+  @Test
+  public void testWriteTo() {
+    final GUID id = new GUID(-5, 12);
+    final byte[] written = IdAssertions.assertWriteTo(id, GUID.getKeySize(), GUID::new, GUID::writeTo, GUID::writeTo,
+                                                      GUID::generateInto);
+    assertArrayEquals(id.getBytes(), written);
+    final GUID generated = new GUID(GUID.generateInto(ByteBuffer.allocate(GUID.getKeySize()), -5, 12).array());
+    assertEquals(-5, generated.getTenantId());
+    assertEquals(12, generated.getPlatformId());
+  }
+
+  @Test
+  public void testParseRange() {
+    final GUID id = new GUID(-5, 12);
+    for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+      IdAssertions.assertParse(id, form, GUID::parse, GUID::parseAscii, GUID::parseAscii);
+    }
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parse(WRONG_ARK1, 0, WRONG_ARK1.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parse(WRONG_ARK2, 0, WRONG_ARK2.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parse(WRONG_ARK3, 0, WRONG_ARK3.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parse(BASE32, 1, BASE32.length()));
+    final byte[] wrong = WRONG_ARK1.getBytes(StandardCharsets.US_ASCII);
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parseAscii(wrong, 0, wrong.length));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parseAscii(ByteBuffer.wrap(wrong)));
+  }
+
+  @Test
+  public void testTryParse() {
+    final GUID id = new GUID(-5, 12);
+    for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+      IdAssertions.assertTryParse(id, form, GUID::tryParse, GUID::tryParse);
+    }
+    assertNull(GUID.tryParse(WRONG_ARK1));
+    assertNull(GUID.tryParse(WRONG_ARK2));
+    assertNull(GUID.tryParse(WRONG_ARK3));
+    assertNull(GUID.tryParse(WRONG_STRING_ID));
+    // Tenant out of range
+    assertNull(GUID.tryParse("ark:/4294967296/" + id.toArkName()));
+    assertNull(GUID.tryParse("ark:/-/" + id.toArkName()));
+    // Incorrect version
+    final byte[] bytes = id.getBytes();
+    bytes[0] = 2;
+    assertNull(GUID.tryParse(BaseXx.getBase32(bytes)));
+  }
+
+  @Test
+  public void testCacheStrings() throws JsonProcessingException {
+    final GUID id = new GUID(5, 12);
+    final String[] forms = { id.toString(), id.toBase64(), id.toHex(), id.toArk() };
+    assertFalse(GUID.isCacheStrings());
+    assertNotSame(id.toString(), id.toString());
+    GUID.setCacheStrings(true);
+    try {
+      assertSame(id.toString(), id.toString());
+      assertSame(id.toBase32(), id.getId());
+      assertSame(id.toBase64(), id.toBase64());
+      assertSame(id.toHex(), id.toHex());
+      assertSame(id.toArk(), id.toArk());
+      assertArrayEquals(forms, new String[] { id.toString(), id.toBase64(), id.toHex(), id.toArk() });
+      final String json = JsonHandler.writeAsString(id);
+      assertEquals(id, JsonHandler.getFromString(json, GUID.class));
+    } finally {
+      GUID.setCacheStrings(false);
+    }
+    assertArrayEquals(forms, new String[] { id.toString(), id.toBase64(), id.toHex(), id.toArk() });
+  }
+
+  @Test
+  public void testSortable() {
+    final GUID id = new GUID(-5, 12);
+    final String sortable = id.toSortable();
+    assertEquals(GUID.KEYB32SIZE, sortable.length());
+    assertEquals(id, GUID.parseSortable(sortable));
+    assertEquals(id, GUID.parseSortable(" " + sortable.toLowerCase() + " "));
+    assertEquals(id, GUID.tryParseSortable(sortable));
+    assertNull(GUID.tryParseSortable(sortable.substring(1)));
+    assertNull(GUID.tryParseSortable('U' + sortable.substring(1)));
+    assertNull(GUID.tryParseSortable(id.toBase32()));
+    assertNull(GUID.tryParseSortable(null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parseSortable(sortable.substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.parseSortable(null));
+    // String order is compareTo order, whatever the sign of the tenant, even
+    // on ties of Tenant, Time and Counter
+    final Random random = new Random(GUID.KEYSIZE);
+    final GUID[] ids = new GUID[1000];
+    final String[] sortables = new String[ids.length];
+    final byte[] bytes = new byte[GUID.KEYSIZE];
+    for (var i = 0; i < ids.length; i++) {
+      random.nextBytes(bytes);
+      bytes[GUID.HEADER_POS] = (byte) VERSION;
+      if (i > 0 && random.nextBoolean()) {
+        // Same Tenant, and maybe same Time, than previous one
+        final int same = random.nextBoolean()? GUID.TENANT_SIZE : GUID.COUNTER_POS - GUID.TENANT_POS;
+        System.arraycopy(ids[i - 1].getBytes(), GUID.TENANT_POS, bytes, GUID.TENANT_POS, same);
+      }
+      if (i > 0 && random.nextInt(4) == 0) {
+        // Same Tenant, Time and Counter, only the other fields differ
+        final byte[] previous = ids[i - 1].getBytes();
+        System.arraycopy(previous, GUID.TENANT_POS, bytes, GUID.TENANT_POS, GUID.TENANT_SIZE);
+        System.arraycopy(previous, GUID.TIME_POS, bytes, GUID.TIME_POS, GUID.KEYSIZE - GUID.TIME_POS);
+      }
+      ids[i] = new GUID(bytes);
+      sortables[i] = ids[i].toSortable();
+      assertEquals(ids[i], GUID.parseSortable(sortables[i]));
+    }
+    for (var i = 0; i < ids.length; i++) {
+      for (var j = 0; j < ids.length; j++) {
+        assertEquals(Integer.signum(ids[i].compareTo(ids[j])), Integer.signum(sortables[i].compareTo(sortables[j])));
+      }
+    }
+  }
+
+  @Test
+  public void testBulkEncoding() {
+    final List<GUID> ids = new ArrayList<>();
+    for (var i = 0; i < 1000; i++) {
+      ids.add(new GUID(i, 12));
+    }
+    final byte[] base32 = GUID.encodeAll(ids, BaseCodec.BASE32, (byte) '\n');
+    final String[] lines = new String(base32, StandardCharsets.US_ASCII).split("\n");
+    assertEquals(ids.size(), lines.length);
+    for (var i = 0; i < lines.length; i++) {
+      assertEquals(ids.get(i).toBase32(), lines[i]);
+    }
+    assertEquals(ids, GUID.decodeAll(base32, 0, base32.length, BaseCodec.BASE32, (byte) '\n').asList());
+    // Directly from the arena of a batch
+    final GuidBatch<GUID> batch = GUID.generate(100);
+    final byte[] hex = GUID.encodeAll(batch.asList(), BaseCodec.BASE16, (byte) ',');
+    assertEquals(batch.get(99).toHex(), new String(hex, StandardCharsets.US_ASCII).split(",")[99]);
+    assertArrayEquals(batch.getArena(), GUID.decodeAll(hex, 0, hex.length, BaseCodec.BASE16, (byte) ',').getArena());
+    assertEquals(0, GUID.encodeAll(new ArrayList<>(), BaseCodec.BASE64, (byte) ',').length);
+    hex[0] = 'f';
+    assertThrows(InvalidArgumentRuntimeException.class,
+                 () -> GUID.decodeAll(hex, 0, hex.length, BaseCodec.BASE16, (byte) ','));
+    assertThrows(InvalidArgumentRuntimeException.class,
+                 () -> GUID.decodeAll(hex, 0, hex.length - 1, BaseCodec.BASE16, (byte) ','));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.encodeAll(null, BaseCodec.BASE64, (byte) ','));
+  }
+
+  @Test
+  public void testArkWriting() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    final byte[] bytes = new byte[100];
+    final ByteBuffer direct = ByteBuffer.allocateDirect(100);
+    for (final int tenant : new int[] { 0, 1, -1, 123456, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+      final GUID id = new GUID(tenant, 12);
+      final String ark = id.toArk();
+      assertEquals("ark:/" + tenant + '/' + id.toArkName(), ark);
+      assertEquals(ark.length(), id.getArkLength());
+      builder.setLength(0);
+      assertEquals(ark, id.appendArk(builder).toString());
+      assertEquals(ark, id.appendArk((Appendable) new StringBuilder()).toString());
+      assertEquals(ark.length() + 3, id.writeArk(bytes, 3));
+      assertEquals(ark, new String(bytes, 3, ark.length(), StandardCharsets.US_ASCII));
+      direct.clear();
+      id.writeArk(direct).flip();
+      assertEquals(ark, StandardCharsets.US_ASCII.decode(direct).toString());
+      assertEquals(id, GUID.parseAscii(bytes, 3, ark.length()));
+      assertEquals(id, new GUID(ark));
+    }
+    final GUID id = new GUID();
+    assertThrows(IndexOutOfBoundsException.class, () -> id.writeArk(new byte[id.getArkLength() - 1], 0));
+    assertThrows(BufferOverflowException.class, () -> id.writeArk(ByteBuffer.allocate(id.getArkLength() - 1)));
+  }
+
+  @Test
+  public void testFieldsOf() {
+    for (final int tenant : new int[] { 0, 1, -1, 123456, Integer.MIN_VALUE, Integer.MAX_VALUE }) {
+      final GUID id = new GUID(tenant, 12);
+      for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+        assertEquals(id.getTimestamp(), GUID.timestampOf(form));
+        assertEquals(tenant, GUID.tenantOf(form));
+        final String line = "ts=" + form + " ";
+        assertEquals(id.getTimestamp(), GUID.timestampOf(line, 3, line.length()));
+        assertEquals(tenant, GUID.tenantOf(line, 3, line.length()));
+      }
+    }
+    final GUID id = new GUID();
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.timestampOf(id.toHex().substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.tenantOf(new TinyGUID().toBase64()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.tenantOf("ark:/12/" + id.toBase32()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.timestampOf(null));
+    assertThrows(IndexOutOfBoundsException.class, () -> GUID.timestampOf(id.toHex(), 0, 100));
+    // Wrong version
+    final byte[] bytes = id.getBytes();
+    bytes[0]++;
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.timestampOf(BaseXx.getBase32(bytes)));
+  }
+
+  @Test
+  public void testPrimitiveFields() {
+    final Random random = new Random(21);
+    final byte[] bytes = new byte[21];
+    final ByteBuffer little = ByteBuffer.allocate(21).order(ByteOrder.LITTLE_ENDIAN);
+    for (var i = 0; i < 1000; i++) {
+      random.nextBytes(bytes);
+      bytes[0] = 1;
+      final GUID id = new GUID(bytes);
+      assertArrayEquals(bytes, id.getBytes());
+      assertEquals(BaseXx.getBase16(bytes), id.toHex());
+      assertEquals(BaseXx.getBase32(bytes), id.toBase32());
+      assertEquals(BaseXx.getBase64(bytes), id.toBase64());
+      little.clear();
+      id.writeTo(little);
+      assertArrayEquals(bytes, little.array());
+      assertEquals(id, GUID.parse(id.toArk(), 0, id.toArk().length()));
+      assertEquals(id, GUID.parseSortable(id.toSortable()));
+      assertEquals(id.hashCode(), new GUID(bytes).hashCode());
+    }
+  }
+
+  @Test
+  public void testHashDistribution() {
+    IdAssertions.assertHashDistribution(GUID.generate(IdAssertions.HASH_IDS).asList().iterator()::next);
+  }
 }
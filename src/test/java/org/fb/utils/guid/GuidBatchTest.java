@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuidBatchTest {
+  private static final int NB = 100000;
+
+  @Test
+  public void testGUIDBatch() {
+    final GuidBatch<GUID> batch = GUID.generate(NB, 5, 12);
+    assertEquals(NB, batch.size());
+    assertEquals(GUID.KEYSIZE, batch.getKeySize());
+    assertEquals(NB * GUID.KEYSIZE, batch.getArena().length);
+    assertEquals(NB * GUID.KEYSIZE, batch.asByteBuffer().remaining());
+    final Set<GUID> set = new HashSet<>(NB);
+    for (final GUID guid : batch.asList()) {
+      assertEquals(5, guid.getTenantId());
+      assertEquals(12, guid.getPlatformId());
+      assertEquals(guid, new GUID(guid.toString()));
+      set.add(guid);
+    }
+    assertEquals(NB, set.size());
+    assertArrayEquals(batch.get(NB - 1).getBytes(), batch.getBytes(NB - 1));
+    // Mixed with single generation
+    assertTrue(set.add(new GUID(5, 12)));
+  }
+
+  @Test
+  public void testTinyGUIDBatch() {
+    final GuidBatch<TinyGUID> batch = TinyGUID.generate(NB, (short) 5, 12);
+    final Set<TinyGUID> set = new HashSet<>(NB);
+    for (int i = 0; i < batch.size(); i++) {
+      final TinyGUID guid = batch.get(i);
+      assertEquals(5, guid.getTenantId());
+      assertEquals(12, guid.getPlatformId());
+      assertEquals(guid, new TinyGUID(guid.toString()));
+      set.add(guid);
+    }
+    assertEquals(NB, set.size());
+    assertEquals(NB, new HashSet<>(TinyGUID.generate(NB).asList()).size());
+  }
+
+  @Test
+  public void testGuidBatch() {
+    for (final GuidFactory.GUID_CONFIGURATION configuration : GuidFactory.GUID_CONFIGURATION.values()) {
+      final GuidFactory factory = new GuidFactory().useConfiguration(configuration);
+      // More than the counter range of SMALLEST
+      final GuidBatch<Guid> batch = factory.newGuids(NB);
+      assertEquals(factory.getKeySize(), batch.getKeySize());
+      final List<Guid> list = batch.asList();
+      final Set<Guid> set = new HashSet<>(list);
+      assertEquals(NB, set.size(), configuration.name());
+      for (final Guid guid : list.subList(0, 100)) {
+        assertEquals(guid, factory.getGuid(guid.toString()));
+      }
+    }
+  }
+
+  @Test
+  public void testBatchOverCounterRange() {
+    // Frozen time: later chunks of counter range borrow next milliseconds
+    final ManualTimeSource timeSource = new ManualTimeSource(1000000000L);
+    final GuidFactory factory =
+        new GuidFactory().useConfiguration(GuidFactory.GUID_CONFIGURATION.SMALLEST).setTimeSource(timeSource);
+    final List<Guid> list = factory.newGuids(NB).asList();
+    assertEquals(NB, new HashSet<>(list).size());
+    assertEquals(1000000000L, list.get(0).getTimestamp());
+    assertEquals(1000000000L + (NB - 1) / (GuidFactory.MAX_SHORT - GuidFactory.MIN_COUNTER + 1),
+                 list.get(NB - 1).getTimestamp());
+  }
+
+  @Test
+  public void testMonotonicBatch() {
+    GUID.setMonotonic(true);
+    try {
+      final List<GUID> list = GUID.generate(NB).asList();
+      for (int i = 1; i < list.size(); i++) {
+        assertTrue(list.get(i - 1).compareTo(list.get(i)) < 0);
+      }
+    } finally {
+      GUID.setMonotonic(false);
+    }
+    final GuidFactory factory = new GuidFactory().setMonotonic(true);
+    final List<Guid> list = factory.newGuids(NB).asList();
+    assertEquals(NB, new HashSet<>(list).size());
+    for (int i = 1; i < list.size(); i++) {
+      assertTrue(list.get(i - 1).compareTo(list.get(i)) < 0);
+    }
+  }
+
+  @Test
+  public void testInvalidBatch() {
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.generate(0));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.generate(-1));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> new GuidFactory().newGuids(0));
+    final GuidBatch<GUID> batch = GUID.generate(1);
+    assertThrows(IndexOutOfBoundsException.class, () -> batch.get(1));
+    assertThrows(UnsupportedOperationException.class, () -> batch.asList().add(new GUID()));
+  }
+}
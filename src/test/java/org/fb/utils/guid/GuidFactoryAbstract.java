@@ -18,14 +18,21 @@ package org.fb.utils.guid;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
 import org.fb.utils.guid.GuidFactory.Guid;
+import org.fb.utils.various.BaseCodec;
 import org.fb.utils.various.SysErrLogger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -50,6 +57,7 @@ public abstract class GuidFactoryAbstract {
 
   @BeforeEach
   public void setup() {
+    guidFactory.setStriped(false).setMonotonic(false).setTimeFirst(false);
     setupGuidFactory();
     final Guid ref = guidFactory.newGuid(10);
     BASE16 = ref.toHex();
@@ -353,4 +361,180 @@ public abstract class GuidFactoryAbstract {
       }
     }
   }
+
+  @Test
+  public void testWriteTo() {
+    final Guid id = guidFactory.newGuid();
+    final byte[] written = IdAssertions.assertWriteTo(id, guidFactory.getKeySize(), guidFactory::getGuid, Guid::writeTo,
+                                                      Guid::writeTo, guidFactory::generateInto);
+    assertArrayEquals(id.getBytes(), written);
+    // Same layout as the factory, ordered after the id
+    final Guid generated = guidFactory.getGuid(guidFactory.generateInto(ByteBuffer.allocate(written.length)).array());
+    assertEquals(guidFactory.getKeySize(), generated.getKeySize());
+    assertTrue(id.compareTo(generated) < 0);
+    // Parsed Guid (internal array possibly bigger) equals and same hash
+    final Guid parsed = guidFactory.getGuid(id.toString());
+    assertEquals(id, parsed);
+    assertEquals(parsed, id);
+    assertEquals(id.hashCode(), parsed.hashCode());
+    assertEquals(GuidFactory.parse(id.toArk(), 0, id.toArk().length()).hashCode(), id.hashCode());
+  }
+
+  @Test
+  public void testParseRange() {
+    final Guid id = guidFactory.newGuid(5);
+    for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+      IdAssertions.assertParse(id, form, GuidFactory::parse, GuidFactory::parseAscii, GuidFactory::parseAscii);
+    }
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parse(WRONG_ARK1, 0, WRONG_ARK1.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parse(WRONG_ARK2, 0, WRONG_ARK2.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parse(WRONG_ARK3, 0, WRONG_ARK3.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parse(BASE32, 1, BASE32.length()));
+    final byte[] wrong = WRONG_ARK1.getBytes(StandardCharsets.US_ASCII);
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parseAscii(wrong, 0, wrong.length));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parseAscii(ByteBuffer.wrap(wrong)));
+  }
+
+  @Test
+  public void testTryParse() {
+    final Guid id = guidFactory.newGuid(5);
+    for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+      IdAssertions.assertTryParse(id, form, GuidFactory::tryParse, GuidFactory::tryParse);
+    }
+    assertNull(GuidFactory.tryParse(WRONG_ARK1));
+    assertNull(GuidFactory.tryParse(WRONG_ARK2));
+    assertNull(GuidFactory.tryParse(WRONG_ARK3));
+    assertNull(GuidFactory.tryParse(WRONG_STRING_ID));
+    assertNull(GuidFactory.tryParse("ark:/5/!" + id.toArkName().substring(1)));
+  }
+
+  @Test
+  public void testSortable() {
+    final Guid id = guidFactory.newGuid(5);
+    final String sortable = id.toSortable();
+    assertEquals(id, GuidFactory.parseSortable(sortable));
+    assertEquals(id, GuidFactory.parseSortable(" " + sortable.toLowerCase() + " "));
+    assertEquals(id, GuidFactory.tryParseSortable(sortable));
+    assertNull(GuidFactory.tryParseSortable(sortable.substring(1)));
+    assertNull(GuidFactory.tryParseSortable(sortable.substring(0, sortable.length() - 1) + 'U'));
+    assertNull(GuidFactory.tryParseSortable(""));
+    assertNull(GuidFactory.tryParseSortable(null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parseSortable(sortable.substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.parseSortable(null));
+    // String order is compareTo order
+    final int keySize = guidFactory.getKeySize();
+    final int timePos = keySize - guidFactory.getCounterSize() - guidFactory.getTimeSize();
+    final Random random = new Random(keySize);
+    final Guid[] ids = new Guid[1000];
+    final String[] sortables = new String[ids.length];
+    final byte[] bytes = new byte[keySize];
+    for (var i = 0; i < ids.length; i++) {
+      random.nextBytes(bytes);
+      System.arraycopy(id.getBytes(), 0, bytes, 0, GuidFactory.HEADER_SIZE);
+      if (i > 0 && random.nextBoolean()) {
+        // Same Tenant, and maybe same Time, than previous one
+        final byte[] previous = ids[i - 1].getBytes();
+        System.arraycopy(previous, GuidFactory.TENANT_POS, bytes, GuidFactory.TENANT_POS,
+                         guidFactory.getTenantSize());
+        if (random.nextBoolean()) {
+          System.arraycopy(previous, timePos, bytes, timePos, guidFactory.getTimeSize());
+        }
+      }
+      if (i > 0 && random.nextInt(4) == 0) {
+        // Same Tenant, Time and Counter, only the other fields differ
+        final byte[] previous = ids[i - 1].getBytes();
+        System.arraycopy(previous, GuidFactory.TENANT_POS, bytes, GuidFactory.TENANT_POS,
+                         guidFactory.getTenantSize());
+        System.arraycopy(previous, timePos, bytes, timePos, keySize - timePos);
+      }
+      ids[i] = guidFactory.getGuid(bytes);
+      sortables[i] = ids[i].toSortable();
+      assertEquals(ids[i], GuidFactory.parseSortable(sortables[i]));
+    }
+    for (var i = 0; i < ids.length; i++) {
+      for (var j = 0; j < ids.length; j++) {
+        assertEquals(Integer.signum(ids[i].compareTo(ids[j])), Integer.signum(sortables[i].compareTo(sortables[j])));
+      }
+    }
+  }
+
+  @Test
+  public void testBulkEncoding() {
+    final List<Guid> ids = new ArrayList<>(guidFactory.newGuids(1000).asList());
+    // Any layout within the same collection
+    ids.add(new GuidFactory().useConfiguration(GuidFactory.GUID_CONFIGURATION.BIGGEST).newGuid());
+    final byte[] base32 = GuidFactory.encodeAll(ids, BaseCodec.BASE32, (byte) '\n');
+    final String[] lines = new String(base32, StandardCharsets.US_ASCII).split("\n");
+    assertEquals(ids.size(), lines.length);
+    for (var i = 0; i < lines.length; i++) {
+      assertEquals(ids.get(i).toBase32(), lines[i]);
+    }
+    assertEquals(ids, GuidFactory.decodeAll(base32, 0, base32.length, (byte) '\n'));
+    final byte[] hex = GuidFactory.encodeAll(ids.subList(0, 10), BaseCodec.BASE16, (byte) ' ');
+    assertEquals(ids.get(9).toHex(), new String(hex, StandardCharsets.US_ASCII).split(" ")[9]);
+    assertEquals(ids.subList(0, 10), GuidFactory.decodeAll(hex, 0, hex.length, (byte) ' '));
+    assertThrows(InvalidArgumentRuntimeException.class,
+                 () -> GuidFactory.decodeAll(hex, 0, hex.length - 1, (byte) ' '));
+  }
+
+  @Test
+  public void testArkWriting() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    final byte[] bytes = new byte[100];
+    final ByteBuffer direct = ByteBuffer.allocateDirect(100);
+    final long max = guidFactory.getTenantSize() == 8? Long.MAX_VALUE : (1L << guidFactory.getTenantSize() * 8) - 1;
+    for (final long tenant : new long[] { 0, 1, 123, max }) {
+      final Guid id = guidFactory.newGuid(tenant);
+      final String ark = id.toArk();
+      assertEquals("ark:/" + tenant + '/' + id.toArkName(), ark);
+      assertEquals(ark.length(), id.getArkLength());
+      builder.setLength(0);
+      assertEquals(ark, id.appendArk(builder).toString());
+      assertEquals(ark, id.appendArk((Appendable) new StringBuilder()).toString());
+      assertEquals(ark.length() + 3, id.writeArk(bytes, 3));
+      assertEquals(ark, new String(bytes, 3, ark.length(), StandardCharsets.US_ASCII));
+      direct.clear();
+      id.writeArk(direct).flip();
+      assertEquals(ark, StandardCharsets.US_ASCII.decode(direct).toString());
+      assertEquals(id, GuidFactory.parseAscii(bytes, 3, ark.length()));
+      assertEquals(id, guidFactory.getGuid(ark));
+    }
+  }
+
+  @Test
+  public void testFieldsOf() {
+    final long max = guidFactory.getTenantSize() == 8? Long.MAX_VALUE : (1L << guidFactory.getTenantSize() * 8) - 1;
+    for (final long tenant : new long[] { 0, 1, 123, max }) {
+      final Guid id = guidFactory.newGuid(tenant);
+      for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+        assertEquals(id.getTimestamp(), GuidFactory.timestampOf(form));
+        assertEquals(tenant, GuidFactory.tenantOf(form));
+        final String line = "ts=" + form + " ";
+        assertEquals(id.getTimestamp(), GuidFactory.timestampOf(line, 3, line.length()));
+        assertEquals(tenant, GuidFactory.tenantOf(line, 3, line.length()));
+      }
+    }
+    final Guid id = guidFactory.newGuid();
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.timestampOf(id.toHex().substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.tenantOf("ark:/x/" + id.toArkName()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidFactory.tenantOf(id.toArk() + "a"));
+    assertThrows(IndexOutOfBoundsException.class, () -> GuidFactory.timestampOf(id.toHex(), 0, 100));
+  }
+
+  @Test
+  public void testHashDistribution() {
+    IdAssertions.assertHashDistribution(guidFactory.newGuids(IdAssertions.HASH_IDS).asList().iterator()::next);
+  }
+
+  @Test
+  public void testCompareToOtherLayout() {
+    final Guid id = guidFactory.newGuid();
+    final Guid other = new GuidFactory().setTimeFirst(!guidFactory.isTimeFirst()).newGuid();
+    // Ordered by header, whatever the fields
+    final int expected = Integer.signum(Arrays.compareUnsigned(id.getBytes(), 0, GuidFactory.HEADER_SIZE,
+                                                               other.getBytes(), 0, GuidFactory.HEADER_SIZE));
+    assertNotEquals(0, expected);
+    assertEquals(expected, Integer.signum(id.compareTo(other)));
+    assertEquals(-expected, Integer.signum(other.compareTo(id)));
+  }
 }
@@ -16,6 +16,14 @@
 package org.fb.utils.guid;
 
 import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class GuidFactoryDefaultTest extends GuidFactoryAbstract {
 
@@ -23,4 +31,49 @@ public class GuidFactoryDefaultTest extends GuidFactoryAbstract {
   void setupGuidFactory() {
     guidFactory.useConfiguration(GUID_CONFIGURATION.DEFAULT);
   }
+
+  @Test
+  public void testConcurrentFactories() throws InterruptedException {
+    final int numFactories = 4;
+    final int numThreads = 2;
+    final int n = 10000;
+    final Guid[][] uuids = new Guid[numFactories][n * numThreads];
+    final Thread[] threads = new Thread[numFactories * numThreads];
+    for (var f = 0; f < numFactories; f++) {
+      // Same settings for all factories
+      final GuidFactory factory = new GuidFactory().useConfiguration(GUID_CONFIGURATION.DEFAULT).setTenantId(1);
+      for (var i = 0; i < numThreads; i++) {
+        threads[f * numThreads + i] = new GeneratorGuid(n, uuids[f], i, factory);
+        threads[f * numThreads + i].start();
+      }
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    final Set<Guid> uuidSet = new HashSet<>();
+    for (final Guid[] guids : uuids) {
+      uuidSet.addAll(Arrays.asList(guids));
+    }
+    assertEquals(numFactories * numThreads * n, uuidSet.size());
+  }
+
+  @Test
+  public void testSharedCounter() {
+    final GuidFactory factoryA = new GuidFactory().setTenantId(1001);
+    final GuidFactory factoryA2 = new GuidFactory().setTenantId(1001);
+    final GuidFactory factoryB = new GuidFactory().setTenantId(1002);
+    // Same layout: one counter for all factories, so same settings never give the same id
+    var counter = factoryA.newGuid().getCounter();
+    for (final GuidFactory factory : new GuidFactory[] { factoryA2, factoryB, factoryA }) {
+      final int next = factory.newGuid().getCounter();
+      assertTrue(next == counter + 1 || next == GuidFactory.MIN_COUNTER);
+      counter = next;
+    }
+    // Another layout has its own counter
+    final GuidFactory smallest = new GuidFactory().useConfiguration(GUID_CONFIGURATION.SMALLEST);
+    final int other = smallest.newGuid().getCounter();
+    factoryA.newGuid();
+    final int next = smallest.newGuid().getCounter();
+    assertTrue(next == other + 1 || next == GuidFactory.MIN_COUNTER);
+  }
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2019-2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.fb.utils.guid;
+
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuidFactoryMonotonicTest extends GuidFactoryAbstract {
+
+  @Override
+  void setupGuidFactory() {
+    guidFactory.useConfiguration(GUID_CONFIGURATION.DEFAULT).setMonotonic(true);
+  }
+
+  @Test
+  public void testSharedClock() {
+    // Frozen time and same settings: both factories borrow from one clock
+    final ManualTimeSource timeSource = new ManualTimeSource(1000000000L);
+    final GuidFactory factory = new GuidFactory().setTimeSource(timeSource).setMonotonic(true);
+    final GuidFactory other = new GuidFactory().setTimeSource(timeSource).setMonotonic(true);
+    final Set<Guid> guids = new HashSet<>();
+    for (var i = 0; i < 100000; i++) {
+      assertTrue(guids.add(factory.newGuid()));
+      assertTrue(guids.add(other.newGuid()));
+    }
+    for (final Guid guid : other.newGuids(1000).asList()) {
+      assertTrue(guids.add(guid));
+    }
+    assertEquals(factory.getClockLead(), other.getClockLead());
+  }
+}
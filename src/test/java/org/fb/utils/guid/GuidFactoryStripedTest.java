@@ -0,0 +1,26 @@
+/*
+ * Copyright (c) 2019-2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.fb.utils.guid;
+
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+
+public class GuidFactoryStripedTest extends GuidFactoryAbstract {
+
+  @Override
+  void setupGuidFactory() {
+    guidFactory.useConfiguration(GUID_CONFIGURATION.DEFAULT).setStriped(true);
+  }
+}
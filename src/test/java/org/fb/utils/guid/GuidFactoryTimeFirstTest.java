@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid;
+
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuidFactoryTimeFirstTest extends GuidFactoryAbstract {
+
+  @Override
+  void setupGuidFactory() {
+    guidFactory.useConfiguration(GUID_CONFIGURATION.DEFAULT).setTimeFirst(true);
+  }
+
+  @Test
+  public void testTimeFirstLayout() {
+    assertTrue(guidFactory.isTimeFirst());
+    final Guid guid = guidFactory.newGuid(5, 12);
+    final Guid standard = new GuidFactory().useConfiguration(GUID_CONFIGURATION.DEFAULT).newGuid(5, 12);
+    assertEquals(standard.getKeySize(), guid.getKeySize());
+    assertNotEquals(standard.toBase32().substring(0, GuidFactory.HEADER_64_SIZE),
+                    guid.toBase32().substring(0, GuidFactory.HEADER_64_SIZE));
+    assertEquals(5, guid.getTenantId());
+    assertEquals(12, guid.getPlatformId());
+    assertEquals(standard.getProcessId(), guid.getProcessId());
+    assertTrue(Math.abs(standard.getTimestamp() - guid.getTimestamp()) < 1000);
+    // Timestamp just after the Tenant
+    final byte[] bytes = guid.getBytes();
+    long time = 0;
+    for (var i = 0; i < guidFactory.getTimeSize(); i++) {
+      time = time << 8 | bytes[GuidFactory.TENANT_POS + guidFactory.getTenantSize() + i] & 0xFF;
+    }
+    assertEquals(guid.getTimestamp(), time);
+    assertEquals(guid, guidFactory.getGuid(guid.toArk()));
+    assertEquals(guid, GuidFactory.parse(guid.toString(), 0, guid.toString().length()));
+  }
+
+  @Test
+  public void testByteOrderIsGenerationOrder() {
+    guidFactory.setMonotonic(true);
+    final List<Guid> list = guidFactory.newGuids(10000, 7, 1).asList();
+    for (var i = 1; i < list.size(); i++) {
+      assertTrue(Arrays.compareUnsigned(list.get(i - 1).getBytes(), list.get(i).getBytes()) < 0);
+      assertTrue(list.get(i - 1).compareTo(list.get(i)) < 0);
+      assertTrue(list.get(i).compareTo(list.get(i - 1)) > 0);
+    }
+    final Guid first = list.get(0);
+    assertEquals(0, first.compareTo(guidFactory.getGuid(first.getBytes())));
+    // Same tenant, timestamp and counter: the platform gives a total order
+    final byte[] bytes = first.getBytes();
+    bytes[bytes.length - 1]++;
+    final Guid other = guidFactory.getGuid(bytes);
+    assertEquals(-other.compareTo(first), first.compareTo(other));
+    assertNotEquals(0, first.compareTo(other));
+  }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuidHashSetTest {
+  private static final int NB = 100000;
+  private static final int LONG_SIZE = 8;
+
+  @Test
+  public void testGUIDSet() {
+    // Small expected size to go through resizes
+    final GuidHashSet<GUID> set = GuidHashSet.ofGUID(4);
+    final GuidBatch<GUID> batch = GUID.generate(NB, 1, 12);
+    final List<GUID> ids = batch.asList();
+    for (var i = 0; i < NB; i += 2) {
+      assertTrue(set.add(ids.get(i)));
+    }
+    // Odd ones directly from the arena, no GUID created
+    final byte[] arena = batch.getArena();
+    for (var i = 0; i < NB; i++) {
+      assertEquals(i % 2 == 1, set.add(arena, i * GUID.KEYSIZE));
+    }
+    assertEquals(NB, set.size());
+    for (var i = 0; i < NB; i++) {
+      assertTrue(set.contains(ids.get(i)));
+      assertTrue(set.contains(arena, i * GUID.KEYSIZE));
+    }
+    assertFalse(set.contains(new GUID(2, 12)));
+    // Remove one third, so that following keys are shifted back
+    final Set<GUID> expected = new HashSet<>(ids);
+    for (var i = 0; i < NB; i += 3) {
+      assertTrue(set.remove(ids.get(i)));
+      assertFalse(set.remove(ids.get(i)));
+      expected.remove(ids.get(i));
+    }
+    assertEquals(expected.size(), set.size());
+    for (var i = 0; i < NB; i++) {
+      assertEquals(i % 3 != 0, set.contains(ids.get(i)));
+    }
+    final Set<GUID> found = new HashSet<>();
+    set.forEach(found::add);
+    assertEquals(expected, found);
+    set.clear();
+    assertTrue(set.isEmpty());
+    assertFalse(set.contains(ids.get(1)));
+    // Invalid arguments
+    assertThrows(InvalidArgumentRuntimeException.class, () -> set.add((GUID) null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> set.add(new byte[GUID.KEYSIZE], 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> set.add(arena, arena.length - GUID.KEYSIZE + 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> set.contains(arena, -1));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidHashSet.ofGUID(-1));
+  }
+
+  @Test
+  public void testTinyGUIDSet() {
+    final GuidHashSet<TinyGUID> set = GuidHashSet.ofTinyGUID(NB);
+    final GuidBatch<TinyGUID> batch = TinyGUID.generate(NB, (short) -1, 12);
+    final byte[] arena = batch.getArena();
+    for (var i = 0; i < NB; i++) {
+      assertTrue(set.add(arena, i * TinyGUID.KEYSIZE));
+    }
+    assertEquals(NB, set.size());
+    final List<TinyGUID> ids = batch.asList();
+    for (var i = 0; i < NB; i++) {
+      assertFalse(set.add(ids.get(i)));
+      assertTrue(set.contains(ids.get(i)));
+    }
+    for (var i = 0; i < NB; i += 2) {
+      assertTrue(set.remove(ids.get(i)));
+    }
+    for (var i = 0; i < NB; i++) {
+      assertEquals(i % 2 == 1, set.contains(arena, i * TinyGUID.KEYSIZE));
+    }
+    final Set<TinyGUID> found = new HashSet<>();
+    set.forEach(found::add);
+    assertEquals(NB / 2, found.size());
+    assertTrue(found.contains(ids.get(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> set.add(new byte[TinyGUID.KEYSIZE], 0));
+  }
+
+  @Test
+  public void testGuidHashMap() {
+    final GuidHashMap<GUID, Integer> map = GuidHashMap.ofGUID(0);
+    final GuidBatch<GUID> batch = GUID.generate(NB, 1, 12);
+    final byte[] arena = batch.getArena();
+    final List<GUID> ids = batch.asList();
+    for (var i = 0; i < NB; i++) {
+      assertNull(map.put(arena, i * GUID.KEYSIZE, i));
+    }
+    assertEquals(NB, map.size());
+    for (var i = 0; i < NB; i++) {
+      assertEquals(Integer.valueOf(i), map.get(ids.get(i)));
+      assertEquals(Integer.valueOf(i), map.put(ids.get(i), -i));
+      assertEquals(Integer.valueOf(-i), map.get(arena, i * GUID.KEYSIZE));
+    }
+    assertEquals(NB, map.size());
+    for (var i = 0; i < NB; i += 3) {
+      assertEquals(Integer.valueOf(-i), map.remove(ids.get(i)));
+      assertNull(map.remove(ids.get(i)));
+    }
+    final Map<GUID, Integer> found = new HashMap<>();
+    map.forEach(found::put);
+    assertEquals(map.size(), found.size());
+    for (var i = 0; i < NB; i++) {
+      assertEquals(i % 3 != 0, map.containsKey(ids.get(i)));
+      assertEquals(i % 3 != 0? Integer.valueOf(-i) : null, found.get(ids.get(i)));
+    }
+    // computeIfAbsent only calls the mapping when absent, null not added
+    assertEquals(Integer.valueOf(-1), map.computeIfAbsent(ids.get(1), id -> 7));
+    assertEquals(Integer.valueOf(7), map.computeIfAbsent(ids.get(0), id -> 7));
+    assertNull(map.computeIfAbsent(ids.get(3), id -> null));
+    assertFalse(map.containsKey(ids.get(3)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> map.put(ids.get(3), null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> map.get((GUID) null));
+    final GuidHashMap<TinyGUID, String> tinyMap = GuidHashMap.ofTinyGUID(4);
+    final TinyGUID tiny = new TinyGUID();
+    assertNull(tinyMap.put(tiny, "tiny"));
+    assertEquals("tiny", tinyMap.get(tiny.getBytes(), 0));
+    tinyMap.clear();
+    assertTrue(tinyMap.isEmpty());
+    assertNull(tinyMap.get(tiny));
+  }
+
+  @Test
+  public void testLongUuidSetAndMap() {
+    final LongUuidHashSet set = new LongUuidHashSet(16);
+    final LongUuidHashMap<Long> map = new LongUuidHashMap<>(16);
+    final Random random = new Random(NB);
+    final long[] values = new long[NB];
+    for (var i = 0; i < NB; i++) {
+      values[i] = i < NB / 2? new LongUuid().getLong() : random.nextLong();
+    }
+    // Zero and negative values included
+    values[0] = 0;
+    values[1] = -1;
+    values[2] = Long.MIN_VALUE;
+    final Set<Long> expected = new HashSet<>();
+    final byte[] records = new byte[NB * LONG_SIZE];
+    for (var i = 0; i < NB; i++) {
+      assertEquals(expected.add(values[i]), set.add(values[i]));
+      map.put(values[i], values[i]);
+      System.arraycopy(new LongUuid(values[i]).getBytes(), 0, records, i * LONG_SIZE, LONG_SIZE);
+    }
+    assertEquals(expected.size(), set.size());
+    assertEquals(expected.size(), map.size());
+    for (var i = 0; i < NB; i++) {
+      assertFalse(set.add(records, i * LONG_SIZE));
+      assertTrue(set.contains(new LongUuid(values[i])));
+      assertEquals(Long.valueOf(values[i]), map.get(records, i * LONG_SIZE));
+      assertEquals(Long.valueOf(values[i]), map.get(new LongUuid(values[i])));
+    }
+    for (var i = 0; i < NB; i += 2) {
+      set.remove(values[i]);
+      map.remove(values[i]);
+      expected.remove(values[i]);
+    }
+    assertFalse(set.contains(0));
+    assertFalse(map.containsKey(0));
+    assertTrue(set.contains(-1));
+    assertEquals(Long.valueOf(-1), map.get(-1));
+    final Set<Long> found = new HashSet<>();
+    set.forEach(found::add);
+    assertEquals(expected, found);
+    found.clear();
+    map.forEach((key, value) -> {
+      assertEquals(Long.valueOf(key), value);
+      found.add(key);
+    });
+    assertEquals(expected, found);
+    assertTrue(set.add(0));
+    assertFalse(set.add(new LongUuid(0)));
+    assertTrue(set.remove(0));
+    assertFalse(set.remove(0));
+    assertEquals(Long.valueOf(5), map.computeIfAbsent(0, value -> 5L));
+    assertEquals(Long.valueOf(5), map.computeIfAbsent(0, value -> 6L));
+    set.clear();
+    map.clear();
+    assertTrue(set.isEmpty());
+    assertTrue(map.isEmpty());
+    assertThrows(IndexOutOfBoundsException.class, () -> set.add(records, records.length - 1));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> set.add((LongUuid) null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> map.put(1, null));
+  }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.guid.GuidFactory.GUID_CONFIGURATION;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuidLayoutTest {
+  private static final int NB = 20000;
+
+  @Test
+  public void testSharedLayout() {
+    for (final GUID_CONFIGURATION configuration : GUID_CONFIGURATION.values()) {
+      final GuidFactory factory = new GuidFactory().useConfiguration(configuration);
+      final GuidLayout layout =
+          GuidLayout.of(factory.getTenantSize(), (short) factory.getPlatformSize(), factory.getPidSize(),
+                        factory.getTimeSize(), factory.getCounterSize());
+      assertSame(layout, GuidLayout.of(factory.getTenantSize(), (short) factory.getPlatformSize(),
+                                       factory.getPidSize(), factory.getTimeSize(), factory.getCounterSize()));
+      assertSame(layout, GuidLayout.fromHeader(layout.header));
+      assertSame(layout, GuidLayout.fromEncodedHeader(layout.headerEncoded, 0, GuidFactory.HEADER_64_SIZE));
+      assertEquals(factory.getKeySize(), layout.keySize);
+      assertEquals(factory.getKey32Size(), layout.key32Size);
+    }
+  }
+
+  @Test
+  public void testAllHeaders() {
+    var count = 0;
+    for (short tenant = GuidFactory.MIN_TENANT; tenant <= GuidFactory.MAX_TENANT; tenant++) {
+      for (short platform = GuidFactory.MIN_PLATFORM; platform <= GuidFactory.MAX_PLATFORM; platform++) {
+        for (short pid = GuidFactory.MIN_PID; pid <= GuidFactory.MAX_PID; pid++) {
+          for (short time = GuidFactory.MIN_TIME; time <= GuidFactory.MAX_TIME; time++) {
+            for (short counter = GuidFactory.MIN_COUNTER; counter <= GuidFactory.MAX_COUNTER; counter++) {
+              for (final boolean timeFirst : new boolean[] { false, true }) {
+                final GuidLayout layout = GuidLayout.of(tenant, platform, pid, time, counter, timeFirst);
+                assertSame(layout, GuidLayout.fromHeader(layout.header));
+                assertEquals(timeFirst, layout.timeFirst);
+                assertEquals(tenant + platform + pid + time + counter + GuidFactory.HEADER_SIZE, layout.keySize);
+                assertEquals(layout.keySize, Math.max(layout.pidPos + pid, layout.counterPos + counter));
+                count++;
+              }
+            }
+          }
+        }
+      }
+    }
+    assertEquals(8 * 8 * 5 * 5 * 3 * 2, count);
+  }
+
+  @Test
+  public void testInvalidHeader() {
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidLayout.fromHeader(new byte[] { 1, 0, 0 }));
+    assertThrows(InvalidArgumentRuntimeException.class,
+                 () -> GuidLayout.fromHeader(new byte[] { GuidFactory.VERSION, 0, (byte) 0xFF }));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidLayout.fromHeader(new byte[] { 1 }));
+    assertThrows(InvalidArgumentRuntimeException.class,
+                 () -> GuidLayout.fromHeader(new byte[] { GuidFactory.VERSION, (byte) 0x80, 0 }));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidLayout.fromEncodedHeader("AB", 0, 2));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidLayout.fromEncodedHeader("!!!!AAAA", 0, 8));
+  }
+
+  @Test
+  public void testParsingDoesNotChangeFactory() throws Exception {
+    final GuidFactory factory = new GuidFactory().useConfiguration(GUID_CONFIGURATION.DEFAULT);
+    final String biggest = new GuidFactory().useConfiguration(GUID_CONFIGURATION.BIGGEST).newGuid().toString();
+    final String smallest = new GuidFactory().useConfiguration(GUID_CONFIGURATION.SMALLEST).newGuid().toArk();
+    final int keySize = factory.getKeySize();
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<?>> futures = new ArrayList<>();
+      for (var t = 0; t < 2; t++) {
+        futures.add(executor.submit(() -> {
+          for (var i = 0; i < NB; i++) {
+            assertEquals(biggest, factory.getGuid(biggest).toString());
+            assertEquals(smallest, factory.getGuid(smallest).toArk());
+          }
+        }));
+        futures.add(executor.submit(() -> {
+          for (var i = 0; i < NB; i++) {
+            final Guid guid = factory.newGuid();
+            assertEquals(keySize, guid.getKeySize());
+            assertEquals(guid, factory.getGuid(guid.getBytes()));
+          }
+        }));
+      }
+      for (final Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertEquals(keySize, factory.getKeySize());
+  }
+}
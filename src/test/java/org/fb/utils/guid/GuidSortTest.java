@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GuidSortTest {
+  /**
+   * Above the parallel threshold, so that parallel variants partition
+   */
+  private static final int NB = 200000;
+  private static final int NB_RANDOM = 5000;
+  private static final int LONG_SIZE = 8;
+
+  @Test
+  public void testSortGUID() {
+    final List<GUID> list = new ArrayList<>();
+    for (var tenant = -2; tenant < 2; tenant++) {
+      list.addAll(GUID.generate(NB / 4, tenant, 12).asList());
+    }
+    final GUID[] ids = shuffled(list, new GUID[0]);
+    final GUID[] expected = ids.clone();
+    Arrays.sort(expected);
+    final GUID[] parallel = ids.clone();
+    GuidSort.sort(ids);
+    assertArrayEquals(expected, ids);
+    GuidSort.parallelSort(parallel);
+    assertArrayEquals(expected, parallel);
+    // Raw records as in a batch arena
+    final byte[] records = new byte[NB * GUID.KEYSIZE];
+    for (var i = 0; i < NB; i++) {
+      list.get(i).writeTo(records, i * GUID.KEYSIZE);
+    }
+    final byte[] parallelRecords = records.clone();
+    GuidSort.sortGuids(records, NB);
+    GuidSort.parallelSortGuids(parallelRecords, NB);
+    for (var i = 0; i < NB; i++) {
+      assertEquals(expected[i], new GUID(records, i * GUID.KEYSIZE));
+    }
+    assertArrayEquals(records, parallelRecords);
+    // Random fields, ties of Tenant, Time and Counter included
+    final Random random = new Random(GUID.KEYSIZE);
+    final GUID[] randoms = new GUID[NB_RANDOM];
+    final byte[] bytes = new byte[GUID.KEYSIZE];
+    for (var i = 0; i < randoms.length; i++) {
+      random.nextBytes(bytes);
+      bytes[GUID.HEADER_POS] = (byte) GUID.VERSION;
+      if (i > 0 && random.nextBoolean()) {
+        final byte[] previous = randoms[i - 1].getBytes();
+        System.arraycopy(previous, GUID.TENANT_POS, bytes, GUID.TENANT_POS, GUID.TENANT_SIZE);
+        System.arraycopy(previous, GUID.TIME_POS, bytes, GUID.TIME_POS, GUID.KEYSIZE - GUID.TIME_POS);
+      }
+      randoms[i] = new GUID(bytes);
+    }
+    final GUID[] sorted = randoms.clone();
+    Arrays.sort(sorted);
+    GuidSort.sort(randoms);
+    assertArrayEquals(sorted, randoms);
+  }
+
+  @Test
+  public void testSortTinyGUID() {
+    final List<TinyGUID> list = new ArrayList<>();
+    for (var tenant = -2; tenant < 2; tenant++) {
+      list.addAll(TinyGUID.generate(NB / 4, (short) tenant, 12).asList());
+    }
+    final TinyGUID[] ids = shuffled(list, new TinyGUID[0]);
+    final TinyGUID[] expected = ids.clone();
+    Arrays.sort(expected);
+    final TinyGUID[] parallel = ids.clone();
+    GuidSort.sort(ids);
+    assertArrayEquals(expected, ids);
+    GuidSort.parallelSort(parallel);
+    assertArrayEquals(expected, parallel);
+    final byte[] records = new byte[NB * TinyGUID.KEYSIZE];
+    for (var i = 0; i < NB; i++) {
+      list.get(i).writeTo(records, i * TinyGUID.KEYSIZE);
+    }
+    final byte[] parallelRecords = records.clone();
+    GuidSort.sortTinyGuids(records, NB);
+    GuidSort.parallelSortTinyGuids(parallelRecords, NB);
+    for (var i = 0; i < NB; i++) {
+      assertEquals(expected[i], new TinyGUID(records, i * TinyGUID.KEYSIZE));
+    }
+    assertArrayEquals(records, parallelRecords);
+  }
+
+  @Test
+  public void testSortGuid() {
+    final List<Guid> list = new ArrayList<>();
+    for (final GuidFactory.GUID_CONFIGURATION configuration : GuidFactory.GUID_CONFIGURATION.values()) {
+      final GuidFactory factory = new GuidFactory().useConfiguration(configuration);
+      list.addAll(factory.newGuids(NB / 8, 1, 12).asList());
+      list.addAll(factory.setTimeFirst(true).newGuids(NB / 8, -1, 12).asList());
+    }
+    final Guid[] ids = shuffled(list, new Guid[0]);
+    final Guid[] expected = ids.clone();
+    Arrays.sort(expected);
+    final Guid[] parallel = ids.clone();
+    GuidSort.sort(ids);
+    assertArrayEquals(expected, ids);
+    GuidSort.parallelSort(parallel);
+    assertArrayEquals(expected, parallel);
+    // Time first layout: byte order is compareTo order
+    final GuidBatch<Guid> batch = new GuidFactory().setTimeFirst(true).newGuids(NB, 3, 12);
+    final Guid[] timeFirst = shuffled(batch.asList(), new Guid[0]);
+    final byte[] records = new byte[NB * batch.getKeySize()];
+    for (var i = 0; i < NB; i++) {
+      timeFirst[i].writeTo(records, i * batch.getKeySize());
+    }
+    GuidSort.parallelSort(records, batch.getKeySize(), NB);
+    assertArrayEquals(batch.getArena(), records);
+  }
+
+  @Test
+  public void testSortLongUuid() {
+    final List<LongUuid> list = new ArrayList<>();
+    for (var i = 0; i < NB; i++) {
+      list.add(new LongUuid());
+    }
+    // Negative values included, ordered after positive ones
+    list.add(new LongUuid(-1L));
+    list.add(new LongUuid(Long.MIN_VALUE));
+    list.add(new LongUuid(Long.MAX_VALUE));
+    list.add(new LongUuid(1L));
+    final LongUuid[] ids = shuffled(list, new LongUuid[0]);
+    final LongUuid[] expected = ids.clone();
+    Arrays.sort(expected, Comparator.comparing(LongUuid::getLong, Long::compareUnsigned));
+    final LongUuid[] parallel = ids.clone();
+    GuidSort.sort(ids);
+    assertArrayEquals(expected, ids);
+    GuidSort.parallelSort(parallel);
+    assertArrayEquals(expected, parallel);
+    final long[] values = new long[ids.length];
+    final byte[] records = new byte[ids.length * LONG_SIZE];
+    for (var i = 0; i < ids.length; i++) {
+      values[i] = list.get(i).getLong();
+      System.arraycopy(list.get(i).getBytes(), 0, records, i * LONG_SIZE, LONG_SIZE);
+    }
+    final long[] parallelValues = values.clone();
+    GuidSort.sortLongUuids(values);
+    GuidSort.parallelSortLongUuids(parallelValues);
+    GuidSort.sort(records, LONG_SIZE, ids.length);
+    for (var i = 0; i < ids.length; i++) {
+      assertEquals(expected[i].getLong(), values[i]);
+      assertEquals(expected[i].getLong(), parallelValues[i]);
+      assertEquals(expected[i], new LongUuid(Arrays.copyOfRange(records, i * LONG_SIZE,
+                                                                (i + 1) * LONG_SIZE)));
+    }
+    assertEquals(1L, values[0]);
+    assertEquals(-1L, values[values.length - 1]);
+  }
+
+  @Test
+  public void testSortRecords() {
+    // Size not multiple of 8, only some records sorted
+    final Random random = new Random(13);
+    final int size = 13;
+    final byte[] records = new byte[NB_RANDOM * size + 5];
+    random.nextBytes(records);
+    final byte[] tail = Arrays.copyOfRange(records, (NB_RANDOM - 1) * size, records.length);
+    final List<byte[]> expected = new ArrayList<>();
+    for (var i = 0; i < NB_RANDOM - 1; i++) {
+      expected.add(Arrays.copyOfRange(records, i * size, (i + 1) * size));
+    }
+    expected.sort(Arrays::compareUnsigned);
+    GuidSort.sort(records, size, NB_RANDOM - 1);
+    for (var i = 0; i < NB_RANDOM - 1; i++) {
+      assertArrayEquals(expected.get(i), Arrays.copyOfRange(records, i * size, (i + 1) * size));
+    }
+    assertArrayEquals(tail, Arrays.copyOfRange(records, (NB_RANDOM - 1) * size, records.length));
+    // Empty or single
+    GuidSort.sort(new GUID[0]);
+    GuidSort.parallelSort(new Guid[0]);
+    GuidSort.sortLongUuids(new long[] { 1 });
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidSort.sort((GUID[]) null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidSort.sortLongUuids(null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GuidSort.sort(records, 0, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> GuidSort.sort(records, size, NB_RANDOM + 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> GuidSort.sortGuids(records, -1));
+  }
+
+  private static <T> T[] shuffled(final List<T> list, final T[] type) {
+    final List<T> copy = new ArrayList<>(list);
+    Collections.shuffle(copy, new Random(copy.size()));
+    return copy.toArray(type);
+  }
+}
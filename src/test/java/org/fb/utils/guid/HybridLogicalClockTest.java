@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HybridLogicalClockTest {
+  private static final int NB = 1000000;
+  private static final int NB_THREAD = 10;
+
+  @Test
+  public void testBorrowNextMillisecond() {
+    // Only 4 values per millisecond
+    final long start = System.currentTimeMillis();
+    final HybridLogicalClock clock = new HybridLogicalClock(2);
+    long previous = clock.next(System.currentTimeMillis());
+    for (int i = 0; i < 10000; i++) {
+      final long state = clock.next(System.currentTimeMillis());
+      assertTrue(state > previous);
+      assertTrue(clock.getCounter(state) <= 3);
+      assertTrue(clock.getTime(state) >= start);
+      previous = state;
+    }
+    // 10000 values at 4 per ms cannot fit in the elapsed wall time
+    assertTrue(clock.getMaxLead() > 0);
+    assertTrue(clock.getTime(previous) >= start + 10000 / 4 - 1);
+  }
+
+  @Test
+  public void testCatchUpWallTime() {
+    final ManualTimeSource timeSource = new ManualTimeSource();
+    final long start = timeSource.currentTimeMillis();
+    final HybridLogicalClock clock = new HybridLogicalClock(2);
+    for (int i = 0; i < 400; i++) {
+      clock.next(timeSource.currentTimeMillis());
+    }
+    final long lead = clock.getLead(timeSource.currentTimeMillis());
+    // 400 values at 4 per ms while wall time is frozen
+    assertTrue(lead >= 99 && lead <= 100, "Lead: " + lead);
+    assertEquals(lead, clock.getMaxLead());
+    timeSource.advance(lead + 5);
+    assertEquals(0, clock.getLead(timeSource.currentTimeMillis()));
+    final long state = clock.next(timeSource.currentTimeMillis());
+    assertEquals(start + lead + 5, clock.getTime(state));
+    assertEquals(0, clock.getCounter(state));
+  }
+
+  @Test
+  public void testBackwardWallTime() {
+    final ManualTimeSource timeSource = new ManualTimeSource();
+    final HybridLogicalClock clock = new HybridLogicalClock(2);
+    long previous = clock.next(timeSource.currentTimeMillis());
+    timeSource.advance(-1000);
+    for (int i = 0; i < 100; i++) {
+      final long state = clock.next(timeSource.currentTimeMillis());
+      assertTrue(state > previous);
+      previous = state;
+    }
+  }
+
+  @Test
+  public void testMaxCounterBits() {
+    final HybridLogicalClock clock = new HybridLogicalClock(31);
+    final long state = clock.next(System.currentTimeMillis());
+    assertTrue(clock.getCounter(state) <= (1 << HybridLogicalClock.MAX_COUNTER_BITS) - 1);
+    assertTrue(Math.abs(clock.getTime(state) - System.currentTimeMillis()) < 1000);
+  }
+
+  @Test
+  public void testAnyWallTime() {
+    // Wall time in the past or in the future is followed as is
+    final ManualTimeSource timeSource = new ManualTimeSource(1000000000L);
+    final HybridLogicalClock clock = new HybridLogicalClock(8);
+    long state = clock.next(timeSource.currentTimeMillis());
+    assertEquals(1000000000L, clock.getTime(state));
+    timeSource.set(System.currentTimeMillis() + 86400000L);
+    state = clock.next(timeSource.currentTimeMillis());
+    assertEquals(timeSource.currentTimeMillis(), clock.getTime(state));
+    assertEquals(0, clock.getCounter(state));
+    // Back in the past, the clock keeps its logical time
+    timeSource.set(1000L);
+    final long next = clock.next(timeSource.currentTimeMillis());
+    assertTrue(next > state);
+    assertEquals(clock.getTime(state), clock.getTime(next));
+  }
+
+  @Test
+  public void testAdvanceTo() {
+    final HybridLogicalClock clock = new HybridLogicalClock(8);
+    final HybridLogicalClock other = new HybridLogicalClock(8);
+    final long last = clock.next(2000000L);
+    // Never lower than the last value of the other clock
+    other.advanceTo(clock);
+    assertTrue(other.next(1000000L) > last);
+    assertTrue(other.next(2000000L) > last);
+    // Never moved back
+    final long current = other.next(3000000L);
+    other.advanceTo(clock);
+    assertTrue(other.next(3000000L) > current);
+  }
+
+  @Test
+  public void concurrentGeneration() throws Exception {
+    final HybridLogicalClock clock = new HybridLogicalClock(8);
+    final Thread[] threads = new Thread[NB_THREAD];
+    final int n = NB / NB_THREAD;
+    final long[] values = new long[n * NB_THREAD];
+    for (int i = 0; i < NB_THREAD; i++) {
+      final int base = i * n;
+      threads[i] = new Thread(() -> {
+        long previous = -1;
+        for (int j = 0; j < n; j++) {
+          final long state = clock.next(System.currentTimeMillis());
+          if (state <= previous) {
+            throw new IllegalStateException("Not monotonic");
+          }
+          previous = state;
+          values[base + j] = state;
+        }
+      });
+      threads[i].start();
+    }
+    for (int i = 0; i < NB_THREAD; i++) {
+      threads[i].join();
+    }
+    final Set<Long> set = new HashSet<>(values.length);
+    for (final long value : values) {
+      set.add(value);
+    }
+    assertEquals(values.length, set.size());
+    System.out.println("Max lead: " + clock.getMaxLead() + " ms");
+  }
+}
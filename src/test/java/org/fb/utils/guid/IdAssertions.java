@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Assertions shared by the tests of all the types of id, each test giving the
+ * methods of its type
+ */
+final class IdAssertions {
+  /**
+   * Number of ids, and of buckets, of the hash distribution
+   */
+  static final int HASH_IDS = 1 << 16;
+
+  private IdAssertions() {
+    // Empty
+  }
+
+  /**
+   * Check writeTo into an array and a buffer, and generateInto heap and
+   * direct buffers
+   *
+   * @param id the id to write
+   * @param keySize the size of the raw id
+   * @param fromBytes the constructor from the raw id
+   * @param arrayWriter the writeTo into an array
+   * @param bufferWriter the writeTo into a buffer
+   * @param generateInto the generateInto a buffer
+   * @param <T> the type of id
+   *
+   * @return the raw id written by writeTo
+   */
+  static <T> byte[] assertWriteTo(final T id, final int keySize, final Function<byte[], T> fromBytes,
+                                  final GuidBatch.IdWriter<T> arrayWriter,
+                                  final BiFunction<T, ByteBuffer, ByteBuffer> bufferWriter,
+                                  final UnaryOperator<ByteBuffer> generateInto) {
+    final byte[] dst = new byte[keySize + 3];
+    assertEquals(keySize + 3, arrayWriter.writeTo(id, dst, 3));
+    final byte[] written = Arrays.copyOfRange(dst, 3, keySize + 3);
+    assertEquals(id, fromBytes.apply(written));
+    final ByteBuffer heap = ByteBuffer.allocate(keySize * 2 + 1);
+    heap.put((byte) 1);
+    bufferWriter.apply(id, heap);
+    generateInto.apply(heap);
+    assertEquals(0, heap.remaining());
+    heap.flip().get();
+    final byte[] bytes = new byte[keySize];
+    heap.get(bytes);
+    assertArrayEquals(written, bytes);
+    heap.get(bytes);
+    final T generated = fromBytes.apply(bytes);
+    assertNotEquals(id, generated);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(keySize);
+    generateInto.apply(direct);
+    assertEquals(0, direct.remaining());
+    direct.flip().get(bytes);
+    assertNotEquals(generated, fromBytes.apply(bytes));
+    assertThrows(BufferOverflowException.class, () -> generateInto.apply(ByteBuffer.allocate(keySize - 1)));
+    return written;
+  }
+
+  /**
+   * Check parse and parseAscii of one form of the id, within a larger
+   * sequence, array or buffer
+   *
+   * @param id the expected id
+   * @param form one form of the id
+   * @param parser the parse of a range
+   * @param asciiParser the parseAscii of an array
+   * @param bufferParser the parseAscii of a buffer
+   * @param <T> the type of id
+   */
+  static <T> void assertParse(final T id, final String form, final RangeParser<T> parser,
+                              final AsciiParser<T> asciiParser, final Function<ByteBuffer, T> bufferParser) {
+    final StringBuilder line = new StringBuilder("GET /ids/").append(form).append(" HTTP/1.1");
+    assertEquals(id, parser.parse(line, 9, 9 + form.length()));
+    assertEquals(id, parser.parse(" " + form + " ", 0, form.length() + 2));
+    final byte[] ascii = ("key=" + form + ";").getBytes(StandardCharsets.US_ASCII);
+    assertEquals(id, asciiParser.parse(ascii, 4, form.length()));
+    assertEquals(id, bufferParser.apply(ByteBuffer.wrap(ascii, 4, form.length())));
+    assertEquals(id, bufferParser.apply(ByteBuffer.wrap(ascii, 4, form.length()).asReadOnlyBuffer()));
+    final ByteBuffer direct = ByteBuffer.allocateDirect(ascii.length).put(ascii);
+    direct.position(4).limit(4 + form.length());
+    assertEquals(id, bufferParser.apply(direct));
+    assertEquals(4, direct.position());
+    assertThrows(InvalidArgumentRuntimeException.class, () -> parser.parse(null, 0, 0));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> asciiParser.parse(null, 0, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> parser.parse(line, 0, line.length() + 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> asciiParser.parse(ascii, 1, ascii.length));
+  }
+
+  /**
+   * Check tryParse of one form of the id, alone or within a larger sequence,
+   * and its null results
+   *
+   * @param id the expected id
+   * @param form one form of the id
+   * @param tryParser the tryParse of a sequence
+   * @param rangeParser the tryParse of a range
+   * @param <T> the type of id
+   */
+  static <T> void assertTryParse(final T id, final String form, final Function<CharSequence, T> tryParser,
+                                 final RangeParser<T> rangeParser) {
+    assertEquals(id, tryParser.apply(form));
+    assertEquals(id, rangeParser.parse("[" + form + "]", 1, form.length() + 1));
+    assertEquals(id, rangeParser.parse(" " + form + "#", 0, form.length() + 1));
+    assertNull(tryParser.apply(form.substring(1)));
+    assertNull(rangeParser.parse(form, 0, form.length() + 1));
+    assertNull(rangeParser.parse(form, -1, form.length()));
+    assertNull(rangeParser.parse(form, 2, 1));
+    assertNull(rangeParser.parse(null, 0, 0));
+    assertNull(tryParser.apply(null));
+    assertNull(tryParser.apply(""));
+  }
+
+  /**
+   * Check that HASH_IDS ids from one node, mostly differing by their counter,
+   * spread over as many buckets indexed by the low bits of their hash
+   *
+   * @param generator the source of the ids
+   */
+  static void assertHashDistribution(final Supplier<?> generator) {
+    final int[] buckets = new int[HASH_IDS];
+    for (var i = 0; i < HASH_IDS; i++) {
+      buckets[generator.get().hashCode() & HASH_IDS - 1]++;
+    }
+    var empty = 0;
+    var max = 0;
+    for (final int bucket : buckets) {
+      empty += bucket == 0? 1 : 0;
+      max = Math.max(max, bucket);
+    }
+    // About 1/e of empty buckets if uniform
+    assertTrue(empty < HASH_IDS * 0.4, "Empty buckets: " + empty);
+    assertTrue(max < 12, "Max bucket: " + max);
+  }
+
+  /**
+   * Parse one id from a range of a sequence
+   */
+  @FunctionalInterface
+  interface RangeParser<T> {
+    T parse(CharSequence id, int start, int end);
+  }
+
+  /**
+   * Parse one id from a range of an ASCII array
+   */
+  @FunctionalInterface
+  interface AsciiParser<T> {
+    T parse(byte[] ascii, int offset, int length);
+  }
+}
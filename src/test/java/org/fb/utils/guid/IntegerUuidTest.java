@@ -15,8 +15,12 @@
  */
 package org.fb.utils.guid;
 
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -182,4 +186,42 @@ public class IntegerUuidTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testWriteTo() {
+    final IntegerUuid id = new IntegerUuid();
+    final byte[] written = IdAssertions.assertWriteTo(id, IntegerUuid.getKeySize(), IntegerUuid::new,
+                                                      IntegerUuid::writeTo, IntegerUuid::writeTo,
+                                                      IntegerUuid::generateInto);
+    assertArrayEquals(id.getBytes(), written);
+    // Big endian whatever the buffer order, so the next counter value
+    final ByteBuffer big = IntegerUuid.generateInto(ByteBuffer.allocate(IntegerUuid.getKeySize()));
+    final ByteBuffer little = ByteBuffer.allocate(IntegerUuid.getKeySize()).order(ByteOrder.LITTLE_ENDIAN);
+    IntegerUuid.generateInto(little);
+    assertEquals(new IntegerUuid(big.array()).getInt() + 1, new IntegerUuid(little.array()).getInt());
+  }
+
+  @Test
+  public void testParse() {
+    final IntegerUuid id = new IntegerUuid();
+    IdAssertions.assertParse(id, id.toString(), IntegerUuid::parse, IntegerUuid::parseAscii, IntegerUuid::parseAscii);
+    final String line = "key=" + id + ";";
+    assertThrows(InvalidArgumentRuntimeException.class, () -> IntegerUuid.parse(line, 3, line.length() - 1));
+    final byte[] ascii = line.getBytes(StandardCharsets.US_ASCII);
+    assertThrows(InvalidArgumentRuntimeException.class, () -> IntegerUuid.parseAscii(ascii, 0, ascii.length));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> IntegerUuid.parseAscii(ByteBuffer.wrap(ascii)));
+  }
+
+  @Test
+  public void testTryParse() {
+    final IntegerUuid id = new IntegerUuid();
+    final String form = id.toString();
+    IdAssertions.assertTryParse(id, form, IntegerUuid::tryParse, IntegerUuid::tryParse);
+    assertNull(IntegerUuid.tryParse(form.replace(form.charAt(0), 'z')));
+  }
+
+  @Test
+  public void testHashDistribution() {
+    IdAssertions.assertHashDistribution(IntegerUuid::new);
+  }
+}
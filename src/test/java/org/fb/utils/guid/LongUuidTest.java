@@ -15,8 +15,12 @@
  */
 package org.fb.utils.guid;
 
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
 import org.junit.jupiter.api.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
@@ -142,6 +146,23 @@ public class LongUuidTest {
     System.out.println(largest + " different consecutive elements for same time");
   }
 
+  @Test
+  public void testMonotonic() {
+    LongUuid.setMonotonic(true);
+    try {
+      assertTrue(LongUuid.isMonotonic());
+      long previous = new LongUuid().getLong();
+      for (int i = 0; i < NB; i++) {
+        final long uuid = new LongUuid().getLong();
+        assertTrue(previous < uuid);
+        previous = uuid;
+      }
+      assertTrue(LongUuid.getClockLead() >= 0);
+    } finally {
+      LongUuid.setMonotonic(false);
+    }
+  }
+
   @Test
   public void concurrentGeneration() throws Exception {
     final int numThreads = NB_THREAD;
@@ -233,4 +254,53 @@ public class LongUuidTest {
       }
     }
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testWriteTo() {
+    final LongUuid id = new LongUuid();
+    final byte[] written = IdAssertions.assertWriteTo(id, LongUuid.getKeySize(), LongUuid::new, LongUuid::writeTo,
+                                                      LongUuid::writeTo, LongUuid::generateInto);
+    assertArrayEquals(id.getBytes(), written);
+    // Big endian whatever the buffer order
+    final ByteBuffer little = ByteBuffer.allocate(LongUuid.getKeySize()).order(ByteOrder.LITTLE_ENDIAN);
+    LongUuid.generateInto(little);
+    assertTrue(new LongUuid(little.array()).getTimestamp() >= id.getTimestamp());
+  }
+
+  @Test
+  public void testParse() {
+    final LongUuid id = new LongUuid();
+    IdAssertions.assertParse(id, id.toString(), LongUuid::parse, LongUuid::parseAscii, LongUuid::parseAscii);
+    final String line = "key=" + id + ";";
+    assertThrows(InvalidArgumentRuntimeException.class, () -> LongUuid.parse(line, 3, line.length() - 1));
+    final byte[] ascii = line.getBytes(StandardCharsets.US_ASCII);
+    assertThrows(InvalidArgumentRuntimeException.class, () -> LongUuid.parseAscii(ascii, 0, ascii.length));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> LongUuid.parseAscii(ByteBuffer.wrap(ascii)));
+  }
+
+  @Test
+  public void testTryParse() {
+    final LongUuid id = new LongUuid();
+    final String form = id.toString();
+    IdAssertions.assertTryParse(id, form, LongUuid::tryParse, LongUuid::tryParse);
+    assertNull(LongUuid.tryParse(form.replace(form.charAt(0), 'z')));
+  }
+
+  @Test
+  public void testTimestampOf() {
+    final LongUuid id = new LongUuid();
+    assertEquals(id.getTimestamp(), LongUuid.timestampOf(id.toString()));
+    final String line = "id=" + id + ' ';
+    assertEquals(id.getTimestamp(), LongUuid.timestampOf(line, 3, line.length()));
+    final LongUuid max = new LongUuid(-1L);
+    assertEquals(max.getTimestamp(), LongUuid.timestampOf(max.toString()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> LongUuid.timestampOf(id.toString().substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> LongUuid.timestampOf("z" + id.toString().substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> LongUuid.timestampOf(null));
+  }
+
+  @Test
+  public void testHashDistribution() {
+    IdAssertions.assertHashDistribution(LongUuid::new);
+  }
+}
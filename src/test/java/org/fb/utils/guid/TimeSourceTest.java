@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
+import org.fb.utils.guid.GuidFactory.Guid;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TimeSourceTest {
+  private static final long DAY = 86400000L;
+
+  @Test
+  public void testManualTimeSource() {
+    final ManualTimeSource timeSource = new ManualTimeSource(1000000L);
+    assertEquals(1000000L, timeSource.currentTimeMillis());
+    assertEquals(1000010L, timeSource.advance(10));
+    assertEquals(2000000L, timeSource.set(2000000L).currentTimeMillis());
+  }
+
+  @Test
+  public void testTickerTimeSource() throws InterruptedException {
+    final TimeSource ticker = TimeSource.ticker();
+    assertSame(ticker, TimeSource.ticker());
+    final long first = ticker.currentTimeMillis();
+    assertTrue(Math.abs(first - System.currentTimeMillis()) < 100);
+    Thread.sleep(50);
+    assertTrue(ticker.currentTimeMillis() > first);
+  }
+
+  @Test
+  public void testGUIDTimeSource() {
+    final ManualTimeSource timeSource = new ManualTimeSource(1234567890L);
+    GUID.setTimeSource(timeSource);
+    TinyGUID.setTimeSource(timeSource);
+    LongUuid.setTimeSource(timeSource);
+    try {
+      assertSame(timeSource, GUID.getTimeSource());
+      assertEquals(1234567890L, new GUID().getTimestamp());
+      assertEquals(1234567890L, new TinyGUID().getTimestamp());
+      assertEquals(1234567890L, GUID.generate(10).get(9).getTimestamp());
+      assertEquals(1234567890L & 0xFFFFFFFFFFL, new LongUuid().getTimestamp());
+      timeSource.advance(1);
+      assertEquals(1234567891L, new GUID().getTimestamp());
+      assertEquals(1234567891L, TinyGUID.generate(10).get(9).getTimestamp());
+    } finally {
+      GUID.setTimeSource(TimeSource.SYSTEM);
+      TinyGUID.setTimeSource(TimeSource.SYSTEM);
+      LongUuid.setTimeSource(TimeSource.SYSTEM);
+    }
+    assertThrows(InvalidArgumentRuntimeException.class, () -> GUID.setTimeSource(null));
+  }
+
+  @Test
+  public void testGuidFactoryTimeSource() {
+    final ManualTimeSource timeSource = new ManualTimeSource(1234567890L);
+    final GuidFactory factory = new GuidFactory().setTimeSource(timeSource);
+    assertSame(timeSource, factory.getTimeSource());
+    final Guid guid = factory.newGuid();
+    assertEquals(1234567890L, guid.getTimestamp());
+    assertEquals(1234567890L, factory.newGuids(10).get(9).getTimestamp());
+    assertTrue(guid.compareTo(factory.newGuid()) < 0);
+    assertThrows(InvalidArgumentRuntimeException.class, () -> factory.setTimeSource(null));
+  }
+
+  @Test
+  public void testMonotonicManualTimeSource() {
+    // Frozen time: monotonic mode borrows next milliseconds
+    final ManualTimeSource timeSource = new ManualTimeSource();
+    final GuidFactory factory =
+        new GuidFactory().useConfiguration(GuidFactory.GUID_CONFIGURATION.SMALLEST).setTenantId(77)
+                         .setTimeSource(timeSource).setMonotonic(true);
+    Guid previous = factory.newGuid();
+    for (int i = 0; i < 100000; i++) {
+      final Guid guid = factory.newGuid();
+      assertTrue(previous.compareTo(guid) < 0);
+      previous = guid;
+    }
+    assertTrue(factory.getClockLead() > 0);
+  }
+
+  @Test
+  public void testMonotonicPastAndFutureTimeSource() {
+    final ManualTimeSource past = new ManualTimeSource(1000000000L);
+    final GuidFactory factory = new GuidFactory().setTimeSource(past).setMonotonic(true);
+    assertEquals(1000000000L, factory.newGuid().getTimestamp());
+    assertEquals(1000000000L, factory.newGuids(10).get(9).getTimestamp());
+    past.advance(5);
+    assertEquals(1000000005L, factory.newGuid().getTimestamp());
+    final ManualTimeSource future = new ManualTimeSource(System.currentTimeMillis() + DAY);
+    factory.setTimeSource(future);
+    assertEquals(future.currentTimeMillis(), factory.newGuid().getTimestamp());
+    GUID.setMonotonic(true);
+    TinyGUID.setMonotonic(true);
+    LongUuid.setMonotonic(true);
+    try {
+      // Clocks never go back: a source in the past keeps their last logical time
+      final GUID guid = new GUID();
+      final TinyGUID tiny = new TinyGUID();
+      GUID.setTimeSource(past);
+      TinyGUID.setTimeSource(past);
+      final GUID guidPast = new GUID();
+      assertTrue(guid.compareTo(guidPast) < 0);
+      assertTrue(guidPast.getTimestamp() >= guid.getTimestamp());
+      assertTrue(tiny.compareTo(new TinyGUID()) < 0);
+      assertTrue(guidPast.compareTo(GUID.generate(10).get(0)) < 0);
+      final LongUuid longUuid = new LongUuid();
+      LongUuid.setTimeSource(past);
+      assertTrue(new LongUuid().getTimestamp() >= longUuid.getTimestamp());
+      // Back to the system source, still after the last ids
+      GUID.setTimeSource(TimeSource.SYSTEM);
+      assertTrue(guidPast.compareTo(new GUID()) < 0);
+    } finally {
+      GUID.setMonotonic(false);
+      TinyGUID.setMonotonic(false);
+      LongUuid.setMonotonic(false);
+      GUID.setTimeSource(TimeSource.SYSTEM);
+      TinyGUID.setTimeSource(TimeSource.SYSTEM);
+      LongUuid.setTimeSource(TimeSource.SYSTEM);
+    }
+  }
+
+  @Test
+  public void testMonotonicTimeSourceChange() {
+    // Source changed while generating: no id given again
+    final Set<GUID> guids = new HashSet<>();
+    GUID.setMonotonic(true);
+    try {
+      for (int i = 0; i < 10000; i++) {
+        if (i % 50 == 0) {
+          GUID.setTimeSource(i % 100 == 0? TimeSource.SYSTEM : TimeSource.ticker());
+        }
+        assertTrue(guids.add(new GUID()));
+      }
+    } finally {
+      GUID.setMonotonic(false);
+      GUID.setTimeSource(TimeSource.SYSTEM);
+    }
+    final Set<Guid> ids = new HashSet<>();
+    final ManualTimeSource frozen = new ManualTimeSource();
+    final GuidFactory factory = new GuidFactory().setMonotonic(true);
+    for (int i = 0; i < 10000; i++) {
+      if (i % 50 == 0) {
+        factory.setTimeSource(i % 100 == 0? TimeSource.SYSTEM : frozen.set(System.currentTimeMillis() - 1));
+      }
+      assertTrue(ids.add(factory.newGuid()));
+    }
+  }
+
+  @Test
+  public void testIndependentMonotonicFactories() {
+    // Same settings, so same prefix: only the TimeSource differs
+    final ManualTimeSource future = new ManualTimeSource(System.currentTimeMillis() + DAY);
+    final GuidFactory ahead = new GuidFactory().setTenantId(88).setTimeSource(future).setMonotonic(true);
+    final GuidFactory current = new GuidFactory().setTenantId(88).setMonotonic(true);
+    assertEquals(future.currentTimeMillis(), ahead.newGuid().getTimestamp());
+    assertEquals(future.currentTimeMillis(), ahead.newGuids(10).get(9).getTimestamp());
+    final long now = System.currentTimeMillis();
+    assertTrue(Math.abs(current.newGuid().getTimestamp() - now) < 1000);
+    assertTrue(Math.abs(current.newGuids(10).get(9).getTimestamp() - now) < 1000);
+    // The clock shared with other factories of this layout is not moved by the future source
+    assertTrue(current.getClockLead() < 1000);
+    assertEquals(future.currentTimeMillis(), ahead.newGuid().getTimestamp());
+  }
+}
@@ -18,10 +18,19 @@ package org.fb.utils.guid;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.fb.utils.exceptions.InvalidArgumentRuntimeException;
 import org.fb.utils.json.JsonHandler;
+import org.fb.utils.various.BaseCodec;
+import org.fb.utils.various.BaseXx;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -257,6 +266,23 @@ public class TinyGUIDTest {
   }
 
 
+  @Test
+  public void testMonotonic() {
+    TinyGUID.setMonotonic(true);
+    try {
+      assertTrue(TinyGUID.isMonotonic());
+      TinyGUID previous = new TinyGUID();
+      for (int i = 0; i < NB; i++) {
+        final TinyGUID guid = new TinyGUID();
+        assertTrue(previous.compareTo(guid) < 0);
+        previous = guid;
+      }
+      assertTrue(TinyGUID.getClockLead() >= 0);
+    } finally {
+      TinyGUID.setMonotonic(false);
+    }
+  }
+
   @Test
   public void concurrentGeneration() throws Exception {
     final int numThreads = 10;
@@ -301,4 +327,207 @@ public class TinyGUIDTest {
       }
     }
   }
+
+  @Test
+  public void testWriteTo() {
+    final TinyGUID id = new TinyGUID((short) -5, 12);
+    final byte[] written = IdAssertions.assertWriteTo(id, TinyGUID.getKeySize(), TinyGUID::new, TinyGUID::writeTo,
+                                                      TinyGUID::writeTo, TinyGUID::generateInto);
+    assertArrayEquals(id.getBytes(), written);
+    final TinyGUID generated =
+        new TinyGUID(TinyGUID.generateInto(ByteBuffer.allocate(TinyGUID.getKeySize()), (short) -5, 12).array());
+    assertEquals(-5, generated.getTenantId());
+    assertEquals(12, generated.getPlatformId());
+  }
+
+  @Test
+  public void testParseRange() {
+    final TinyGUID id = new TinyGUID((short) -5, 12);
+    for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+      IdAssertions.assertParse(id, form, TinyGUID::parse, TinyGUID::parseAscii, TinyGUID::parseAscii);
+    }
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parse(WRONG_ARK1, 0, WRONG_ARK1.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parse(WRONG_ARK2, 0, WRONG_ARK2.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parse(WRONG_ARK3, 0, WRONG_ARK3.length()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parse(BASE32, 1, BASE32.length()));
+    final byte[] wrong = WRONG_ARK1.getBytes(StandardCharsets.US_ASCII);
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parseAscii(wrong, 0, wrong.length));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parseAscii(ByteBuffer.wrap(wrong)));
+  }
+
+  @Test
+  public void testTryParse() {
+    final TinyGUID id = new TinyGUID((short) -5, 12);
+    for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+      IdAssertions.assertTryParse(id, form, TinyGUID::tryParse, TinyGUID::tryParse);
+    }
+    assertNull(TinyGUID.tryParse(WRONG_ARK1));
+    assertNull(TinyGUID.tryParse(WRONG_ARK2));
+    assertNull(TinyGUID.tryParse(WRONG_ARK3));
+    assertNull(TinyGUID.tryParse(WRONG_STRING_ID));
+    // Tenant out of range
+    assertNull(TinyGUID.tryParse("ark:/32768/" + id.toArkName()));
+    assertEquals(id, TinyGUID.tryParse("ark:/-5/" + id.toArkName()));
+  }
+
+  @Test
+  public void testCacheStrings() throws JsonProcessingException {
+    final TinyGUID id = new TinyGUID((short) 5, 12);
+    final String[] forms = { id.toString(), id.toBase64(), id.toHex(), id.toArk() };
+    assertFalse(TinyGUID.isCacheStrings());
+    assertNotSame(id.toString(), id.toString());
+    TinyGUID.setCacheStrings(true);
+    try {
+      assertSame(id.toString(), id.toString());
+      assertSame(id.toBase32(), id.getId());
+      assertSame(id.toBase64(), id.toBase64());
+      assertSame(id.toHex(), id.toHex());
+      assertSame(id.toArk(), id.toArk());
+      assertArrayEquals(forms, new String[] { id.toString(), id.toBase64(), id.toHex(), id.toArk() });
+      final String json = JsonHandler.writeAsString(id);
+      assertEquals(id, JsonHandler.getFromString(json, TinyGUID.class));
+    } finally {
+      TinyGUID.setCacheStrings(false);
+    }
+    assertArrayEquals(forms, new String[] { id.toString(), id.toBase64(), id.toHex(), id.toArk() });
+  }
+
+  @Test
+  public void testSortable() {
+    final TinyGUID id = new TinyGUID(-5, 12);
+    final String sortable = id.toSortable();
+    assertEquals(TinyGUID.KEYB32SIZE, sortable.length());
+    assertEquals(id, TinyGUID.parseSortable(sortable));
+    assertEquals(id, TinyGUID.parseSortable(" " + sortable.toLowerCase() + " "));
+    assertEquals(id, TinyGUID.tryParseSortable(sortable));
+    assertNull(TinyGUID.tryParseSortable(sortable.substring(1)));
+    assertNull(TinyGUID.tryParseSortable('U' + sortable.substring(1)));
+    assertNull(TinyGUID.tryParseSortable(id.toBase32()));
+    assertNull(TinyGUID.tryParseSortable(null));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parseSortable(sortable.substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.parseSortable(null));
+    // String order is compareTo order, whatever the sign of the tenant, even
+    // on ties of Tenant, Time and Counter
+    final Random random = new Random(TinyGUID.KEYSIZE);
+    final TinyGUID[] ids = new TinyGUID[1000];
+    final String[] sortables = new String[ids.length];
+    final byte[] bytes = new byte[TinyGUID.KEYSIZE];
+    for (var i = 0; i < ids.length; i++) {
+      random.nextBytes(bytes);
+      bytes[TinyGUID.HEADER_POS] = (byte) VERSION;
+      if (i > 0 && random.nextBoolean()) {
+        // Same Tenant, and maybe same Time, than previous one
+        final int same = random.nextBoolean()? TinyGUID.TENANT_SIZE : TinyGUID.COUNTER_POS - TinyGUID.TENANT_POS;
+        System.arraycopy(ids[i - 1].getBytes(), TinyGUID.TENANT_POS, bytes, TinyGUID.TENANT_POS, same);
+      }
+      if (i > 0 && random.nextInt(4) == 0) {
+        // Same Tenant, Time and Counter, only the other fields differ
+        final byte[] previous = ids[i - 1].getBytes();
+        System.arraycopy(previous, TinyGUID.TENANT_POS, bytes, TinyGUID.TENANT_POS, TinyGUID.TENANT_SIZE);
+        System.arraycopy(previous, TinyGUID.TIME_POS, bytes, TinyGUID.TIME_POS, TinyGUID.KEYSIZE - TinyGUID.TIME_POS);
+      }
+      ids[i] = new TinyGUID(bytes);
+      sortables[i] = ids[i].toSortable();
+      assertEquals(ids[i], TinyGUID.parseSortable(sortables[i]));
+    }
+    for (var i = 0; i < ids.length; i++) {
+      for (var j = 0; j < ids.length; j++) {
+        assertEquals(Integer.signum(ids[i].compareTo(ids[j])), Integer.signum(sortables[i].compareTo(sortables[j])));
+      }
+    }
+  }
+
+  @Test
+  public void testBulkEncoding() {
+    final List<TinyGUID> ids = new ArrayList<>();
+    for (var i = 0; i < 1000; i++) {
+      ids.add(new TinyGUID(i, 12));
+    }
+    final byte[] base64 = TinyGUID.encodeAll(ids, BaseCodec.BASE64, (byte) '\n');
+    final String[] lines = new String(base64, StandardCharsets.US_ASCII).split("\n");
+    assertEquals(ids.size(), lines.length);
+    for (var i = 0; i < lines.length; i++) {
+      assertEquals(ids.get(i).toBase64(), lines[i]);
+    }
+    assertEquals(ids, TinyGUID.decodeAll(base64, 0, base64.length, BaseCodec.BASE64, (byte) '\n').asList());
+    // Directly from the arena of a batch
+    final GuidBatch<TinyGUID> batch = TinyGUID.generate(100);
+    final byte[] base32 = TinyGUID.encodeAll(batch.asList(), BaseCodec.BASE32, (byte) ',');
+    assertEquals(batch.get(99).toBase32(), new String(base32, StandardCharsets.US_ASCII).split(",")[99]);
+    assertArrayEquals(batch.getArena(),
+                      TinyGUID.decodeAll(base32, 0, base32.length, BaseCodec.BASE32, (byte) ',').getArena());
+    base32[0] = 'b';
+    assertThrows(InvalidArgumentRuntimeException.class,
+                 () -> TinyGUID.decodeAll(base32, 0, base32.length, BaseCodec.BASE32, (byte) ','));
+  }
+
+  @Test
+  public void testArkWriting() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    final byte[] bytes = new byte[100];
+    final ByteBuffer direct = ByteBuffer.allocateDirect(100);
+    for (final short tenant : new short[] { 0, 1, -1, 12345, Short.MIN_VALUE, Short.MAX_VALUE }) {
+      final TinyGUID id = new TinyGUID(tenant, 12);
+      final String ark = id.toArk();
+      assertEquals("ark:/" + tenant + '/' + id.toArkName(), ark);
+      assertEquals(ark.length(), id.getArkLength());
+      builder.setLength(0);
+      assertEquals(ark, id.appendArk(builder).toString());
+      assertEquals(ark, id.appendArk((Appendable) new StringBuilder()).toString());
+      assertEquals(ark.length() + 3, id.writeArk(bytes, 3));
+      assertEquals(ark, new String(bytes, 3, ark.length(), StandardCharsets.US_ASCII));
+      direct.clear();
+      id.writeArk(direct).flip();
+      assertEquals(ark, StandardCharsets.US_ASCII.decode(direct).toString());
+      assertEquals(id, TinyGUID.parseAscii(bytes, 3, ark.length()));
+      assertEquals(id, new TinyGUID(ark));
+    }
+    assertNull(TinyGUID.tryParse("ark:/32768/" + new TinyGUID().toArkName()));
+  }
+
+  @Test
+  public void testFieldsOf() {
+    for (final short tenant : new short[] { 0, 1, -1, 12345, Short.MIN_VALUE, Short.MAX_VALUE }) {
+      final TinyGUID id = new TinyGUID(tenant, 12);
+      for (final String form : new String[] { id.toHex(), id.toBase32(), id.toBase64(), id.toArk() }) {
+        assertEquals(id.getTimestamp(), TinyGUID.timestampOf(form));
+        assertEquals(tenant, TinyGUID.tenantOf(form));
+        final String line = "ts=" + form + " ";
+        assertEquals(id.getTimestamp(), TinyGUID.timestampOf(line, 3, line.length()));
+        assertEquals(tenant, TinyGUID.tenantOf(line, 3, line.length()));
+      }
+    }
+    final TinyGUID id = new TinyGUID();
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.timestampOf(id.toHex().substring(1)));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.tenantOf(new GUID().toBase64()));
+    assertThrows(InvalidArgumentRuntimeException.class, () -> TinyGUID.tenantOf("ark:/70000/" + id.toArkName()));
+    assertThrows(IndexOutOfBoundsException.class, () -> TinyGUID.timestampOf(id.toHex(), 0, 100));
+  }
+
+  @Test
+  public void testPrimitiveFields() {
+    final Random random = new Random(16);
+    final byte[] bytes = new byte[16];
+    final ByteBuffer little = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+    for (var i = 0; i < 1000; i++) {
+      random.nextBytes(bytes);
+      bytes[0] = 2;
+      final TinyGUID id = new TinyGUID(bytes);
+      assertArrayEquals(bytes, id.getBytes());
+      assertEquals(BaseXx.getBase16(bytes), id.toHex());
+      assertEquals(BaseXx.getBase32(bytes), id.toBase32());
+      assertEquals(BaseXx.getBase64(bytes), id.toBase64());
+      little.clear();
+      id.writeTo(little);
+      assertArrayEquals(bytes, little.array());
+      assertEquals(id, TinyGUID.parse(id.toArk(), 0, id.toArk().length()));
+      assertEquals(id, TinyGUID.parseSortable(id.toSortable()));
+      assertEquals(id.hashCode(), new TinyGUID(bytes).hashCode());
+    }
+  }
+
+  @Test
+  public void testHashDistribution() {
+    IdAssertions.assertHashDistribution(TinyGUID.generate(IdAssertions.HASH_IDS).asList().iterator()::next);
+  }
 }
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.fb.utils.guid;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UuidCounterTest {
+  private static final int NB = 1000000;
+  private static final int NB_THREAD = 10;
+
+  @Test
+  public void testWrap() {
+    final UuidCounter counter = new UuidCounter(0, 7);
+    for (int i = 0; i < 8; i++) {
+      assertEquals(i, counter.next());
+    }
+    assertEquals(0, counter.next());
+    assertEquals(1, counter.next());
+
+    final UuidCounter counter2 = new UuidCounter(2, 4);
+    assertEquals(2, counter2.next());
+    assertEquals(3, counter2.next());
+    assertEquals(4, counter2.next());
+    assertEquals(2, counter2.next());
+  }
+
+  @Test
+  public void testWrapIntegerRange() {
+    final UuidCounter counter = new UuidCounter(Integer.MIN_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE - 1);
+    assertEquals(Integer.MAX_VALUE - 1, counter.next());
+    assertEquals(Integer.MAX_VALUE, counter.next());
+    assertEquals(Integer.MIN_VALUE, counter.next());
+    assertEquals(Integer.MIN_VALUE + 1, counter.next());
+  }
+
+  @Test
+  public void concurrentCounterGeneration() throws Exception {
+    final UuidCounter counter = new UuidCounter(0, Integer.MAX_VALUE);
+    final Thread[] threads = new Thread[NB_THREAD];
+    final int n = NB / NB_THREAD;
+    final int[] values = new int[n * NB_THREAD];
+    for (int i = 0; i < NB_THREAD; i++) {
+      final int base = i * n;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < n; j++) {
+          values[base + j] = counter.next();
+        }
+      });
+      threads[i].start();
+    }
+    for (int i = 0; i < NB_THREAD; i++) {
+      threads[i].join();
+    }
+    final Set<Integer> set = new HashSet<>(values.length);
+    for (final int value : values) {
+      set.add(value);
+    }
+    assertEquals(values.length, set.size());
+  }
+
+  @Test
+  public void concurrentStripedGeneration() throws Exception {
+    final UuidCounter counter = new UuidCounter(0, Integer.MAX_VALUE);
+    final Thread[] threads = new Thread[NB_THREAD];
+    final int n = NB / NB_THREAD;
+    final int[] values = new int[n * NB_THREAD];
+    for (int i = 0; i < NB_THREAD; i++) {
+      final int base = i * n;
+      threads[i] = new Thread(() -> {
+        for (int j = 0; j < n; j++) {
+          values[base + j] = counter.nextStriped();
+        }
+      });
+      threads[i].start();
+    }
+    for (int i = 0; i < NB_THREAD; i++) {
+      threads[i].join();
+    }
+    final Set<Integer> set = new HashSet<>(values.length);
+    for (final int value : values) {
+      set.add(value);
+    }
+    assertEquals(values.length, set.size());
+  }
+
+  @Test
+  public void testStripedWrap() {
+    final int max = UuidCounter.STRIPE_SIZE * 2 - 1;
+    final UuidCounter counter = new UuidCounter(0, max);
+    for (int i = 0; i < max * 3; i++) {
+      assertEquals(i % (max + 1), counter.nextStriped());
+    }
+  }
+}
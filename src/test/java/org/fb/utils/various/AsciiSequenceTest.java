@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.various;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AsciiSequenceTest {
+  private static final String TEXT = "GET /ids/aebagbaf HTTP/1.1";
+
+  @Test
+  public void testArray() {
+    final byte[] bytes = ("#" + TEXT + "#").getBytes(StandardCharsets.US_ASCII);
+    final AsciiSequence sequence = AsciiSequence.of(bytes, 1, TEXT.length());
+    assertEquals(TEXT.length(), sequence.length());
+    assertEquals('G', sequence.charAt(0));
+    assertEquals(TEXT, sequence.toString());
+    assertEquals("ids", sequence.subSequence(5, 8).toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> sequence.charAt(TEXT.length()));
+    assertThrows(IndexOutOfBoundsException.class, () -> sequence.subSequence(2, 1));
+    assertThrows(IndexOutOfBoundsException.class, () -> AsciiSequence.of(bytes, 2, bytes.length));
+    assertEquals((char) 0xE9, AsciiSequence.of(new byte[] { (byte) 0xE9 }, 0, 1).charAt(0));
+  }
+
+  @Test
+  public void testBuffer() {
+    final byte[] bytes = TEXT.getBytes(StandardCharsets.US_ASCII);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+    direct.put((byte) '#').put(bytes).put((byte) '#').position(1).limit(bytes.length + 1);
+    for (final ByteBuffer buffer : new ByteBuffer[] {
+        direct, ByteBuffer.wrap(bytes), ByteBuffer.wrap(bytes).asReadOnlyBuffer()
+    }) {
+      final int position = buffer.position();
+      final AsciiSequence sequence = AsciiSequence.of(buffer);
+      assertEquals(TEXT, sequence.toString());
+      assertEquals("ids", sequence.subSequence(5, 8).toString());
+      assertEquals('1', sequence.charAt(TEXT.length() - 1));
+      assertEquals(position, buffer.position());
+    }
+    assertArrayEquals(BaseCodec.BASE32.decode("aebagbaf"),
+                      BaseCodec.BASE32.decode(AsciiSequence.of(ByteBuffer.wrap(bytes)).subSequence(9, 17)));
+  }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2022. FbUtilities Contributors and Frederic Bregier
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed
+ *  under the License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ *   OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+
+package org.fb.utils.various;
+
+import com.google.common.io.BaseEncoding;
+import org.junit.jupiter.api.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BaseCodecTest {
+  private static final BaseCodec[] CODECS = {
+      BaseCodec.BASE16, BaseCodec.BASE32, BaseCodec.BASE64, BaseCodec.BASE64_PADDING, BaseCodec.BASE64_URL
+  };
+  private static final BaseEncoding[] GUAVA = {
+      BaseEncoding.base16().lowerCase().omitPadding(), BaseEncoding.base32().lowerCase().omitPadding(),
+      BaseEncoding.base64().omitPadding(), BaseEncoding.base64(), BaseEncoding.base64Url().omitPadding()
+  };
+
+  @Test
+  public void testSameAsGuava() {
+    for (var c = 0; c < CODECS.length; c++) {
+      for (var i = 0; i < 100; i++) {
+        final byte[] bytes = RandomUtil.getRandom(i + 3);
+        final String expected = GUAVA[c].encode(bytes, 3, i);
+        assertEquals(expected, CODECS[c].encode(bytes, 3, i));
+        assertEquals(expected.length(), CODECS[c].encodedLength(i));
+        final char[] chars = new char[expected.length() + 2];
+        assertEquals(expected.length() + 2, CODECS[c].encode(bytes, 3, i, chars, 2));
+        assertEquals(expected, new String(chars, 2, expected.length()));
+        final byte[] decoded = CODECS[c].decode(expected);
+        assertArrayEquals(GUAVA[c].decode(expected), decoded);
+        final byte[] dst = new byte[i + 1];
+        assertEquals(i + 1, CODECS[c].decode("#" + expected + "#", 1, expected.length() + 1, dst, 1));
+        for (var k = 0; k < i; k++) {
+          assertEquals(bytes[k + 3], dst[k + 1]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testInvalid() {
+    for (var c = 0; c < CODECS.length; c++) {
+      final String encoded = CODECS[c].encode(RandomUtil.getRandom(10), 0, 10);
+      assertNull(CODECS[c].decode(encoded + "#"));
+      assertNull(CODECS[c].decode(encoded.substring(0, 1)));
+      assertNull(CODECS[c].decode("\u00e9" + encoded.substring(1)));
+      assertEquals(-1, CODECS[c].decode(encoded + "\u4e00", 0, encoded.length() + 1, new byte[20], 0));
+    }
+    assertNull(BaseCodec.BASE32.decode("MFRA"));
+    assertNull(BaseCodec.BASE16.decode("AB"));
+    assertNull(BaseCodec.BASE64.decode("QUI="));
+    assertArrayEquals("AB".getBytes(), BaseCodec.BASE64_PADDING.decode("QUI="));
+    assertArrayEquals("AB".getBytes(), BaseCodec.BASE64_PADDING.decode("QUI"));
+    assertEquals(-1, BaseCodec.BASE32.decodedLength(3));
+    assertEquals(0, BaseCodec.BASE32.decode("").length);
+    assertThrows(IndexOutOfBoundsException.class, () -> BaseCodec.BASE32.encode(new byte[4], 2, 3));
+    assertThrows(IndexOutOfBoundsException.class,
+                 () -> BaseCodec.BASE32.encode(new byte[5], 0, 5, new byte[7], 0));
+  }
+
+  @Test
+  public void testCrockford() {
+    final String base32 = "abcdefghijklmnopqrstuvwxyz234567";
+    final String crockford = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    for (var i = 0; i < 100; i++) {
+      final byte[] bytes = RandomUtil.getRandom(i);
+      final String encoded = BaseCodec.CROCKFORD32.encode(bytes, 0, i);
+      // Same bits as Base32, only the alphabet differs
+      final StringBuilder expected = new StringBuilder();
+      for (final char c : BaseCodec.BASE32.encode(bytes, 0, i).toCharArray()) {
+        expected.append(crockford.charAt(base32.indexOf(c)));
+      }
+      assertEquals(expected.toString(), encoded);
+      assertArrayEquals(bytes, BaseCodec.CROCKFORD32.decode(encoded));
+      assertArrayEquals(bytes, BaseCodec.CROCKFORD32.decode(encoded.toLowerCase()));
+    }
+    assertArrayEquals(BaseCodec.CROCKFORD32.decode("1100"), BaseCodec.CROCKFORD32.decode("iLoO"));
+    assertNull(BaseCodec.CROCKFORD32.decode("UUUU"));
+    // Order preserving for arrays of the same size
+    final Random random = new Random(13);
+    final byte[] bytes = new byte[13];
+    for (var i = 0; i < 1000; i++) {
+      random.nextBytes(bytes);
+      final byte[] bytes2 = Arrays.copyOf(bytes, 13);
+      bytes2[i % 13] = (byte) random.nextInt();
+      assertEquals(Integer.signum(Arrays.compareUnsigned(bytes, bytes2)),
+                   Integer.signum(BaseCodec.CROCKFORD32.encode(bytes, 0, 13)
+                                                       .compareTo(BaseCodec.CROCKFORD32.encode(bytes2, 0, 13))));
+    }
+  }
+
+  @Test
+  public void testDecodeRange() {
+    final byte[] bytes = RandomUtil.getRandom(21);
+    final byte[] dst = new byte[22];
+    for (final BaseCodec codec : CODECS) {
+      final String encoded = "  " + codec.encode(bytes, 0, 21) + ' ';
+      final int end = encoded.length() - 1;
+      for (var offset = 0; offset < 21; offset++) {
+        for (var size = 0; offset + size <= 21; size++) {
+          assertEquals(1 + size, codec.decode(encoded, 2, end, offset, size, dst, 1));
+          assertArrayEquals(Arrays.copyOfRange(bytes, offset, offset + size), Arrays.copyOfRange(dst, 1, 1 + size));
+        }
+      }
+      assertThrows(IndexOutOfBoundsException.class, () -> codec.decode(encoded, 2, end, 20, 2, dst, 0));
+      assertEquals(-1, codec.decode(encoded, 2, 3, 0, 0, dst, 0));
+      // Only the chars covering the range are read
+      final String invalid = encoded.substring(0, end - 1) + '!' + ' ';
+      assertEquals(4, codec.decode(invalid, 2, end, 0, 4, dst, 0));
+      assertEquals(-1, codec.decode(invalid, 2, end, 17, 4, dst, 0));
+    }
+  }
+
+  @Test
+  public void testBulk() {
+    final byte delimiter = '\n';
+    for (final BaseCodec codec : CODECS) {
+      final byte[] records = RandomUtil.getRandom(21 * 1000 + 2);
+      final byte[] ascii = new byte[codec.encodedLength(21, 1000) + 2];
+      assertEquals(ascii.length - 1, codec.encodeAll(records, 2, 21, 1000, ascii, 1, delimiter));
+      final String[] lines = new String(ascii, 1, ascii.length - 2).split("\n");
+      assertEquals(1000, lines.length);
+      for (var i = 0; i < lines.length; i++) {
+        assertEquals(codec.encode(records, 2 + i * 21, 21), lines[i]);
+      }
+      final byte[] decoded = new byte[records.length];
+      assertEquals(1000, codec.decodeAll(ascii, 1, ascii.length - 2, delimiter, 21, decoded, 2));
+      assertArrayEquals(Arrays.copyOfRange(records, 2, records.length),
+                        Arrays.copyOfRange(decoded, 2, decoded.length));
+      // Trailing delimiter accepted
+      ascii[ascii.length - 1] = delimiter;
+      assertEquals(1000, codec.decodeAll(ascii, 1, ascii.length - 1, delimiter, 21, decoded, 2));
+      // Direct buffers through scratch arrays
+      final ByteBuffer src = ByteBuffer.allocateDirect(21 * 1000);
+      src.put(records, 2, 21 * 1000).flip();
+      final ByteBuffer dst = ByteBuffer.allocateDirect(ascii.length);
+      assertEquals(1000, codec.encodeAll(src, 21, dst, delimiter));
+      assertEquals(0, src.remaining());
+      dst.put(delimiter).flip();
+      final byte[] copy = new byte[dst.remaining()];
+      dst.duplicate().get(copy);
+      assertArrayEquals(Arrays.copyOfRange(ascii, 1, ascii.length), copy);
+      final ByteBuffer back = ByteBuffer.allocateDirect(21 * 1000);
+      assertEquals(1000, codec.decodeAll(dst, delimiter, 21, back));
+      assertEquals(0, dst.remaining());
+      back.flip();
+      final byte[] result = new byte[21 * 1000];
+      back.get(result);
+      assertArrayEquals(Arrays.copyOfRange(records, 2, records.length), result);
+      // Invalid content or delimiter
+      ascii[ascii.length / 2] = '#';
+      assertEquals(-1, codec.decodeAll(ascii, 1, ascii.length - 1, delimiter, 21, decoded, 2));
+      final ByteBuffer invalid = ByteBuffer.wrap(ascii, 1, ascii.length - 1);
+      assertEquals(-1, codec.decodeAll(invalid, delimiter, 21, ByteBuffer.allocate(21 * 1000)));
+      assertEquals(1, invalid.position());
+      assertEquals(-1, codec.decodeAll(ascii, 1, ascii.length - 2, delimiter, 21, decoded, 2));
+      assertEquals(-1, codec.decodeAll(lines[0].getBytes(), 0, lines[0].length() - 1, delimiter, 21, decoded, 0));
+    }
+    assertEquals(0, BaseCodec.BASE32.encodedLength(21, 0));
+    assertEquals(0, BaseCodec.BASE32.decodeAll(new byte[0], 0, 0, (byte) '\n', 21, new byte[0], 0));
+    assertThrows(IllegalArgumentException.class,
+                 () -> BaseCodec.BASE32.encodeAll(ByteBuffer.allocate(20), 21, ByteBuffer.allocate(100), (byte) ','));
+    assertThrows(BufferOverflowException.class,
+                 () -> BaseCodec.BASE32.encodeAll(ByteBuffer.allocate(42), 21, ByteBuffer.allocate(60), (byte) ','));
+    assertThrows(IndexOutOfBoundsException.class,
+                 () -> BaseCodec.BASE32.encodeAll(new byte[41], 0, 21, 2, new byte[100], 0, (byte) ','));
+  }
+}